@@ -0,0 +1,78 @@
+package com.financeapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits for the application caches, per cache name. A cache is bounded either by entry count
+ * ({@code maximum-size}) or by total weight ({@code maximum-weight}, see {@link AsyncCacheConfig}
+ * for how entries are weighed); names without a spec get {@link #getDefaults()}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class AppCacheProperties {
+
+    private Spec defaults = new Spec(1_000L, null, Duration.ofMinutes(10));
+    private Map<String, Spec> specs = new LinkedHashMap<>(Map.of(
+            "forecasts", new Spec(null, 500_000L, Duration.ofMinutes(30)),
+            "ensembleWeights", new Spec(10_000L, null, Duration.ofHours(6)),
+            "seasonality", new Spec(100_000L, null, Duration.ofDays(7))));
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Spec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, Spec> specs) {
+        this.specs = specs;
+    }
+
+    public static class Spec {
+        private Long maximumSize; // entries
+        private Long maximumWeight; // forecast points; takes precedence over maximumSize
+        private Duration ttl; // since write; null keeps entries until evicted by size
+
+        public Spec() {}
+
+        public Spec(Long maximumSize, Long maximumWeight, Duration ttl) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.ttl = ttl;
+        }
+
+        public Long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(Long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.financeapp.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 @Configuration
@@ -26,10 +29,44 @@ public class AsyncCacheConfig {
         return executor;
     }
 
+    /**
+     * Caffeine caches sized from {@link AppCacheProperties}; eviction is Caffeine's W-TinyLFU, so
+     * one-off keys do not push out frequently read forecasts. Async mode lets {@code @Cacheable}
+     * methods returning {@code CompletableFuture} store the completed value; failed futures are
+     * never cached. Stats are recorded for the actuator's cache meters.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("forecasts");
+    public CacheManager cacheManager(AppCacheProperties properties) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setAsyncCacheMode(true);
+        manager.setCaffeine(builder(properties.getDefaults()));
+        properties.getSpecs().forEach((name, spec) -> manager.registerCustomCache(name, builder(spec).buildAsync()));
+        return manager;
     }
-}
 
+    private static Caffeine<Object, Object> builder(AppCacheProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumWeight() != null) {
+            builder.maximumWeight(spec.getMaximumWeight()).weigher((key, value) -> weigh(value));
+        } else if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getTtl() != null) {
+            builder.expireAfterWrite(spec.getTtl());
+        }
+        return builder;
+    }
 
+    // Forecast lists weigh their number of points, batch maps the points of every list
+    static int weigh(Object value) {
+        if (value instanceof Collection<?> c) {
+            return Math.max(1, c.size());
+        }
+        if (value instanceof Map<?, ?> m) {
+            int total = 0;
+            for (Object v : m.values()) total += weigh(v);
+            return Math.max(1, total);
+        }
+        return 1;
+    }
+}
@@ -1,14 +1,25 @@
 package com.financeapp.controller;
 
 import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
 import com.financeapp.entity.ForecastResult;
 import com.financeapp.dto.ForecastDtos;
+import com.financeapp.service.ForecastJobService;
+import com.financeapp.service.ForecastRunService;
 import com.financeapp.service.ForecastService;
+import com.financeapp.service.ForecastTuningService;
+import com.financeapp.service.forecast.ForecastHorizons;
+import com.financeapp.service.forecast.ResampledSeries;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+import com.financeapp.service.forecast.SingleFlight;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -19,10 +30,25 @@ import java.util.concurrent.CompletableFuture;
 public class ForecastController {
 
     private final ForecastService forecastService;
+    private final ForecastTuningService forecastTuningService;
+    private final ForecastJobService forecastJobService;
+    private final ForecastRunService forecastRunService;
     private final com.financeapp.service.AiService aiService;
+    // Identical requests arriving together (e.g. dashboard widgets) share one computation
+    private final SingleFlight<String, List<ForecastResult>> inFlightForecasts = new SingleFlight<>();
 
-    public ForecastController(ForecastService forecastService, com.financeapp.service.AiService aiService) {
+    @Value("${app.forecast.canonical-horizon-days:90}")
+    private int canonicalHorizonDays = 90;
+
+    public ForecastController(ForecastService forecastService,
+                              ForecastTuningService forecastTuningService,
+                              ForecastJobService forecastJobService,
+                              ForecastRunService forecastRunService,
+                              com.financeapp.service.AiService aiService) {
         this.forecastService = forecastService;
+        this.forecastTuningService = forecastTuningService;
+        this.forecastJobService = forecastJobService;
+        this.forecastRunService = forecastRunService;
         this.aiService = aiService;
     }
 
@@ -32,12 +58,43 @@ public class ForecastController {
             @PathVariable Long userId,
             @RequestParam(defaultValue = "daily") String period,
             @RequestParam(defaultValue = "7") int horizonDays) {
-        ForecastConfig cfg = new ForecastConfig();
-        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
-        return forecastService.generateForecast(userId, cfg, LocalDate.now().plusDays(1), horizonDays)
+        ResampledSeries.Period resolution = ResampledSeries.Period.parse(period);
+        return forecast(userId, resolution, LocalDate.now().plusDays(1), horizonDays).thenApply(ResponseEntity::ok);
+    }
+
+    // Dashboards asking for 7, 30 and 90 days get one forecast of the longest horizon, cut into prefixes
+    @GetMapping("/{userId}/horizons")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<Map<Integer, List<ForecastResult>>>> getMultiHorizonForecast(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "daily") String period,
+            @RequestParam List<Integer> horizons) {
+        ResampledSeries.Period resolution = ResampledSeries.Period.parse(period);
+        // Several horizons are cut from the canonical forecast, so dashboards asking for different
+        // sets share one computation and one cache entry; a single horizon forecasts its own length
+        int longest = ForecastHorizons.longest(horizons);
+        if (horizons.stream().distinct().count() > 1) {
+            longest = Math.max(canonicalHorizonDays, longest);
+        }
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        return forecast(userId, resolution, startDate, longest)
+                .thenApply(results -> ForecastHorizons.prefixes(results, horizons, h -> resolution.bucketsCovering(startDate, h)))
                 .thenApply(ResponseEntity::ok);
     }
 
+    // Shares in-flight work and cache entries between requests served from the same forecast
+    private CompletableFuture<List<ForecastResult>> forecast(Long userId, ResampledSeries.Period resolution,
+                                                             LocalDate startDate, int horizonDays) {
+        String key = "forecast-" + userId + '-' + resolution + '-' + startDate + '-' + horizonDays;
+        return inFlightForecasts.execute(key, () -> {
+            ForecastConfig cfg = forecastService.defaultConfig(userId, ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+            // Weekly and monthly forecasts run on bucket totals, one result per bucket
+            return resolution == ResampledSeries.Period.DAILY
+                    ? forecastService.generateForecast(userId, cfg, startDate, horizonDays)
+                    : forecastService.generateResampledForecast(userId, cfg, startDate, horizonDays, resolution);
+        });
+    }
+
     @PostMapping("/generate")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public CompletableFuture<ResponseEntity<Map<Long, List<ForecastResult>>>> batchGenerate(
@@ -50,17 +107,72 @@ public class ForecastController {
                 .thenApply(ResponseEntity::ok);
     }
 
+    // Queues the batch and returns 202 with the job id; 429 when the queue is full
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ForecastDtos.JobStatusDto> submitJob(@RequestBody ForecastDtos.BatchGenerateRequest request) {
+        int horizonDays = request.horizonDays != null ? request.horizonDays : 7;
+        LocalDate startDate = request.startDate != null ? request.startDate : LocalDate.now().plusDays(1);
+        List<ForecastConfig> configs = request.configs != null ? request.configs : List.of();
+        // A user waiting on one config jumps the queue; clients may only ask to be queued lower
+        ForecastJob.Priority priority = configs.size() <= 1 ? ForecastJob.Priority.INTERACTIVE : ForecastJob.Priority.BULK;
+        if (request.priority != null && request.priority.compareTo(priority) > 0) {
+            priority = request.priority;
+        }
+        ForecastDtos.JobStatusDto job = forecastJobService.submit(request.userId, configs, startDate, horizonDays, priority);
+        return ResponseEntity.accepted().location(URI.create("/api/forecasts/jobs/" + job.jobId)).body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ForecastDtos.JobStatusDto> jobStatus(@PathVariable Long jobId) {
+        return forecastJobService.status(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Stored forecasts for target dates in [from, to], expanded from their runs
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<ForecastDtos.ForecastPointDto>> history(
+            @RequestParam Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        return ResponseEntity.ok(forecastRunService.findForUserBetween(userId, from, to).stream()
+                .map(r -> new ForecastDtos.ForecastPointDto(r.getConfig().getId(), r.getTargetDate(), r.getForecastValue(),
+                        r.getForecastP10(), r.getForecastP50(), r.getForecastP90()))
+                .toList());
+    }
+
     @GetMapping("/accuracy")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public CompletableFuture<ResponseEntity<List<ForecastResult>>> accuracy(
             @RequestParam Long userId,
             @RequestParam(defaultValue = "7") int horizonDays,
             @RequestParam(defaultValue = "60") int lookbackDays) {
-        ForecastConfig cfg = new ForecastConfig();
-        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
-        cfg.setWindowSize(7);
-        return forecastService
-                .backtestAndStoreAccuracy(userId, cfg, LocalDate.now().plusDays(1), horizonDays, lookbackDays)
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        String key = "accuracy-" + userId + '-' + startDate + '-' + horizonDays + '-' + lookbackDays;
+        return inFlightForecasts.execute(key, () -> {
+            ForecastConfig cfg = new ForecastConfig();
+            cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+            cfg.setWindowSize(7);
+            return forecastService.backtestAndStoreAccuracy(userId, cfg, startDate, horizonDays, lookbackDays);
+        }).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/tune")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<ForecastDtos.TuningResultDto>> tune(
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "7") int horizonDays,
+            @RequestParam(defaultValue = "180") int lookbackDays,
+            @RequestParam(defaultValue = "4") int folds,
+            @RequestParam(defaultValue = "EXPANDING") RollingOriginBacktest.WindowMode mode) {
+        return forecastTuningService
+                .tune(userId, LocalDate.now().plusDays(1), horizonDays, lookbackDays, folds, mode)
                 .thenApply(ResponseEntity::ok);
     }
 
@@ -1,8 +1,11 @@
 package com.financeapp.dto;
 
 import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -13,20 +16,48 @@ public class ForecastDtos {
         public LocalDate startDate; // optional; defaults to tomorrow
         public Integer horizonDays; // optional; defaults to 7
         public List<ForecastConfig> configs;
+        public ForecastJob.Priority priority; // job API only; may lower, never raise, the derived priority
     }
 
     public static class AccuracyMetricsDto {
         public Long configId;
+        public String algorithm;
         public Double mape;
+        public Double smape;
+        public Double mase;
+        public Double rmse;
+        public Double bias;
         public Integer horizonDays;
         public Integer lookbackDays;
     }
 
+    public static class TuningResultDto {
+        public Long userId;
+        public Integer horizonDays;
+        public Integer lookbackDays;
+        public Integer folds;
+        public String windowMode;
+        public Long selectedConfigId; // null when no candidate could be scored
+        public List<AccuracyMetricsDto> candidates;
+    }
+
     public static class InsightsDto {
         public List<String> topModels;
         public Map<String, Object> aggregates;
         public String notes;
     }
-}
 
+    public static class JobStatusDto {
+        public Long jobId;
+        public Long userId;
+        public String status;
+        public String priority;
+        public String errorMessage;
+        public OffsetDateTime createdAt;
+        public OffsetDateTime updatedAt;
+        public List<ForecastPointDto> results; // only once COMPLETED
+    }
 
+    public record ForecastPointDto(Long configId, LocalDate targetDate, BigDecimal value,
+                                   BigDecimal p10, BigDecimal p50, BigDecimal p90) {}
+}
@@ -0,0 +1,59 @@
+package com.financeapp.entity;
+
+import com.financeapp.entity.enums.Category;
+import jakarta.persistence.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Snapshot of the running expense statistics for one user and category; see
+ * {@code com.financeapp.service.forecast.RunningStats}.
+ */
+@Entity
+@Table(name = "category_spending_stats", uniqueConstraints = @UniqueConstraint(name = "uk_category_spending_stats",
+        columnNames = {"user_id", "category"}))
+@EntityListeners(AuditingEntityListener.class)
+public class CategorySpendingStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false, length = 64)
+    private Category category;
+
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    @Column(name = "mean", nullable = false)
+    private double mean;
+
+    @Column(name = "m2", nullable = false)
+    private double m2; // sum of squared deviations from the mean
+
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    public CategorySpendingStats() {}
+
+    public Long getId() { return id; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public Category getCategory() { return category; }
+    public void setCategory(Category category) { this.category = category; }
+    public long getSampleCount() { return sampleCount; }
+    public void setSampleCount(long sampleCount) { this.sampleCount = sampleCount; }
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+    public double getM2() { return m2; }
+    public void setM2(double m2) { this.m2 = m2; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+}
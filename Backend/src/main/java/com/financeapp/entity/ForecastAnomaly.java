@@ -1,5 +1,6 @@
 package com.financeapp.entity;
 
+import com.financeapp.entity.enums.Category;
 import jakarta.persistence.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,7 +14,8 @@ import java.time.OffsetDateTime;
 public class ForecastAnomaly {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "forecast_anomalies_seq")
+    @SequenceGenerator(name = "forecast_anomalies_seq", sequenceName = "forecast_anomalies_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +29,10 @@ public class ForecastAnomaly {
     @Column(name = "event_date", nullable = false)
     private LocalDate date;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", length = 64)
+    private Category category; // set for single expenses flagged on write; null for day-level scans
+
     @Column(name = "anomaly_value", nullable = false)
     private Double value;
 
@@ -47,6 +53,8 @@ public class ForecastAnomaly {
     public void setConfig(ForecastConfig config) { this.config = config; }
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
+    public Category getCategory() { return category; }
+    public void setCategory(Category category) { this.category = category; }
     public Double getValue() { return value; }
     public void setValue(Double value) { this.value = value; }
     public Double getZscore() { return zscore; }
@@ -12,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -27,7 +28,15 @@ public class ForecastConfig {
         SMA,
         EWMA,
         LINEAR_REGRESSION,
-        SEASONAL_DECOMPOSITION
+        SEASONAL_DECOMPOSITION,
+        ARIMA,
+        HOLT_WINTERS,
+        ENSEMBLE
+    }
+
+    public enum SeasonalityMode {
+        ADDITIVE,
+        MULTIPLICATIVE
     }
 
     @Id
@@ -51,6 +60,37 @@ public class ForecastConfig {
     @Column(name = "season_length")
     private Integer seasonLength; // for seasonal decomposition
 
+    @Transient
+    private Integer detectedSeasonLength; // auto-detected period used while seasonLength is null; never stored
+
+    @Column(name = "arima_p")
+    private Integer arimaP; // AR order; null = select by AIC
+
+    @Column(name = "arima_d")
+    private Integer arimaD; // differencing order; null = select automatically
+
+    @Column(name = "arima_q")
+    private Integer arimaQ; // MA order; null = select by AIC
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "seasonality_mode", length = 16)
+    private SeasonalityMode seasonalityMode; // for Holt-Winters; null = additive
+
+    @Column(name = "fitted_alpha")
+    private Double fittedAlpha; // Holt-Winters level smoothing from the last fit
+
+    @Column(name = "fitted_beta")
+    private Double fittedBeta; // Holt-Winters trend smoothing from the last fit
+
+    @Column(name = "fitted_gamma")
+    private Double fittedGamma; // Holt-Winters seasonal smoothing from the last fit
+
+    @Column(name = "selected", nullable = false)
+    private boolean selected; // winner of the user's last tuning run
+
+    @Column(name = "active", nullable = false)
+    private boolean active; // refreshed by the nightly batch
+
     @Column(name = "category", length = 128)
     private String category; // optional filter
 
@@ -78,6 +118,26 @@ public class ForecastConfig {
     public void setSmoothingFactor(Double smoothingFactor) { this.smoothingFactor = smoothingFactor; }
     public Integer getSeasonLength() { return seasonLength; }
     public void setSeasonLength(Integer seasonLength) { this.seasonLength = seasonLength; }
+    public Integer getDetectedSeasonLength() { return detectedSeasonLength; }
+    public void setDetectedSeasonLength(Integer detectedSeasonLength) { this.detectedSeasonLength = detectedSeasonLength; }
+    public Integer getArimaP() { return arimaP; }
+    public void setArimaP(Integer arimaP) { this.arimaP = arimaP; }
+    public Integer getArimaD() { return arimaD; }
+    public void setArimaD(Integer arimaD) { this.arimaD = arimaD; }
+    public Integer getArimaQ() { return arimaQ; }
+    public void setArimaQ(Integer arimaQ) { this.arimaQ = arimaQ; }
+    public SeasonalityMode getSeasonalityMode() { return seasonalityMode; }
+    public void setSeasonalityMode(SeasonalityMode seasonalityMode) { this.seasonalityMode = seasonalityMode; }
+    public Double getFittedAlpha() { return fittedAlpha; }
+    public void setFittedAlpha(Double fittedAlpha) { this.fittedAlpha = fittedAlpha; }
+    public Double getFittedBeta() { return fittedBeta; }
+    public void setFittedBeta(Double fittedBeta) { this.fittedBeta = fittedBeta; }
+    public Double getFittedGamma() { return fittedGamma; }
+    public void setFittedGamma(Double fittedGamma) { this.fittedGamma = fittedGamma; }
+    public boolean isSelected() { return selected; }
+    public void setSelected(boolean selected) { this.selected = selected; }
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
     public String getTransactionType() { return transactionType; }
@@ -5,15 +5,19 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "forecast_jobs")
+@Table(name = "forecast_jobs", uniqueConstraints = @UniqueConstraint(name = "uk_forecast_jobs_run_user", columnNames = {"run_date", "user_id"}))
 @EntityListeners(AuditingEntityListener.class)
 public class ForecastJob {
 
     public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
 
+    /** Queue order: interactive requests run ahead of bulk work. */
+    public enum Priority { INTERACTIVE, BULK }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -22,6 +26,9 @@ public class ForecastJob {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @Column(name = "run_date")
+    private LocalDate runDate; // nightly batch the job belongs to; null for ad-hoc jobs
+
     @Column(name = "description", length = 500)
     private String description;
 
@@ -29,9 +36,22 @@ public class ForecastJob {
     @Column(name = "status", nullable = false, length = 32)
     private Status status = Status.PENDING;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", nullable = false, length = 16)
+    private Priority priority = Priority.BULK;
+
     @Column(name = "error_message", length = 1000)
     private String errorMessage;
 
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner; // node currently running the job
+
+    @Column(name = "lease_expires_at")
+    private OffsetDateTime leaseExpiresAt; // reclaimable by any node once passed
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts; // claims so far, including expired ones
+
     @CreatedDate
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
@@ -43,12 +63,22 @@ public class ForecastJob {
     public Long getId() { return id; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
+    public Priority getPriority() { return priority; }
+    public void setPriority(Priority priority) { this.priority = priority; }
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+    public OffsetDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(OffsetDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
 }
@@ -0,0 +1,109 @@
+package com.financeapp.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Persisted incremental model state for one forecast config; see
+ * {@code com.financeapp.service.forecast.IncrementalForecastState}.
+ */
+@Entity
+@Table(name = "forecast_model_states")
+@EntityListeners(AuditingEntityListener.class)
+public class ForecastModelState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "config_id", nullable = false, unique = true)
+    private ForecastConfig config;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "algorithm", nullable = false, length = 64)
+    private ForecastConfig.AlgorithmType algorithm;
+
+    @Column(name = "window_size", nullable = false)
+    private Integer windowSize;
+
+    @Column(name = "smoothing_factor", nullable = false)
+    private Double smoothingFactor;
+
+    @Column(name = "season_length", nullable = false)
+    private Integer seasonLength;
+
+    @Column(name = "capacity_days", nullable = false)
+    private Integer capacityDays;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "first_data_date")
+    private LocalDate firstDataDate;
+
+    @Column(name = "sum_y_cents", nullable = false)
+    private Long sumYCents;
+
+    @Column(name = "sum_xy_cents", nullable = false)
+    private Long sumXYCents;
+
+    @Column(name = "window_sum_cents", nullable = false)
+    private Long windowSumCents;
+
+    @Column(name = "ewma_weighted_sum", nullable = false)
+    private Double ewmaWeightedSum;
+
+    @Column(name = "ring_cents", nullable = false, length = 8192)
+    private byte[] ringCents;
+
+    @Column(name = "season_sums_cents", nullable = false, length = 8192)
+    private byte[] seasonSumsCents;
+
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    public ForecastModelState() {}
+
+    public Long getId() { return id; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public ForecastConfig getConfig() { return config; }
+    public void setConfig(ForecastConfig config) { this.config = config; }
+    public ForecastConfig.AlgorithmType getAlgorithm() { return algorithm; }
+    public void setAlgorithm(ForecastConfig.AlgorithmType algorithm) { this.algorithm = algorithm; }
+    public Integer getWindowSize() { return windowSize; }
+    public void setWindowSize(Integer windowSize) { this.windowSize = windowSize; }
+    public Double getSmoothingFactor() { return smoothingFactor; }
+    public void setSmoothingFactor(Double smoothingFactor) { this.smoothingFactor = smoothingFactor; }
+    public Integer getSeasonLength() { return seasonLength; }
+    public void setSeasonLength(Integer seasonLength) { this.seasonLength = seasonLength; }
+    public Integer getCapacityDays() { return capacityDays; }
+    public void setCapacityDays(Integer capacityDays) { this.capacityDays = capacityDays; }
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+    public LocalDate getFirstDataDate() { return firstDataDate; }
+    public void setFirstDataDate(LocalDate firstDataDate) { this.firstDataDate = firstDataDate; }
+    public Long getSumYCents() { return sumYCents; }
+    public void setSumYCents(Long sumYCents) { this.sumYCents = sumYCents; }
+    public Long getSumXYCents() { return sumXYCents; }
+    public void setSumXYCents(Long sumXYCents) { this.sumXYCents = sumXYCents; }
+    public Long getWindowSumCents() { return windowSumCents; }
+    public void setWindowSumCents(Long windowSumCents) { this.windowSumCents = windowSumCents; }
+    public Double getEwmaWeightedSum() { return ewmaWeightedSum; }
+    public void setEwmaWeightedSum(Double ewmaWeightedSum) { this.ewmaWeightedSum = ewmaWeightedSum; }
+    public byte[] getRingCents() { return ringCents; }
+    public void setRingCents(byte[] ringCents) { this.ringCents = ringCents; }
+    public byte[] getSeasonSumsCents() { return seasonSumsCents; }
+    public void setSeasonSumsCents(byte[] seasonSumsCents) { this.seasonSumsCents = seasonSumsCents; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+}
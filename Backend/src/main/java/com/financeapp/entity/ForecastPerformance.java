@@ -26,6 +26,21 @@ public class ForecastPerformance {
     @Column(name = "mape", nullable = false)
     private Double mape;
 
+    @Column(name = "smape")
+    private Double smape;
+
+    @Column(name = "mase")
+    private Double mase; // null when every training window was constant
+
+    @Column(name = "rmse")
+    private Double rmse;
+
+    @Column(name = "bias")
+    private Double bias;
+
+    @Column(name = "folds")
+    private Integer folds;
+
     @Column(name = "horizon_days", nullable = false)
     private Integer horizonDays;
 
@@ -43,6 +58,16 @@ public class ForecastPerformance {
     public void setUser(User user) { this.user = user; }
     public Double getMape() { return mape; }
     public void setMape(Double mape) { this.mape = mape; }
+    public Double getSmape() { return smape; }
+    public void setSmape(Double smape) { this.smape = smape; }
+    public Double getMase() { return mase; }
+    public void setMase(Double mase) { this.mase = mase; }
+    public Double getRmse() { return rmse; }
+    public void setRmse(Double rmse) { this.rmse = rmse; }
+    public Double getBias() { return bias; }
+    public void setBias(Double bias) { this.bias = bias; }
+    public Integer getFolds() { return folds; }
+    public void setFolds(Integer folds) { this.folds = folds; }
     public Integer getHorizonDays() { return horizonDays; }
     public void setHorizonDays(Integer horizonDays) { this.horizonDays = horizonDays; }
     public Integer getLookbackDays() { return lookbackDays; }
@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -22,8 +23,10 @@ import java.time.OffsetDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class ForecastResult {
 
+    // Pooled sequence rather than identity so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "forecast_results_seq")
+    @SequenceGenerator(name = "forecast_results_seq", sequenceName = "forecast_results_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,9 +49,24 @@ public class ForecastResult {
     @Column(name = "confidence_high")
     private BigDecimal confidenceHigh;
 
+    @Column(name = "forecast_p10")
+    private BigDecimal forecastP10; // bootstrap lower bound
+
+    @Column(name = "forecast_p50")
+    private BigDecimal forecastP50; // bootstrap median
+
+    @Column(name = "forecast_p90")
+    private BigDecimal forecastP90; // bootstrap upper bound
+
     @Column(name = "mape")
     private Double mape; // accuracy for backtests
 
+    @Column(name = "job_id")
+    private Long jobId; // forecast job that produced the row, if submitted through the job API
+
+    @Column(name = "run_version")
+    private Integer runVersion; // version of the run the row belongs to; null for rows written before versioning
+
     @CreatedDate
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
@@ -68,8 +86,18 @@ public class ForecastResult {
     public void setConfidenceLow(BigDecimal confidenceLow) { this.confidenceLow = confidenceLow; }
     public BigDecimal getConfidenceHigh() { return confidenceHigh; }
     public void setConfidenceHigh(BigDecimal confidenceHigh) { this.confidenceHigh = confidenceHigh; }
+    public BigDecimal getForecastP10() { return forecastP10; }
+    public void setForecastP10(BigDecimal forecastP10) { this.forecastP10 = forecastP10; }
+    public BigDecimal getForecastP50() { return forecastP50; }
+    public void setForecastP50(BigDecimal forecastP50) { this.forecastP50 = forecastP50; }
+    public BigDecimal getForecastP90() { return forecastP90; }
+    public void setForecastP90(BigDecimal forecastP90) { this.forecastP90 = forecastP90; }
     public Double getMape() { return mape; }
     public void setMape(Double mape) { this.mape = mape; }
+    public Long getJobId() { return jobId; }
+    public void setJobId(Long jobId) { this.jobId = jobId; }
+    public Integer getRunVersion() { return runVersion; }
+    public void setRunVersion(Integer runVersion) { this.runVersion = runVersion; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
 }
 
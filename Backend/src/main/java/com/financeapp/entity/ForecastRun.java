@@ -0,0 +1,96 @@
+package com.financeapp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * One forecast call for one config: the whole horizon in a single row, with the daily values
+ * packed by {@link com.financeapp.service.forecast.ForecastRunCodec}.
+ */
+@Entity
+@Table(name = "forecast_runs", uniqueConstraints = @UniqueConstraint(name = "uk_forecast_runs_version",
+        columnNames = {"user_id", "config_id", "start_date", "run_version"}))
+@EntityListeners(AuditingEntityListener.class)
+public class ForecastRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "forecast_runs_seq")
+    @SequenceGenerator(name = "forecast_runs_seq", sequenceName = "forecast_runs_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "config_id", nullable = false)
+    private ForecastConfig config;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate; // last target date, inclusive
+
+    @Column(name = "run_version", nullable = false)
+    private int runVersion = 1; // increases each time the forecast for this config and start date changes
+
+    @Column(name = "horizon_days", nullable = false)
+    private int horizonDays;
+
+    @Column(name = "forecast_values", nullable = false, length = 1_000_000)
+    private byte[] forecastValues; // one encoded series
+
+    @Column(name = "interval_values", length = 1_000_000)
+    private byte[] intervalValues; // p10, p50, p90 series; null when intervals were not computed
+
+    @Column(name = "mape")
+    private Double mape; // accuracy for backtests
+
+    @Column(name = "job_id")
+    private Long jobId; // forecast job that produced the run, if submitted through the job API
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    public ForecastRun() {}
+
+    public Long getId() { return id; }
+    public ForecastConfig getConfig() { return config; }
+    public void setConfig(ForecastConfig config) { this.config = config; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+    public int getRunVersion() { return runVersion; }
+    public void setRunVersion(int runVersion) { this.runVersion = runVersion; }
+    public int getHorizonDays() { return horizonDays; }
+    public void setHorizonDays(int horizonDays) { this.horizonDays = horizonDays; }
+    public byte[] getForecastValues() { return forecastValues; }
+    public void setForecastValues(byte[] forecastValues) { this.forecastValues = forecastValues; }
+    public byte[] getIntervalValues() { return intervalValues; }
+    public void setIntervalValues(byte[] intervalValues) { this.intervalValues = intervalValues; }
+    public Double getMape() { return mape; }
+    public void setMape(Double mape) { this.mape = mape; }
+    public Long getJobId() { return jobId; }
+    public void setJobId(Long jobId) { this.jobId = jobId; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+}
@@ -52,6 +52,11 @@ public class User {
 	@Column(nullable = true)
 	private OffsetDateTime updatedAt;
 
+	// Bumped on every financial data write; only ever changed by UserRepository.bumpDataVersion,
+	// so saving a stale User cannot roll it back
+	@Column(name = "data_version", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+	private long dataVersion;
+
 	// Relationships
 	@OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
 	private Set<FinancialData> financialData = new HashSet<>();
@@ -122,6 +127,10 @@ public class User {
 		this.updatedAt = updatedAt; 
 	}
 
+	public long getDataVersion() { 
+		return dataVersion; 
+	}
+
 	public Set<FinancialData> getFinancialData() { 
 		return financialData; 
 	}
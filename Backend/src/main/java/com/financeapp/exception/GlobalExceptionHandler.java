@@ -22,6 +22,7 @@ import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.SQLTimeoutException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -83,6 +84,13 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.GATEWAY_TIMEOUT, "Database query timeout", req, "DB_QUERY_TIMEOUT", map("reason", ex.getMessage()));
     }
 
+    @ExceptionHandler({RejectedExecutionException.class})
+    public ResponseEntity<ApiError> handleRejected(RejectedExecutionException ex, HttpServletRequest req) {
+        ApiError body = new ApiError(HttpStatus.TOO_MANY_REQUESTS.value(), HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                "Server busy, retry later", req.getRequestURI(), "TOO_MANY_REQUESTS", map("reason", ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "5").body(body);
+    }
+
     @ExceptionHandler({DataAccessException.class})
     public ResponseEntity<ApiError> handleDataAccess(DataAccessException ex, HttpServletRequest req) {
         return build(HttpStatus.INTERNAL_SERVER_ERROR, "Database access error", req, "DB_ACCESS_ERROR", map("reason", ex.getMessage()));
@@ -0,0 +1,29 @@
+package com.financeapp.repository;
+
+import com.financeapp.entity.CategorySpendingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CategorySpendingStatsRepository extends JpaRepository<CategorySpendingStats, Long> {
+
+    /** Next page of snapshots in key order after {@code afterId}. */
+    @Query("SELECT s FROM CategorySpendingStats s WHERE s.id > :afterId ORDER BY s.id")
+    List<CategorySpendingStats> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT s FROM CategorySpendingStats s WHERE s.user.id IN :userIds")
+    List<CategorySpendingStats> findByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /** Same rows, locked in id order for a snapshot merging into them. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CategorySpendingStats s WHERE s.user.id IN :userIds ORDER BY s.id")
+    List<CategorySpendingStats> lockByUserIds(@Param("userIds") Collection<Long> userIds);
+}
@@ -403,6 +403,31 @@ public interface FinancialDataRepository extends JpaRepository<FinancialData, Lo
                                   @Param("from") LocalDate from,
                                   @Param("to") LocalDate to);
 
+    /**
+     * Get daily totals of one transaction type for a user between dates
+     * Returns: [LocalDate, BigDecimal total]
+     */
+    @Query("SELECT fd.date, SUM(fd.amount) FROM FinancialData fd WHERE fd.user.id = :userId AND fd.type = :type " +
+           "AND fd.date BETWEEN :from AND :to GROUP BY fd.date ORDER BY fd.date")
+    List<Object[]> getDailyTotalsByType(@Param("userId") Long userId,
+                                        @Param("type") TransactionType type,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+
+    /** Next page of user ids with any financial data, in key order after {@code afterUserId}. */
+    @Query("SELECT DISTINCT fd.user.id FROM FinancialData fd WHERE fd.user.id > :afterUserId ORDER BY fd.user.id")
+    List<Long> findUserIdsAfter(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    /**
+     * Get daily totals per category and type for a user between dates, in one query
+     * Returns: [LocalDate, Category, TransactionType, BigDecimal total], ordered by date
+     */
+    @Query("SELECT fd.date, fd.category, fd.type, SUM(fd.amount) FROM FinancialData fd WHERE fd.user.id = :userId " +
+           "AND fd.date BETWEEN :from AND :to GROUP BY fd.date, fd.category, fd.type ORDER BY fd.date")
+    List<Object[]> getDailyTotalsByCategoryAndType(@Param("userId") Long userId,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
     /**
      * Get trends by period (daily, weekly, monthly, yearly)
      */
@@ -1,11 +1,29 @@
 package com.financeapp.repository;
 
 import com.financeapp.entity.ForecastAnomaly;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface ForecastAnomalyRepository extends JpaRepository<ForecastAnomaly, Long> {
-}
 
+    // Scan anomalies (no category) flagged again later for the same user, config and date; online
+    // anomalies carry the category of the transaction that raised them and are never superseded
+    @Query("SELECT a.id FROM ForecastAnomaly a WHERE a.category IS NULL AND EXISTS (SELECT 1 FROM ForecastAnomaly a2 " +
+            "WHERE a2.user = a.user AND a2.date = a.date AND a2.id > a.id AND a2.category IS NULL " +
+            "AND (a2.config = a.config OR (a2.config IS NULL AND a.config IS NULL))) ORDER BY a.id")
+    List<Long> findSupersededIds(Pageable pageable);
 
+    // Dates already flagged by the user-level scan (no config or category) in [from, to]
+    @Query("SELECT DISTINCT a.date FROM ForecastAnomaly a WHERE a.user.id = :userId AND a.config IS NULL AND a.category IS NULL " +
+            "AND a.date BETWEEN :from AND :to")
+    List<LocalDate> findFlaggedDates(@Param("userId") Long userId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+}
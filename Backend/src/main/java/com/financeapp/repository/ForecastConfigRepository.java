@@ -2,13 +2,17 @@ package com.financeapp.repository;
 
 import com.financeapp.entity.ForecastConfig;
 import com.financeapp.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +22,34 @@ public interface ForecastConfigRepository extends JpaRepository<ForecastConfig,
 
     @Query("SELECT fc FROM ForecastConfig fc WHERE fc.user.id = :userId AND fc.algorithm = :algorithm")
     List<ForecastConfig> findByUserAndAlgorithm(@Param("userId") Long userId, @Param("algorithm") ForecastConfig.AlgorithmType algorithm);
+
+    /** The user's unfiltered, unparameterised configs of {@code algorithm}, oldest first. */
+    @Query("SELECT fc FROM ForecastConfig fc WHERE fc.user.id = :userId AND fc.algorithm = :algorithm " +
+            "AND fc.category IS NULL AND fc.transactionType IS NULL AND fc.windowSize IS NULL " +
+            "AND fc.smoothingFactor IS NULL AND fc.seasonLength IS NULL ORDER BY fc.id")
+    List<ForecastConfig> findDefaults(@Param("userId") Long userId,
+                                      @Param("algorithm") ForecastConfig.AlgorithmType algorithm,
+                                      Pageable pageable);
+
+    /** Locks the configs in id order, so writers locking overlapping sets cannot deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT fc FROM ForecastConfig fc WHERE fc.id IN :ids ORDER BY fc.id")
+    List<ForecastConfig> lockByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT fc FROM ForecastConfig fc WHERE fc.user.id = :userId")
+    List<ForecastConfig> findAllForUser(@Param("userId") Long userId);
+
+    /** Configs the nightly batch forecasts: explicitly active ones plus each user's tuning winner. */
+    @Query("SELECT fc FROM ForecastConfig fc WHERE fc.user.id = :userId AND (fc.active = true OR fc.selected = true) ORDER BY fc.id")
+    List<ForecastConfig> findActiveForUser(@Param("userId") Long userId);
+
+    /** Next page of user ids owning active configs, in key order after {@code afterUserId}. */
+    @Query("SELECT DISTINCT fc.user.id FROM ForecastConfig fc WHERE fc.user.id > :afterUserId AND (fc.active = true OR fc.selected = true) ORDER BY fc.user.id")
+    List<Long> findActiveUserIdsAfter(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ForecastConfig fc SET fc.selected = false WHERE fc.user.id = :userId AND fc.selected = true AND fc.id <> :keepId")
+    int clearSelectionExcept(@Param("userId") Long userId, @Param("keepId") Long keepId);
 }
 
 
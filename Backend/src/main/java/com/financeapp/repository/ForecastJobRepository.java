@@ -1,11 +1,115 @@
 package com.financeapp.repository;
 
 import com.financeapp.entity.ForecastJob;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ForecastJobRepository extends JpaRepository<ForecastJob, Long> {
-}
 
+    @Query("SELECT j FROM ForecastJob j WHERE j.runDate = :runDate AND j.user.id IN :userIds")
+    List<ForecastJob> findForRun(@Param("runDate") LocalDate runDate, @Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT MAX(j.user.id) FROM ForecastJob j WHERE j.runDate = :runDate")
+    Long findLastUserIdForRun(@Param("runDate") LocalDate runDate);
+
+    /**
+     * PostgreSQL: locks the next claimable jobs of a run, skipping rows other nodes are claiming.
+     */
+    @Query(value = "SELECT id FROM forecast_jobs WHERE run_date = :runDate AND attempts < :maxAttempts " +
+            "AND (status = 'PENDING' OR (status = 'RUNNING' AND (lease_expires_at IS NULL OR lease_expires_at < :now))) " +
+            "ORDER BY user_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimable(@Param("runDate") LocalDate runDate,
+                             @Param("maxAttempts") int maxAttempts,
+                             @Param("now") OffsetDateTime now,
+                             @Param("limit") int limit);
+
+    /** Portable candidate scan; races are settled by {@link #claim}. */
+    @Query("SELECT j.id FROM ForecastJob j WHERE j.runDate = :runDate AND j.attempts < :maxAttempts " +
+            "AND (j.status = :pending OR (j.status = :running AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now))) ORDER BY j.user.id")
+    List<Long> findClaimable(@Param("runDate") LocalDate runDate,
+                             @Param("maxAttempts") int maxAttempts,
+                             @Param("now") OffsetDateTime now,
+                             @Param("pending") ForecastJob.Status pending,
+                             @Param("running") ForecastJob.Status running,
+                             Pageable pageable);
+
+    /** Takes the lease on one job if it is still claimable; returns 0 when another node got it first. */
+    @Modifying
+    @Query("UPDATE ForecastJob j SET j.status = :running, j.leaseOwner = :owner, j.leaseExpiresAt = :expiresAt, " +
+            "j.attempts = j.attempts + 1, j.updatedAt = :now WHERE j.id = :id AND j.attempts < :maxAttempts " +
+            "AND (j.status = :pending OR (j.status = :running AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now)))")
+    int claim(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("expiresAt") OffsetDateTime expiresAt,
+              @Param("now") OffsetDateTime now,
+              @Param("maxAttempts") int maxAttempts,
+              @Param("pending") ForecastJob.Status pending,
+              @Param("running") ForecastJob.Status running);
 
+    @Modifying
+    @Query("UPDATE ForecastJob j SET j.leaseExpiresAt = :expiresAt WHERE j.leaseOwner = :owner AND j.status = :running")
+    int renewLeases(@Param("owner") String owner,
+                    @Param("expiresAt") OffsetDateTime expiresAt,
+                    @Param("running") ForecastJob.Status running);
+
+    /** Extends the leases {@code owner} holds on ad-hoc jobs still queued or running. */
+    @Modifying
+    @Query("UPDATE ForecastJob j SET j.leaseExpiresAt = :expiresAt WHERE j.runDate IS NULL AND j.leaseOwner = :owner " +
+            "AND j.status IN :open")
+    int renewAdHocLeases(@Param("owner") String owner,
+                         @Param("expiresAt") OffsetDateTime expiresAt,
+                         @Param("open") Collection<ForecastJob.Status> open);
+
+    /**
+     * Fails ad-hoc jobs still queued or running whose lease expired, was never taken, or belongs to
+     * {@code owner} (null for none). Their requests lived only in the memory of the node that
+     * accepted them, so nobody else can run them.
+     */
+    @Modifying
+    @Query("UPDATE ForecastJob j SET j.status = :failed, j.errorMessage = :error, j.leaseOwner = null, " +
+            "j.leaseExpiresAt = null, j.updatedAt = :now WHERE j.runDate IS NULL AND j.status IN :open " +
+            "AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now OR j.leaseOwner = :owner)")
+    int failOrphanedAdHoc(@Param("owner") String owner,
+                          @Param("now") OffsetDateTime now,
+                          @Param("open") Collection<ForecastJob.Status> open,
+                          @Param("failed") ForecastJob.Status failed,
+                          @Param("error") String error);
+
+    /** Finishes a job only while {@code owner} still holds its lease. */
+    @Modifying
+    @Query("UPDATE ForecastJob j SET j.status = :status, j.errorMessage = :error, j.leaseOwner = null, " +
+            "j.leaseExpiresAt = null, j.updatedAt = :now WHERE j.id = :id AND j.leaseOwner = :owner")
+    int finish(@Param("id") Long id,
+               @Param("owner") String owner,
+               @Param("status") ForecastJob.Status status,
+               @Param("error") String error,
+               @Param("now") OffsetDateTime now);
+
+    /** Fails expired jobs that have used up their attempts, so they stop being reclaimed. */
+    @Modifying
+    @Query("UPDATE ForecastJob j SET j.status = :failed, j.errorMessage = :error, j.leaseOwner = null, " +
+            "j.leaseExpiresAt = null, j.updatedAt = :now WHERE j.runDate = :runDate AND j.status = :running " +
+            "AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now) AND j.attempts >= :maxAttempts")
+    int failExhausted(@Param("runDate") LocalDate runDate,
+                      @Param("maxAttempts") int maxAttempts,
+                      @Param("now") OffsetDateTime now,
+                      @Param("running") ForecastJob.Status running,
+                      @Param("failed") ForecastJob.Status failed,
+                      @Param("error") String error);
+
+    // Finished jobs last touched before :before, oldest first
+    @Query("SELECT j.id FROM ForecastJob j WHERE j.status IN :statuses AND j.updatedAt < :before ORDER BY j.id")
+    List<Long> findFinishedBefore(@Param("statuses") Collection<ForecastJob.Status> statuses,
+                                  @Param("before") OffsetDateTime before,
+                                  Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.financeapp.repository;
+
+import com.financeapp.entity.ForecastModelState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ForecastModelStateRepository extends JpaRepository<ForecastModelState, Long> {
+
+    @Query("SELECT s FROM ForecastModelState s WHERE s.config.id = :configId")
+    Optional<ForecastModelState> findByConfigId(@Param("configId") Long configId);
+
+    /**
+     * Locks every state of the user so concurrent writes for the same user apply their deltas serially.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ForecastModelState s WHERE s.user.id = :userId ORDER BY s.id")
+    List<ForecastModelState> findByUserIdForUpdate(@Param("userId") Long userId);
+}
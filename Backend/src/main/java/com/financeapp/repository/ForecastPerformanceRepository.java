@@ -2,10 +2,26 @@ package com.financeapp.repository;
 
 import com.financeapp.entity.ForecastPerformance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ForecastPerformanceRepository extends JpaRepository<ForecastPerformance, Long> {
-}
 
+    @Query("SELECT p FROM ForecastPerformance p JOIN FETCH p.config WHERE p.id IN " +
+           "(SELECT MAX(p2.id) FROM ForecastPerformance p2 WHERE p2.user.id = :userId GROUP BY p2.config.id)")
+    List<ForecastPerformance> findLatestPerConfig(@Param("userId") Long userId);
 
+    @Modifying
+    @Query("DELETE FROM ForecastPerformance p WHERE p.user.id = :userId AND p.config.id IN :configIds " +
+           "AND p.horizonDays = :horizonDays AND p.lookbackDays = :lookbackDays")
+    int deleteForConfigs(@Param("userId") Long userId,
+                         @Param("configIds") Collection<Long> configIds,
+                         @Param("horizonDays") Integer horizonDays,
+                         @Param("lookbackDays") Integer lookbackDays);
+}
@@ -21,6 +21,14 @@ public interface ForecastResultRepository extends JpaRepository<ForecastResult,
     List<ForecastResult> findForUserBetween(@Param("userId") Long userId,
                                             @Param("from") LocalDate from,
                                             @Param("to") LocalDate to);
-}
 
+    @Query("SELECT fr FROM ForecastResult fr WHERE fr.jobId = :jobId ORDER BY fr.config.id, fr.targetDate")
+    List<ForecastResult> findByJobId(@Param("jobId") Long jobId);
+
+    // Versioned rows with at least :keep newer versions for the same user, config and target date
+    @Query("SELECT fr.id FROM ForecastResult fr WHERE fr.runVersion <= " +
+            "(SELECT MAX(fr2.runVersion) FROM ForecastResult fr2 WHERE fr2.user = fr.user AND fr2.config = fr.config AND fr2.targetDate = fr.targetDate) - :keep " +
+            "ORDER BY fr.id")
+    List<Long> findSupersededIds(@Param("keep") int keep, Pageable pageable);
 
+}
@@ -0,0 +1,39 @@
+package com.financeapp.repository;
+
+import com.financeapp.entity.ForecastRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ForecastRunRepository extends JpaRepository<ForecastRun, Long> {
+
+    // Latest versions of the user's runs whose horizon overlaps [from, to]
+    @Query("SELECT r FROM ForecastRun r WHERE r.user.id = :userId AND r.startDate <= :to AND r.endDate >= :from " +
+            "AND r.runVersion = (SELECT MAX(r2.runVersion) FROM ForecastRun r2 WHERE r2.user = r.user AND r2.config = r.config AND r2.startDate = r.startDate) " +
+            "ORDER BY r.startDate, r.id")
+    List<ForecastRun> findOverlapping(@Param("userId") Long userId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    @Query("SELECT r FROM ForecastRun r WHERE r.jobId = :jobId ORDER BY r.config.id")
+    List<ForecastRun> findByJobId(@Param("jobId") Long jobId);
+
+    @Query("SELECT r FROM ForecastRun r WHERE r.user.id = :userId AND r.config.id IN :configIds AND r.startDate IN :startDates " +
+            "AND r.runVersion = (SELECT MAX(r2.runVersion) FROM ForecastRun r2 WHERE r2.user = r.user AND r2.config = r.config AND r2.startDate = r.startDate)")
+    List<ForecastRun> findLatestVersions(@Param("userId") Long userId,
+                                         @Param("configIds") Collection<Long> configIds,
+                                         @Param("startDates") Collection<LocalDate> startDates);
+
+    // Runs with at least :keep newer versions for the same user, config and start date
+    @Query("SELECT r.id FROM ForecastRun r WHERE r.runVersion <= " +
+            "(SELECT MAX(r2.runVersion) FROM ForecastRun r2 WHERE r2.user = r.user AND r2.config = r.config AND r2.startDate = r.startDate) - :keep " +
+            "ORDER BY r.id")
+    List<Long> findSupersededIds(@Param("keep") int keep, Pageable pageable);
+}
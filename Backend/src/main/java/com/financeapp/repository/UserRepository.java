@@ -4,6 +4,7 @@ import com.financeapp.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -130,4 +131,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findUsersByCriteria(@Param("username") String username, 
                                   @Param("email") String email, 
                                   Pageable pageable);
+
+    /**
+     * Current financial data version of a user
+     * @param userId the user ID
+     * @return the version, empty when the user does not exist
+     */
+    @Query("SELECT u.dataVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findDataVersion(@Param("userId") Long userId);
+
+    /**
+     * Increment a user's financial data version
+     * @param userId the user ID
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.dataVersion = u.dataVersion + 1 WHERE u.id = :userId")
+    int bumpDataVersion(@Param("userId") Long userId);
 }
@@ -0,0 +1,26 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.ForecastAnomaly;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Batch anomaly scan over users' daily expense totals using rolling robust z-scores
+ * ({@link com.financeapp.service.forecast.RobustZScores}). Flagged days are stored as user-level
+ * {@link ForecastAnomaly} rows without a config.
+ */
+public interface AnomalyDetectionService {
+
+    /**
+     * Scans every user with financial data, users in parallel, flagging days in the
+     * {@code app.anomaly.scan-days} ending at {@code runDate} that were not flagged before.
+     * Each page of users is stored with one batched insert.
+     *
+     * @return number of anomalies stored
+     */
+    int scanAll(LocalDate runDate);
+
+    /** Same as {@link #scanAll} for one user; returns the anomalies stored. */
+    List<ForecastAnomaly> scanUser(Long userId, LocalDate runDate);
+}
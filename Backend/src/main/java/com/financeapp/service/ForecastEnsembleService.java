@@ -0,0 +1,22 @@
+package com.financeapp.service;
+
+import com.financeapp.service.forecast.EnsembleMember;
+
+import java.util.List;
+
+/**
+ * Ensemble member weights derived from the user's backtest results.
+ */
+public interface ForecastEnsembleService {
+
+    /**
+     * Members and normalised inverse-error weights from each config's latest {@code ForecastPerformance}
+     * row. Cached per user until {@link #refreshWeights(Long)}; empty when the user has no backtests.
+     */
+    List<EnsembleMember> memberWeights(Long userId);
+
+    /**
+     * Drops the cached weights of {@code userId}; called whenever new backtest results are stored.
+     */
+    void refreshWeights(Long userId);
+}
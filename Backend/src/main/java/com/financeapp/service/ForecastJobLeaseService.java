@@ -0,0 +1,38 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.ForecastJob;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Lease-based work queue over {@code forecast_jobs}, shared by every app instance. A node owns a
+ * job while its lease is unexpired; leases are kept alive by {@link #renewLeases()} and jobs whose
+ * lease ran out are reclaimed by the next {@link #claim} on any node.
+ */
+public interface ForecastJobLeaseService {
+
+    /** Identifier this node writes into {@code lease_owner}. */
+    String nodeId();
+
+    /**
+     * Inserts PENDING jobs of the nightly run for {@code userIds}. Fails with a data integrity
+     * violation when another node inserted one of them first.
+     */
+    void enqueue(LocalDate runDate, List<Long> userIds);
+
+    /**
+     * Leases up to {@code limit} claimable jobs of the run to this node: PENDING ones and RUNNING
+     * ones whose lease expired or was never taken, while attempts remain.
+     */
+    List<ForecastJob> claim(LocalDate runDate, int limit);
+
+    /** Extends every lease this node holds; returns how many were extended. */
+    int renewLeases();
+
+    /**
+     * Records the outcome of a leased job. Returns false when the lease was lost to another node
+     * in the meantime, in which case the outcome is discarded.
+     */
+    boolean finish(Long jobId, ForecastJob.Status status, String errorMessage);
+}
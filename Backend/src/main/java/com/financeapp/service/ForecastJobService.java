@@ -0,0 +1,41 @@
+package com.financeapp.service;
+
+import com.financeapp.dto.ForecastDtos;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Asynchronous forecast jobs: requests are recorded as {@code ForecastJob} rows and run on a
+ * bounded priority queue, so callers get a job id back immediately and poll for the outcome. The
+ * accepting node holds a lease on each job until it finishes.
+ */
+public interface ForecastJobService {
+
+    /**
+     * Queues a batch forecast and returns the PENDING job.
+     *
+     * @throws IllegalArgumentException                        when the user does not exist
+     * @throws java.util.concurrent.RejectedExecutionException when the queue is full
+     */
+    ForecastDtos.JobStatusDto submit(Long userId, List<ForecastConfig> configs, LocalDate startDate,
+                                     int horizonDays, ForecastJob.Priority priority);
+
+    /** Status of a job, with its forecast rows once it has completed. */
+    Optional<ForecastDtos.JobStatusDto> status(Long jobId);
+
+    /** Heartbeat: extends this node's leases on the jobs it has queued or running. */
+    int renewLeases();
+
+    /**
+     * Fails queued or running jobs whose node is gone: leases that expired or were never taken,
+     * and, at startup, any still held under this node's id by its previous process. Their requests
+     * were only kept in memory, so they cannot be resumed; clients see FAILED and may resubmit.
+     *
+     * @return number of jobs failed
+     */
+    int failOrphaned();
+}
@@ -0,0 +1,16 @@
+package com.financeapp.service;
+
+/**
+ * Keeps the forecast tables from growing without bound by deleting rows nothing reads anymore.
+ */
+public interface ForecastRetentionService {
+
+    /**
+     * Deletes, in small batches each committed on its own, forecast runs and daily result rows
+     * beyond the latest {@code app.forecast.retention.keep-runs} versions, anomalies flagged again
+     * later for the same date, and finished jobs older than {@code app.forecast.retention.job-days}.
+     *
+     * @return number of rows deleted
+     */
+    int purgeSuperseded();
+}
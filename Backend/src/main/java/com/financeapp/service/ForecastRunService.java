@@ -0,0 +1,36 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.ForecastResult;
+import com.financeapp.entity.ForecastRun;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Storage for generated forecasts. Each call is kept as one {@link ForecastRun} per config;
+ * callers keep working with daily {@link ForecastResult}s, which are expanded from runs on read.
+ */
+public interface ForecastRunService {
+
+    /**
+     * Stores {@code results} as one run per config. Results of a config must be contiguous and in
+     * target-date order, as the forecast service produces them.
+     * <p>
+     * Runs are upserted per (user, config, start date): a forecast identical to the latest version
+     * updates that version in place, anything else is stored as the next version. Superseded
+     * versions are removed by {@link ForecastRetentionService}.
+     */
+    List<ForecastRun> store(List<ForecastResult> results);
+
+    /** The daily results of {@code run}; not managed entities. */
+    List<ForecastResult> expand(ForecastRun run);
+
+    /**
+     * Daily results of the latest version of the user's runs with target dates in
+     * {@code [from, to]}, by target date.
+     */
+    List<ForecastResult> findForUserBetween(Long userId, LocalDate from, LocalDate to);
+
+    /** Daily results of every run the job produced, by config and target date. */
+    List<ForecastResult> findByJobId(Long jobId);
+}
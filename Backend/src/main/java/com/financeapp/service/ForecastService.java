@@ -2,6 +2,11 @@ package com.financeapp.service;
 
 import com.financeapp.entity.ForecastConfig;
 import com.financeapp.entity.ForecastResult;
+import com.financeapp.service.forecast.BacktestMetrics;
+import com.financeapp.service.forecast.ResampledSeries;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+import com.financeapp.service.forecast.SeriesPrefixStats;
+import com.financeapp.service.forecast.TimeSeries;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -10,8 +15,24 @@ import java.util.Map;
 
 public interface ForecastService {
 
+    /**
+     * The user's default config for {@code algorithm}: the oldest unfiltered one without explicit
+     * parameters, created on first use. Ad-hoc endpoints forecast with it, so their runs version
+     * one config instead of adding a config per request.
+     */
+    ForecastConfig defaultConfig(Long userId, ForecastConfig.AlgorithmType algorithm);
+
     CompletableFuture<List<ForecastResult>> generateForecast(Long userId, ForecastConfig config, LocalDate startDate, int horizonDays);
 
+    /**
+     * Forecast of bucket totals at {@code period} resolution: the daily history is summed into
+     * weekly or monthly buckets and the kernel runs on those, with seasonal models using an annual
+     * season in buckets. Results cover {@code horizonDays} from {@code startDate}, one per bucket,
+     * with the bucket's first day as target date. They are not stored, since runs hold daily values.
+     */
+    CompletableFuture<List<ForecastResult>> generateResampledForecast(Long userId, ForecastConfig config, LocalDate startDate,
+                                                                      int horizonDays, ResampledSeries.Period period);
+
     CompletableFuture<List<ForecastResult>> backtestAndStoreAccuracy(Long userId,
                                                                      ForecastConfig config,
                                                                      LocalDate startDate,
@@ -23,22 +44,61 @@ public interface ForecastService {
                                                                               LocalDate startDate,
                                                                               int horizonDays);
 
-    // Advanced algorithms (scaffold)
-    double[] arimaForecast(List<Double> values, int p, int d, int q, int horizon);
-
-    double[] prophetLikeDecomposition(List<Double> values, int seasonLength, int horizon);
+    /**
+     * Same as {@link #batchGenerateForecasts} but runs on the caller's thread in its own
+     * transaction, for batch engines that manage their own concurrency. Stored rows are tagged
+     * with {@code jobId} when one is given.
+     */
+    Map<Long, List<ForecastResult>> generateBatch(Long userId, List<ForecastConfig> configs,
+                                                  LocalDate startDate, int horizonDays, Long jobId);
+
+    /**
+     * Runs the kernel selected by {@code config} against an already loaded series. Pure CPU work.
+     */
+    double[] forecastSeries(ForecastConfig config, TimeSeries series, int horizonDays);
+
+    /**
+     * Rolling-origin backtest of {@code config} over the series behind {@code stats}, with folds run
+     * in parallel. Classic kernels are evaluated from the prefix statistics; other algorithms are
+     * refit on each fold's training window.
+     */
+    BacktestMetrics backtest(ForecastConfig config, SeriesPrefixStats stats, int folds, int horizonDays,
+                             RollingOriginBacktest.WindowMode mode);
+
+    // Advanced algorithms
+    /**
+     * ARIMA(p,d,q) forecast; orders passed as {@code ArimaModel.AUTO} are selected by AIC.
+     */
+    double[] arimaForecast(TimeSeries series, int p, int d, int q, int horizon);
+
+    /**
+     * Holt-Winters forecast with alpha, beta and gamma fitted to {@code series}.
+     */
+    double[] holtWintersForecast(TimeSeries series, int seasonLength, boolean multiplicative, int horizon);
+
+    double[] prophetLikeDecomposition(TimeSeries series, int seasonLength, int horizon);
 
     double[] ensembleForecast(List<double[]> memberForecasts);
 
-    List<Integer> detectAnomalies(List<Double> values, double thresholdSigma);
+    /**
+     * Weighted average of member forecasts; weights need not be normalised.
+     */
+    double[] ensembleForecast(List<double[]> memberForecasts, double[] weights);
+
+    List<Integer> detectAnomalies(TimeSeries series, double thresholdSigma);
+
+    double[] simpleMovingAverage(TimeSeries series, int window);
 
-    double[] simpleMovingAverage(List<Double> values, int window);
+    double[] exponentialWeightedMovingAverage(TimeSeries series, double alpha);
 
-    double[] exponentialWeightedMovingAverage(List<Double> values, double alpha);
+    double[] linearRegressionForecast(TimeSeries series, int horizon);
 
-    double[] linearRegressionForecast(List<Double> values, int horizon);
+    double[] seasonalDecomposition(TimeSeries series, int seasonLength, int horizon);
 
-    double[] seasonalDecomposition(List<Double> values, int seasonLength, int horizon);
+    /**
+     * Evaluates every config in one pass over {@code series}; returns forecasts in config order.
+     */
+    double[][] fusedForecast(TimeSeries series, List<ForecastConfig> configs, int horizon);
 }
 
 
@@ -0,0 +1,45 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.User;
+import com.financeapp.service.forecast.IncrementalForecastState;
+import com.financeapp.service.forecast.TimeSeries;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Maintains persisted incremental forecast state per config so forecasts can be answered
+ * without rescanning financial history.
+ */
+public interface ForecastStateService {
+
+    /**
+     * Applies per-day amount deltas from a financial data write to every state of the user.
+     */
+    void recordChanges(Long userId, Map<LocalDate, BigDecimal> deltas);
+
+    /**
+     * The stored state of {@code config} rolled forward to a window of {@code lookbackDays} ending
+     * at {@code windowEnd}. Empty when no state is stored, the config no longer matches it,
+     * {@code windowEnd} lies before the state's window end, or the user has records after the
+     * state's window end that it never saw; the stored row is never modified.
+     */
+    Optional<IncrementalForecastState> stateFor(ForecastConfig config, LocalDate windowEnd, int lookbackDays);
+
+    /**
+     * Creates the state of every config in {@code configs} that has none, whose state no longer
+     * matches it, or whose state ends before {@code windowEnd}; states ending at or after it are
+     * kept, so a window end never moves backwards. The history
+     * is loaded through {@code history} while the user's state rows are locked, so deltas of
+     * concurrent writes are either in the loaded history or applied on top afterwards.
+     *
+     * @return the loaded history when any state was seeded, empty when every state was kept
+     */
+    Optional<TimeSeries> seed(User user, List<ForecastConfig> configs, LocalDate windowEnd, int lookbackDays,
+                              Supplier<TimeSeries> history);
+}
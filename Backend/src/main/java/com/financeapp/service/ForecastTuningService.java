@@ -0,0 +1,22 @@
+package com.financeapp.service;
+
+import com.financeapp.dto.ForecastDtos;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hyperparameter search over the forecast algorithms for one user.
+ */
+public interface ForecastTuningService {
+
+    /**
+     * Scores every candidate config with a rolling-origin backtest over the {@code lookbackDays}
+     * before {@code startDate}, stores one {@code ForecastPerformance} row per scored candidate
+     * and marks the lowest-MASE config (sMAPE when MASE is undefined) as the user's selected config.
+     */
+    CompletableFuture<ForecastDtos.TuningResultDto> tune(Long userId, LocalDate startDate, int horizonDays,
+                                                         int lookbackDays, int folds,
+                                                         RollingOriginBacktest.WindowMode mode);
+}
@@ -0,0 +1,19 @@
+package com.financeapp.service;
+
+import java.time.LocalDate;
+
+/**
+ * Fleet-wide batch that refreshes every user's active forecast configs once per night.
+ */
+public interface NightlyForecastService {
+
+    /**
+     * Enqueues one {@code ForecastJob} per user with active configs for the nightly run
+     * {@code runDate}, then works through the jobs this node can lease until none are left.
+     * Safe to call on several nodes at once and again after a crash; finished users are skipped.
+     * The node's leases are renewed throughout the call.
+     *
+     * @return number of users completed by this node
+     */
+    int runNightly(LocalDate runDate);
+}
@@ -0,0 +1,39 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastAnomaly;
+
+import java.util.List;
+
+/**
+ * Flags unusual expenses as they are recorded, by scoring each against Welford running
+ * statistics kept in memory per (user, category) and snapshotted to {@code category_spending_stats}.
+ */
+public interface OnlineAnomalyService {
+
+    /**
+     * Scores newly created rows and, once the caller's transaction commits, folds them into the
+     * running statistics. Expenses at least
+     * {@code app.anomaly.online.threshold} standard deviations from their category's mean are
+     * stored as {@link ForecastAnomaly} rows in the caller's transaction. Reads nothing from the
+     * database.
+     *
+     * @return the anomalies flagged
+     */
+    List<ForecastAnomaly> recordCreated(List<FinancialData> created);
+
+    /**
+     * Merges the observations committed on this node since the last snapshot into the stored
+     * totals, which other nodes add to as well. Requires a transaction.
+     *
+     * @return number of snapshot rows written
+     */
+    int snapshot();
+
+    /**
+     * Loads the snapshot into memory, merging with anything recorded since startup.
+     *
+     * @return number of snapshot rows loaded
+     */
+    int restore();
+}
@@ -1,32 +1,63 @@
 package com.financeapp.service;
 
-import com.financeapp.entity.ForecastConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @Component
 public class ScheduledForecastJobs {
 
     private static final Logger log = LoggerFactory.getLogger(ScheduledForecastJobs.class);
-    private final ForecastService forecastService;
-
-    public ScheduledForecastJobs(ForecastService forecastService) {
-        this.forecastService = forecastService;
+    private final NightlyForecastService nightlyForecastService;
+    private final ForecastRetentionService forecastRetentionService;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final OnlineAnomalyService onlineAnomalyService;
+    private final ForecastJobService forecastJobService;
+
+    public ScheduledForecastJobs(NightlyForecastService nightlyForecastService,
+                                 ForecastRetentionService forecastRetentionService,
+                                 AnomalyDetectionService anomalyDetectionService,
+                                 OnlineAnomalyService onlineAnomalyService,
+                                 ForecastJobService forecastJobService) {
+        this.nightlyForecastService = nightlyForecastService;
+        this.forecastRetentionService = forecastRetentionService;
+        this.anomalyDetectionService = anomalyDetectionService;
+        this.onlineAnomalyService = onlineAnomalyService;
+        this.forecastJobService = forecastJobService;
     }
 
-    // Daily batch forecast placeholder; in production load configs per user
-    @Scheduled(cron = "0 15 2 * * *")
+    // Daily batch forecast over every user with active configs; resumes if a run was cut short
+    @Scheduled(cron = "${app.forecast.nightly.cron:0 15 2 * * *}")
     public void runNightlyForecasts() {
-        log.info("Running nightly batch forecasts (placeholder)");
-        ForecastConfig cfg = new ForecastConfig();
-        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
-        forecastService.batchGenerateForecasts(1L, List.of(cfg), LocalDate.now().plusDays(1), 7);
+        log.info("Running nightly batch forecasts");
+        nightlyForecastService.runNightly(LocalDate.now());
     }
-}
 
+    // Keeps this node's ad-hoc jobs leased and fails those left behind by stopped nodes
+    @Scheduled(fixedDelayString = "${app.forecast.lease.heartbeat-ms:60000}")
+    public void maintainForecastJobs() {
+        forecastJobService.renewLeases();
+        forecastJobService.failOrphaned();
+    }
+
+    // Flags unusual days up to yesterday, the last complete day, for every user with data
+    @Scheduled(cron = "${app.anomaly.cron:0 30 3 * * *}")
+    public void scanAnomalies() {
+        anomalyDetectionService.scanAll(LocalDate.now().minusDays(1));
+    }
 
+    // Persists the running expense statistics changed since the last snapshot
+    @Scheduled(fixedDelayString = "${app.anomaly.online.snapshot-ms:60000}")
+    public void snapshotSpendingStats() {
+        onlineAnomalyService.snapshot();
+    }
+
+    // Drops superseded forecast versions, anomalies and old jobs after the nightly run
+    @Scheduled(cron = "${app.forecast.retention.cron:0 45 3 * * *}")
+    public void purgeSupersededForecasts() {
+        forecastRetentionService.purgeSuperseded();
+    }
+}
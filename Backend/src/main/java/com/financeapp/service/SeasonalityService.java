@@ -0,0 +1,18 @@
+package com.financeapp.service;
+
+import java.time.LocalDate;
+
+/**
+ * Seasonal period used for configs that leave {@code seasonLength} unset, detected from the user's
+ * daily totals with {@link com.financeapp.service.forecast.SeasonalityDetector}.
+ */
+public interface SeasonalityService {
+
+    /**
+     * Detected period in days over the lookback window ending at {@code windowEnd}, or
+     * {@code FusedForecastKernel.DEFAULT_SEASON} when that history shows no clear cycle. Cached per
+     * user, data version and window end, so it is recomputed only after the user's financial data
+     * changes or for a different window.
+     */
+    int seasonLength(Long userId, LocalDate windowEnd);
+}
@@ -0,0 +1,14 @@
+package com.financeapp.service;
+
+/**
+ * Per-user counter of financial data changes. Forecast cache keys include the current version,
+ * so any write makes every cached forecast of that user unreachable without explicit eviction.
+ */
+public interface UserDataVersionService {
+
+    /** Current version; 0 for users without writes or unknown ids. */
+    long current(Long userId);
+
+    /** Increments the version inside the caller's transaction. */
+    void bump(Long userId);
+}
@@ -0,0 +1,377 @@
+package com.financeapp.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * ARIMA(p,d,q) fitted over a {@link TimeSeries}.
+ * <p>
+ * The series is differenced {@code d} times and demeaned (the mean acts as a drift term when
+ * {@code d == 1}). Pure AR models are estimated with Yule-Walker via Durbin-Levinson; models with
+ * an MA part use the innovations algorithm (Brockwell &amp; Davis, 5.1.3). Candidates are scored
+ * by AIC on their conditional residuals, and any order passed as {@link #AUTO} is selected within
+ * {@link #MAX_P}/{@link #MAX_D}/{@link #MAX_Q}.
+ * <p>
+ * Instances are reusable workspaces: buffers grow to the longest series seen and are reused, so a
+ * fit allocates nothing. Not thread-safe; {@link #forCurrentThread()} hands out one per thread.
+ */
+public final class ArimaModel {
+
+    public static final int AUTO = -1;
+    public static final int MAX_P = 3;
+    public static final int MAX_D = 2;
+    public static final int MAX_Q = 2;
+
+    private static final double UNIT_ROOT_AUTOCORRELATION = 0.9;
+    private static final int MAX_INNOVATIONS = 30;
+    private static final int STRIDE = MAX_INNOVATIONS + 1;
+    private static final ThreadLocal<ArimaModel> WORKSPACE = ThreadLocal.withInitial(ArimaModel::new);
+
+    // Series buffers, grown on demand
+    private double[] w = new double[0];
+    private double[] resid = new double[0];
+
+    // Fixed-size scratch
+    private final double[] levelTail = new double[MAX_D];
+    private final double[] gamma = new double[STRIDE];
+    private final double[] innov = new double[STRIDE * STRIDE];
+    private final double[] innovVar = new double[STRIDE];
+    private final double[] phi = new double[MAX_P];
+    private final double[] theta = new double[MAX_Q];
+    private final double[] prev = new double[MAX_P];
+    private final double[] system = new double[MAX_P * (MAX_P + 1)];
+
+    // Fitted model
+    private final double[] bestPhi = new double[MAX_P];
+    private final double[] bestTheta = new double[MAX_Q];
+    private int n;
+    private int p;
+    private int d;
+    private int q;
+    private double mean;
+    private double sigma2;
+    private double candidateSigma2;
+    private double aic;
+    private int innovOrder;
+
+    public static ArimaModel forCurrentThread() {
+        return WORKSPACE.get();
+    }
+
+    /**
+     * Fits the model; any order given as {@link #AUTO} is chosen by AIC (differencing by a
+     * lag-1 autocorrelation unit-root check).
+     *
+     * @throws IllegalArgumentException for out-of-range orders or a series too short for them
+     */
+    public ArimaModel fit(TimeSeries series, int p, int d, int q) {
+        checkOrder("p", p, MAX_P);
+        checkOrder("d", d, MAX_D);
+        checkOrder("q", q, MAX_Q);
+        int len = series.length();
+        if (len < 2) {
+            throw new IllegalArgumentException("Series too short for ARIMA");
+        }
+        ensureCapacity(len);
+        this.n = len;
+        this.d = d != AUTO ? d : selectDifferencing(series);
+        if (len - this.d < 2) {
+            throw new IllegalArgumentException("Series too short for ARIMA differencing order " + this.d);
+        }
+        prepare(series, this.d);
+
+        int count = len - this.d;
+        this.aic = Double.POSITIVE_INFINITY;
+        int pLo = p == AUTO ? 0 : p, pHi = p == AUTO ? MAX_P : p;
+        int qLo = q == AUTO ? 0 : q, qHi = q == AUTO ? MAX_Q : q;
+        for (int cp = pLo; cp <= pHi; cp++) {
+            for (int cq = qLo; cq <= qHi; cq++) {
+                if (count <= 2 * (cp + cq) + 1) {
+                    continue;
+                }
+                double score = estimate(count, cp, cq);
+                if (score < aic) {
+                    aic = score;
+                    this.p = cp;
+                    this.q = cq;
+                    this.sigma2 = candidateSigma2;
+                    System.arraycopy(phi, 0, bestPhi, 0, cp);
+                    System.arraycopy(theta, 0, bestTheta, 0, cq);
+                }
+            }
+        }
+        if (aic == Double.POSITIVE_INFINITY) {
+            if (p != AUTO && q != AUTO && count <= 2 * (p + q) + 1) {
+                throw new IllegalArgumentException("Series too short for ARIMA(" + p + "," + this.d + "," + q + ")");
+            }
+            // No candidate produced a stable fit; Yule-Walker AR is always causal
+            int fallbackP = Math.min(pHi, (count - 2) / 2);
+            aic = estimate(count, fallbackP, 0);
+            this.p = fallbackP;
+            this.q = 0;
+            this.sigma2 = candidateSigma2;
+            System.arraycopy(phi, 0, bestPhi, 0, fallbackP);
+        }
+        // Later candidates overwrote the residual buffer; the forecast needs the winner's
+        residuals(count, bestPhi, this.p, bestTheta, this.q);
+        return this;
+    }
+
+    /**
+     * Writes a {@code horizon}-step forecast of the last fit into {@code out}.
+     */
+    public double[] forecast(int horizon, double[] out) {
+        int count = n - d;
+        for (int h = 0; h < horizon; h++) {
+            double v = 0.0;
+            for (int i = 1; i <= p; i++) {
+                v += bestPhi[i - 1] * (h - i >= 0 ? out[h - i] : w[d + count + h - i]);
+            }
+            for (int j = 1; j <= q; j++) {
+                if (h - j < 0) v += bestTheta[j - 1] * resid[count + h - j];
+            }
+            out[h] = v;
+        }
+        for (int h = 0; h < horizon; h++) out[h] += mean;
+        for (int k = d - 1; k >= 0; k--) {
+            double running = levelTail[k];
+            for (int h = 0; h < horizon; h++) {
+                running += out[h];
+                out[h] = running;
+            }
+        }
+        return out;
+    }
+
+    public int p() { return p; }
+    public int d() { return d; }
+    public int q() { return q; }
+    public double aic() { return aic; }
+    public double sigma2() { return sigma2; }
+    public double ar(int lag) { return bestPhi[lag - 1]; }
+    public double ma(int lag) { return bestTheta[lag - 1]; }
+
+    private static void checkOrder(String name, int value, int max) {
+        if (value != AUTO && (value < 0 || value > max)) {
+            throw new IllegalArgumentException("ARIMA " + name + " must be between 0 and " + max);
+        }
+    }
+
+    private void ensureCapacity(int len) {
+        if (w.length < len) {
+            w = new double[len];
+            resid = new double[len];
+        }
+    }
+
+    /**
+     * Differences while the lag-1 autocorrelation stays above {@link #UNIT_ROOT_AUTOCORRELATION},
+     * i.e. while the series still behaves like a trend or random walk.
+     */
+    private int selectDifferencing(TimeSeries series) {
+        int len = series.length();
+        series.copyTo(w);
+        int order = 0;
+        while (order < MAX_D && len - order >= 4 && lag1Autocorrelation(order, len) > UNIT_ROOT_AUTOCORRELATION) {
+            order++;
+            for (int i = len - 1; i >= order; i--) w[i] -= w[i - 1];
+        }
+        return order;
+    }
+
+    private double lag1Autocorrelation(int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += w[i];
+        double m = sum / (to - from);
+        double c0 = 0.0, c1 = 0.0;
+        for (int i = from; i < to; i++) {
+            c0 += (w[i] - m) * (w[i] - m);
+            if (i > from) c1 += (w[i] - m) * (w[i - 1] - m);
+        }
+        return c0 > 0 ? c1 / c0 : 0.0;
+    }
+
+    /**
+     * Differences into {@code w[d..n)}, demeans it, and computes the sample autocovariances and
+     * innovations coefficients shared by every (p, q) candidate.
+     */
+    private void prepare(TimeSeries series, int order) {
+        series.copyTo(w);
+        for (int k = 0; k < order; k++) {
+            levelTail[k] = w[n - 1];
+            for (int i = n - 1; i > k; i--) w[i] -= w[i - 1];
+        }
+        int count = n - order;
+        double sum = 0.0;
+        for (int i = order; i < n; i++) sum += w[i];
+        mean = order < 2 ? sum / count : 0.0;
+        for (int i = order; i < n; i++) w[i] -= mean;
+
+        int maxLag = Math.min(MAX_INNOVATIONS, count - 1);
+        for (int h = 0; h <= maxLag; h++) {
+            double acc = 0.0;
+            for (int t = order; t + h < n; t++) acc += w[t] * w[t + h];
+            gamma[h] = acc / count;
+        }
+
+        // Innovations algorithm up to order m
+        int m = Math.min(maxLag, Math.max(MAX_P + MAX_Q, count / 4));
+        Arrays.fill(innov, 0.0);
+        innovVar[0] = gamma[0];
+        innovOrder = 0;
+        if (gamma[0] <= 0) {
+            return;
+        }
+        for (int i = 1; i <= m; i++) {
+            for (int k = 0; k < i; k++) {
+                double s = gamma[i - k];
+                for (int j = 0; j < k; j++) {
+                    s -= innov[k * STRIDE + k - j] * innov[i * STRIDE + i - j] * innovVar[j];
+                }
+                innov[i * STRIDE + i - k] = s / innovVar[k];
+            }
+            double v = gamma[0];
+            for (int j = 0; j < i; j++) {
+                double t = innov[i * STRIDE + i - j];
+                v -= t * t * innovVar[j];
+            }
+            if (!(v > 0)) {
+                break;
+            }
+            innovVar[i] = v;
+            innovOrder = i;
+        }
+    }
+
+    /**
+     * Estimates ARMA(cp, cq) on the prepared series into {@code phi}/{@code theta} and returns its
+     * AIC, or {@code +Infinity} when the estimate is unusable.
+     */
+    private double estimate(int count, int cp, int cq) {
+        Arrays.fill(phi, 0.0);
+        Arrays.fill(theta, 0.0);
+        if (gamma[0] <= 0) {
+            // Constant after differencing: the mean (or last value) is the whole model
+            if (cp + cq > 0) return Double.POSITIVE_INFINITY;
+            candidateSigma2 = 0.0;
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (cq == 0) {
+            if (!yuleWalker(cp)) return Double.POSITIVE_INFINITY;
+        } else {
+            if (innovOrder < cp + cq || !innovationsArma(cp, cq) || !causal(cp)) return Double.POSITIVE_INFINITY;
+        }
+
+        double sse = residuals(count, phi, cp, theta, cq);
+        if (!Double.isFinite(sse) || sse > gamma[0] * count * 1e6) {
+            return Double.POSITIVE_INFINITY;
+        }
+        candidateSigma2 = Math.max(sse / count, gamma[0] * 1e-12);
+        return count * Math.log(candidateSigma2) + 2.0 * (cp + cq + 1);
+    }
+
+    /** Conditional residuals into {@code resid} with zero pre-sample values; returns their sum of squares. */
+    private double residuals(int count, double[] ar, int cp, double[] ma, int cq) {
+        double sse = 0.0;
+        for (int t = 0; t < count; t++) {
+            double e = w[d + t];
+            for (int i = 1; i <= cp && t - i >= 0; i++) e -= ar[i - 1] * w[d + t - i];
+            for (int j = 1; j <= cq && t - j >= 0; j++) e -= ma[j - 1] * resid[t - j];
+            resid[t] = e;
+            sse += e * e;
+        }
+        return sse;
+    }
+
+    /** Durbin-Levinson recursion on the sample autocovariances. */
+    private boolean yuleWalker(int order) {
+        double v = gamma[0];
+        for (int k = 1; k <= order; k++) {
+            double acc = gamma[k];
+            for (int j = 1; j < k; j++) acc -= prev[j - 1] * gamma[k - j];
+            double kappa = acc / v;
+            if (!(Math.abs(kappa) < 1)) return false;
+            phi[k - 1] = kappa;
+            for (int j = 1; j < k; j++) phi[j - 1] = prev[j - 1] - kappa * prev[k - j - 1];
+            System.arraycopy(phi, 0, prev, 0, k);
+            v *= 1 - kappa * kappa;
+        }
+        return true;
+    }
+
+    /** Step-down (reverse Levinson) test that every partial autocorrelation of {@code phi} lies in (-1, 1). */
+    private boolean causal(int order) {
+        System.arraycopy(phi, 0, prev, 0, order);
+        for (int k = order; k >= 1; k--) {
+            double kappa = prev[k - 1];
+            if (!(Math.abs(kappa) < 1)) return false;
+            double scale = 1 - kappa * kappa;
+            for (int j = 1; j <= k / 2; j++) {
+                double a = prev[j - 1];
+                double b = prev[k - j - 1];
+                prev[j - 1] = (a + kappa * b) / scale;
+                prev[k - j - 1] = (b + kappa * a) / scale;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Preliminary ARMA estimate from the innovations coefficients theta_{m,j}:
+     * phi solves theta_{m,q+j} = sum_i phi_i theta_{m,q+j-i}, then
+     * theta_j = theta_{m,j} - sum_i phi_i theta_{m,j-i}.
+     */
+    private boolean innovationsArma(int cp, int cq) {
+        int row = innovOrder * STRIDE;
+        if (cp > 0) {
+            int cols = cp + 1;
+            for (int j = 1; j <= cp; j++) {
+                for (int i = 1; i <= cp; i++) {
+                    system[(j - 1) * cols + (i - 1)] = innovAt(row, cq + j - i);
+                }
+                system[(j - 1) * cols + cp] = innovAt(row, cq + j);
+            }
+            if (!solve(cp)) return false;
+        }
+        for (int j = 1; j <= cq; j++) {
+            double t = innovAt(row, j);
+            for (int i = 1; i <= Math.min(j, cp); i++) t -= phi[i - 1] * innovAt(row, j - i);
+            theta[j - 1] = t;
+        }
+        return true;
+    }
+
+    private double innovAt(int row, int lag) {
+        if (lag < 0) return 0.0;
+        if (lag == 0) return 1.0;
+        return innov[row + lag];
+    }
+
+    /** Gaussian elimination with partial pivoting on the augmented {@code system}; result into {@code phi}. */
+    private boolean solve(int size) {
+        int cols = size + 1;
+        for (int c = 0; c < size; c++) {
+            int pivot = c;
+            for (int r = c + 1; r < size; r++) {
+                if (Math.abs(system[r * cols + c]) > Math.abs(system[pivot * cols + c])) pivot = r;
+            }
+            if (Math.abs(system[pivot * cols + c]) < 1e-12) return false;
+            if (pivot != c) {
+                for (int k = c; k < cols; k++) {
+                    double tmp = system[c * cols + k];
+                    system[c * cols + k] = system[pivot * cols + k];
+                    system[pivot * cols + k] = tmp;
+                }
+            }
+            for (int r = c + 1; r < size; r++) {
+                double f = system[r * cols + c] / system[c * cols + c];
+                for (int k = c; k < cols; k++) system[r * cols + k] -= f * system[c * cols + k];
+            }
+        }
+        for (int r = size - 1; r >= 0; r--) {
+            double acc = system[r * cols + size];
+            for (int k = r + 1; k < size; k++) acc -= system[r * cols + k] * phi[k];
+            phi[r] = acc / system[r * cols + r];
+        }
+        return true;
+    }
+}
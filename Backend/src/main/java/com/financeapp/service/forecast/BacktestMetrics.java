@@ -0,0 +1,14 @@
+package com.financeapp.service.forecast;
+
+/**
+ * Error metrics of a rolling-origin backtest, pooled over every scored point of every fold.
+ *
+ * @param mape  mean absolute percentage error (percent), over points with a non-zero actual
+ * @param smape symmetric MAPE (percent, 0..200), over points where actual or forecast is non-zero
+ * @param mase  mean absolute error scaled by each fold's in-sample naive error; NaN when every
+ *              training window is constant
+ * @param rmse  root mean squared error
+ * @param bias  mean of forecast minus actual; positive means over-forecasting
+ */
+public record BacktestMetrics(int folds, int points, double mape, double smape, double mase, double rmse, double bias) {
+}
@@ -0,0 +1,95 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A user's daily totals split by category and transaction type, built from the
+ * {@code [date, category, type, SUM(amount)]} rows of
+ * {@code FinancialDataRepository.getDailyTotalsByCategoryAndType}. Series for any filter are cut
+ * from the same rows, so per-category forecasts cost one query however many categories are asked for.
+ */
+public final class CategorySeries {
+
+    /** Category and type a series is restricted to; {@code null} components match everything. */
+    public record Filter(Category category, TransactionType type) {
+
+        public static final Filter ALL = new Filter(null, null);
+
+        /**
+         * The filter configured on {@code config}. Blank values mean no filter; names are matched
+         * case-insensitively against the enum constants.
+         *
+         * @throws IllegalArgumentException for unknown category or type names
+         */
+        public static Filter of(ForecastConfig config) {
+            Category category = parse(Category.class, config.getCategory());
+            TransactionType type = parse(TransactionType.class, config.getTransactionType());
+            return category == null && type == null ? ALL : new Filter(category, type);
+        }
+
+        public boolean isAll() {
+            return category == null && type == null;
+        }
+
+        boolean matches(Object rowCategory, Object rowType) {
+            return (category == null || category == rowCategory) && (type == null || type == rowType);
+        }
+
+        private static <E extends Enum<E>> E parse(Class<E> enumType, String name) {
+            if (name == null || name.isBlank()) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(enumType, name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown " + enumType.getSimpleName() + " filter: " + name);
+            }
+        }
+    }
+
+    private final List<Object[]> rows;
+    private final LocalDate to;
+
+    private CategorySeries(List<Object[]> rows, LocalDate to) {
+        this.rows = rows;
+        this.to = to;
+    }
+
+    /** Wraps rows ordered by date; the series built from them end at {@code to}. */
+    public static CategorySeries fromRows(List<Object[]> rows, LocalDate to) {
+        return new CategorySeries(rows == null ? List.of() : rows, to);
+    }
+
+    /**
+     * Dense series of the rows matching {@code filter}, starting at the first matching day and
+     * ending at {@code to}; gaps are zero. Same shape as {@link TimeSeries#fromDailyTotals}.
+     */
+    public TimeSeries series(Filter filter) {
+        LocalDate first = null;
+        for (Object[] row : rows) {
+            if (filter.matches(row[1], row[2])) {
+                first = (LocalDate) row[0];
+                break;
+            }
+        }
+        if (first == null || first.isAfter(to)) {
+            return TimeSeries.empty();
+        }
+        double[] values = new double[(int) ChronoUnit.DAYS.between(first, to) + 1];
+        for (Object[] row : rows) {
+            if (!filter.matches(row[1], row[2])) continue;
+            int idx = (int) ChronoUnit.DAYS.between(first, (LocalDate) row[0]);
+            if (idx >= 0 && idx < values.length) {
+                values[idx] += ((Number) row[3]).doubleValue();
+            }
+        }
+        return TimeSeries.of(first, values);
+    }
+}
@@ -0,0 +1,28 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+
+/**
+ * One member of an accuracy-weighted ensemble. {@code config} is a detached copy holding only the
+ * model parameters, so cached members can be forecast concurrently without touching entities.
+ */
+public record EnsembleMember(ForecastConfig config, double weight) {
+
+    /** Detached copy of the model parameters of {@code source}, without id, user or filters. */
+    public static ForecastConfig parametersOf(ForecastConfig source) {
+        ForecastConfig copy = new ForecastConfig();
+        copy.setAlgorithm(source.getAlgorithm());
+        copy.setWindowSize(source.getWindowSize());
+        copy.setSmoothingFactor(source.getSmoothingFactor());
+        copy.setSeasonLength(source.getSeasonLength());
+        copy.setDetectedSeasonLength(source.getDetectedSeasonLength());
+        copy.setSeasonalityMode(source.getSeasonalityMode());
+        copy.setArimaP(source.getArimaP());
+        copy.setArimaD(source.getArimaD());
+        copy.setArimaQ(source.getArimaQ());
+        copy.setFittedAlpha(source.getFittedAlpha());
+        copy.setFittedBeta(source.getFittedBeta());
+        copy.setFittedGamma(source.getFittedGamma());
+        return copy;
+    }
+}
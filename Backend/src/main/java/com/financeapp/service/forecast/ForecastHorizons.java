@@ -0,0 +1,50 @@
+package com.financeapp.service.forecast;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Serves several horizons from one forecast. Only the longest horizon is generated, and each
+ * shorter one is a prefix of it. Every kernel projects step by step from one fitted state, so the
+ * first {@code h} point forecasts of a longer run are the {@code h}-step forecast.
+ */
+public final class ForecastHorizons {
+
+    private ForecastHorizons() {}
+
+    /**
+     * The longest of {@code horizons}.
+     *
+     * @throws IllegalArgumentException when no horizon is given or one is not positive
+     */
+    public static int longest(Collection<Integer> horizons) {
+        if (horizons == null || horizons.isEmpty()) {
+            throw new IllegalArgumentException("At least one horizon is required");
+        }
+        int longest = 0;
+        for (Integer h : horizons) {
+            if (h == null || h <= 0) {
+                throw new IllegalArgumentException("Horizons must be positive: " + horizons);
+            }
+            longest = Math.max(longest, h);
+        }
+        return longest;
+    }
+
+    /**
+     * Cuts the forecast for each of {@code horizons} from {@code longest}, by horizon ascending.
+     * {@code stepsOf} maps a horizon in days to the number of forecast steps covering it (the
+     * identity for daily forecasts, a bucket count for resampled ones).
+     */
+    public static <T> Map<Integer, List<T>> prefixes(List<T> longest, Collection<Integer> horizons, IntUnaryOperator stepsOf) {
+        Map<Integer, List<T>> out = new TreeMap<>();
+        for (Integer h : horizons) {
+            int steps = Math.min(stepsOf.applyAsInt(h), longest.size());
+            out.put(h, List.copyOf(longest.subList(0, steps)));
+        }
+        return out;
+    }
+}
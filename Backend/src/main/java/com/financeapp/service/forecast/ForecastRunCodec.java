@@ -0,0 +1,103 @@
+package com.financeapp.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * Byte encoding for the value arrays of a {@code ForecastRun}. Values are stored to the cent, the
+ * same precision as the {@code numeric(19,2)} columns of {@code forecast_results}. Each series is
+ * written as zigzag varints of the difference to the previous value, so a smooth daily horizon
+ * costs one or two bytes per day instead of a row.
+ * <p>
+ * Layout: format version, series count and series length as varints, then each series in turn.
+ */
+public final class ForecastRunCodec {
+
+    private static final int VERSION = 1;
+
+    private ForecastRunCodec() {}
+
+    /**
+     * Encodes equally long {@code series}.
+     *
+     * @throws IllegalArgumentException for series of different lengths or non-finite values
+     */
+    public static byte[] encode(double[]... series) {
+        int length = series.length == 0 ? 0 : series[0].length;
+        byte[] buf = new byte[15 + series.length * length * 10];
+        int pos = writeVarint(buf, 0, VERSION);
+        pos = writeVarint(buf, pos, series.length);
+        pos = writeVarint(buf, pos, length);
+        for (double[] s : series) {
+            if (s.length != length) {
+                throw new IllegalArgumentException("All series must have the same length");
+            }
+            long prev = 0;
+            for (double v : s) {
+                if (!Double.isFinite(v)) {
+                    throw new IllegalArgumentException("Cannot encode non-finite forecast value " + v);
+                }
+                long cents = Math.round(v * 100.0);
+                long delta = cents - prev;
+                pos = writeVarint(buf, pos, (delta << 1) ^ (delta >> 63));
+                prev = cents;
+            }
+        }
+        return Arrays.copyOf(buf, pos);
+    }
+
+    /**
+     * Returns {@code out[series][i]}.
+     *
+     * @throws IllegalArgumentException for truncated data or an unknown format version
+     */
+    public static double[][] decode(byte[] data) {
+        Reader in = new Reader(data);
+        long version = in.varint();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown forecast run encoding version " + version);
+        }
+        int count = (int) in.varint();
+        int length = (int) in.varint();
+        double[][] out = new double[count][length];
+        for (int s = 0; s < count; s++) {
+            long cents = 0;
+            for (int i = 0; i < length; i++) {
+                long zigzag = in.varint();
+                cents += (zigzag >>> 1) ^ -(zigzag & 1);
+                out[s][i] = cents / 100.0;
+            }
+        }
+        return out;
+    }
+
+    private static int writeVarint(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= data.length) {
+                    throw new IllegalArgumentException("Truncated forecast run data");
+                }
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IllegalArgumentException("Malformed varint in forecast run data");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates several classic forecast configs with a single pass over a {@link TimeSeries}.
+ * <p>
+ * One loop maintains, for every distinct parameter requested: the rolling SMA window sums,
+ * the EWMA levels, the least-squares sums ({@code sumX}, {@code sumY}, {@code sumXX},
+ * {@code sumXY}) and the per-position seasonal accumulators. Each config's horizon is then
+ * derived from those accumulators, so the cost is one read of the series regardless of
+ * how many models are requested. Arithmetic mirrors the standalone kernels in
+ * {@code ForecastServiceImpl} operation for operation, so results are identical.
+ */
+public final class FusedForecastKernel {
+
+    public static final int DEFAULT_WINDOW = 7;
+    public static final double DEFAULT_ALPHA = 0.3d;
+    public static final int DEFAULT_SEASON = 7;
+
+    private FusedForecastKernel() {}
+
+    /** Configured season length, else the detected one, else {@link #DEFAULT_SEASON}. */
+    public static int seasonOf(ForecastConfig cfg) {
+        if (cfg.getSeasonLength() != null) return cfg.getSeasonLength();
+        return cfg.getDetectedSeasonLength() != null ? cfg.getDetectedSeasonLength() : DEFAULT_SEASON;
+    }
+
+    public static boolean supports(ForecastConfig.AlgorithmType algorithm) {
+        return switch (algorithm) {
+            case SMA, EWMA, LINEAR_REGRESSION, SEASONAL_DECOMPOSITION -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Returns one forecast of length {@code horizon} per config, in the order given.
+     *
+     * @throws IllegalArgumentException for unsupported algorithms or invalid parameters,
+     *                                  matching the standalone kernels
+     */
+    public static double[][] evaluate(TimeSeries series, List<ForecastConfig> configs, int horizon) {
+        int n = series.length();
+        int k = configs.size();
+
+        // Plan: collect the distinct parameters so shared ones are accumulated once
+        int[] windows = new int[k + 1];
+        int windowCount = 0;
+        double[] alphas = new double[k];
+        int alphaCount = 0;
+        int[] seasons = new int[k];
+        int seasonCount = 0;
+        int[] slot = new int[k];
+        for (int c = 0; c < k; c++) {
+            ForecastConfig cfg = configs.get(c);
+            switch (cfg.getAlgorithm()) {
+                case SMA -> {
+                    int w = cfg.getWindowSize() != null ? cfg.getWindowSize() : DEFAULT_WINDOW;
+                    if (w <= 0 || n < w) {
+                        throw new IllegalArgumentException("Invalid window size for SMA");
+                    }
+                    slot[c] = indexOf(windows, windowCount, w);
+                    if (slot[c] == windowCount) windows[windowCount++] = w;
+                }
+                case EWMA -> {
+                    double alpha = cfg.getSmoothingFactor() != null ? cfg.getSmoothingFactor() : DEFAULT_ALPHA;
+                    if (alpha <= 0 || alpha >= 1) {
+                        throw new IllegalArgumentException("Alpha must be in (0,1)");
+                    }
+                    slot[c] = indexOf(alphas, alphaCount, alpha);
+                    if (slot[c] == alphaCount) alphas[alphaCount++] = alpha;
+                }
+                case LINEAR_REGRESSION -> slot[c] = -1;
+                case SEASONAL_DECOMPOSITION -> {
+                    int season = seasonOf(cfg);
+                    if (season <= 1 || n < season * 2) {
+                        // Same fallback as seasonalDecomposition: SMA projection
+                        int w = Math.min(7, Math.max(2, n));
+                        if (n < w) {
+                            throw new IllegalArgumentException("Invalid window size for SMA");
+                        }
+                        int idx = indexOf(windows, windowCount, w);
+                        if (idx == windowCount) windows[windowCount++] = w;
+                        slot[c] = -2 - idx;
+                    } else {
+                        slot[c] = indexOf(seasons, seasonCount, season);
+                        if (slot[c] == seasonCount) seasons[seasonCount++] = season;
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported algorithm for fused evaluation: " + cfg.getAlgorithm());
+            }
+        }
+
+        double[] windowSums = new double[windowCount];
+        double[] levels = new double[alphaCount];
+        double[][] seasonSums = new double[seasonCount][];
+        int[][] seasonCounts = new int[seasonCount][];
+        for (int s = 0; s < seasonCount; s++) {
+            seasonSums[s] = new double[seasons[s]];
+            seasonCounts[s] = new int[seasons[s]];
+        }
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+
+        // Single pass over the series
+        for (int i = 0; i < n; i++) {
+            double v = series.get(i);
+
+            double x = i + 1;
+            sumX += x; sumY += v; sumXX += x * x; sumXY += x * v;
+
+            for (int w = 0; w < windowCount; w++) {
+                windowSums[w] += v;
+                if (i >= windows[w]) windowSums[w] -= series.get(i - windows[w]);
+            }
+            if (i == 0) {
+                for (int a = 0; a < alphaCount; a++) levels[a] = v;
+            } else {
+                for (int a = 0; a < alphaCount; a++) levels[a] = alphas[a] * v + (1 - alphas[a]) * levels[a];
+            }
+            for (int s = 0; s < seasonCount; s++) {
+                int idx = i % seasons[s];
+                seasonSums[s][idx] += v;
+                seasonCounts[s][idx] += 1;
+            }
+        }
+
+        double denom = n * sumXX - sumX * sumX;
+        if (denom == 0) denom = 1e-9;
+        double slope = (n * sumXY - sumX * sumY) / denom;
+        double intercept = (sumY - slope * sumX) / n;
+
+        double[][] out = new double[k][];
+        for (int c = 0; c < k; c++) {
+            double[] fc = new double[horizon];
+            switch (configs.get(c).getAlgorithm()) {
+                case SMA -> Arrays.fill(fc, windowSums[slot[c]] / windows[slot[c]]);
+                case EWMA -> Arrays.fill(fc, levels[slot[c]]);
+                case LINEAR_REGRESSION -> {
+                    for (int i = 0; i < horizon; i++) fc[i] = intercept + slope * (n + 1 + i);
+                }
+                case SEASONAL_DECOMPOSITION -> {
+                    if (slot[c] <= -2) {
+                        int w = -2 - slot[c];
+                        Arrays.fill(fc, windowSums[w] / windows[w]);
+                    } else {
+                        int s = slot[c];
+                        int len = seasons[s];
+                        double[] season = new double[len];
+                        for (int i = 0; i < len; i++) {
+                            season[i] = seasonCounts[s][i] > 0 ? seasonSums[s][i] / seasonCounts[s][i] : 0.0;
+                        }
+                        for (int i = 0; i < horizon; i++) {
+                            fc[i] = intercept + slope * (n + 1 + i) + season[(n + i) % len];
+                        }
+                    }
+                }
+                default -> throw new IllegalStateException();
+            }
+            out[c] = fc;
+        }
+        return out;
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) if (values[i] == value) return i;
+        return count;
+    }
+
+    private static int indexOf(double[] values, int count, double value) {
+        for (int i = 0; i < count; i++) if (Double.compare(values[i], value) == 0) return i;
+        return count;
+    }
+}
@@ -0,0 +1,234 @@
+package com.financeapp.service.forecast;
+
+/**
+ * Holt-Winters triple exponential smoothing, additive or multiplicative.
+ * <p>
+ * Level and trend start from the first two seasons and seasonal indices from the first season.
+ * Alpha, beta and gamma are fitted by minimising the one-step-ahead squared error with a
+ * Nelder-Mead search bounded to [0, 1]; passing previously fitted values warm-starts the search
+ * from them with a tighter simplex and a smaller iteration budget.
+ * <p>
+ * Instances are reusable workspaces and allocate nothing once their seasonal buffer has grown
+ * to the longest season seen. Not thread-safe; {@link #forCurrentThread()} hands out one per thread.
+ */
+public final class HoltWintersModel {
+
+    private static final int DIM = 3;
+    private static final int COLD_ITERATIONS = 300;
+    private static final int WARM_ITERATIONS = 80;
+    private static final double COLD_STEP = 0.2;
+    private static final double WARM_STEP = 0.05;
+    private static final double TOLERANCE = 1e-10;
+    private static final ThreadLocal<HoltWintersModel> WORKSPACE = ThreadLocal.withInitial(HoltWintersModel::new);
+
+    private double[] season = new double[0];
+
+    // Nelder-Mead simplex: DIM + 1 vertices
+    private final double[][] simplex = new double[DIM + 1][DIM];
+    private final double[] scores = new double[DIM + 1];
+    private final double[] centroid = new double[DIM];
+    private final double[] trial = new double[DIM];
+    private final double[] trial2 = new double[DIM];
+
+    private TimeSeries series;
+    private int n;
+    private int seasonLength;
+    private boolean multiplicative;
+    private double alpha;
+    private double beta;
+    private double gamma;
+    private double sse;
+    private double level;
+    private double trend;
+    private double shift;
+
+    public static HoltWintersModel forCurrentThread() {
+        return WORKSPACE.get();
+    }
+
+    /**
+     * Fits smoothing parameters to {@code series}. When all of {@code alpha0}, {@code beta0} and
+     * {@code gamma0} are non-null the search starts from them.
+     *
+     * Daily totals are zero on days without data, so for the multiplicative form a series with
+     * non-positive values is shifted up until its minimum is 1; forecasts undo the shift.
+     *
+     * @throws IllegalArgumentException when the series holds fewer than two seasons
+     */
+    public HoltWintersModel fit(TimeSeries series, int seasonLength, boolean multiplicative,
+                                Double alpha0, Double beta0, Double gamma0) {
+        if (seasonLength < 2 || series.length() < seasonLength * 2) {
+            throw new IllegalArgumentException("Holt-Winters needs at least two full seasons of data");
+        }
+        shift = 0.0;
+        if (multiplicative) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < series.length(); i++) min = Math.min(min, series.get(i));
+            if (min <= 0) shift = 1 - min;
+        }
+        if (season.length < seasonLength) {
+            season = new double[seasonLength];
+        }
+        this.series = series;
+        this.seasonLength = seasonLength;
+        this.multiplicative = multiplicative;
+
+        boolean warm = alpha0 != null && beta0 != null && gamma0 != null;
+        if (warm) {
+            minimise(clamp(alpha0), clamp(beta0), clamp(gamma0), WARM_STEP, WARM_ITERATIONS);
+        } else {
+            minimise(0.3, 0.1, 0.1, COLD_STEP, COLD_ITERATIONS);
+        }
+        int best = 0;
+        for (int v = 1; v <= DIM; v++) if (scores[v] < scores[best]) best = v;
+        alpha = simplex[best][0];
+        beta = simplex[best][1];
+        gamma = simplex[best][2];
+        // Leaves level, trend and season at the end of the series for forecasting
+        sse = run(alpha, beta, gamma);
+        this.n = series.length();
+        this.series = null;
+        return this;
+    }
+
+    /**
+     * Writes a {@code horizon}-step forecast of the last fit into {@code out}.
+     */
+    public double[] forecast(int horizon, double[] out) {
+        for (int h = 0; h < horizon; h++) {
+            double base = level + (h + 1) * trend;
+            double s = season[(n + h) % seasonLength];
+            out[h] = multiplicative ? base * s - shift : base + s;
+        }
+        return out;
+    }
+
+    public double alpha() { return alpha; }
+    public double beta() { return beta; }
+    public double gamma() { return gamma; }
+    public double sse() { return sse; }
+
+    private void minimise(double a, double b, double g, double step, int maxIterations) {
+        for (int v = 0; v <= DIM; v++) {
+            simplex[v][0] = a;
+            simplex[v][1] = b;
+            simplex[v][2] = g;
+            if (v > 0) {
+                double x = simplex[v][v - 1];
+                // Step away from the nearer bound so every vertex stays distinct
+                simplex[v][v - 1] = x + step <= 1 ? x + step : x - step;
+            }
+            scores[v] = evaluate(simplex[v]);
+        }
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            int worst = 0, best = 0;
+            for (int v = 1; v <= DIM; v++) {
+                if (scores[v] > scores[worst]) worst = v;
+                if (scores[v] < scores[best]) best = v;
+            }
+            int second = best;
+            for (int v = 0; v <= DIM; v++) {
+                if (v != worst && scores[v] > scores[second]) second = v;
+            }
+            if (Math.abs(scores[worst] - scores[best]) <= TOLERANCE * (Math.abs(scores[best]) + TOLERANCE)) {
+                return;
+            }
+
+            for (int k = 0; k < DIM; k++) {
+                double sum = 0.0;
+                for (int v = 0; v <= DIM; v++) if (v != worst) sum += simplex[v][k];
+                centroid[k] = sum / DIM;
+            }
+
+            double reflected = point(trial, worst, 1.0);
+            if (reflected < scores[best]) {
+                double expanded = point(trial2, worst, 2.0);
+                if (expanded < reflected) accept(worst, trial2, expanded);
+                else accept(worst, trial, reflected);
+            } else if (reflected < scores[second]) {
+                accept(worst, trial, reflected);
+            } else {
+                double contracted = reflected < scores[worst]
+                        ? point(trial2, worst, 0.5)
+                        : point(trial2, worst, -0.5);
+                if (contracted < Math.min(reflected, scores[worst])) {
+                    accept(worst, trial2, contracted);
+                } else {
+                    // Shrink towards the best vertex
+                    for (int v = 0; v <= DIM; v++) {
+                        if (v == best) continue;
+                        for (int k = 0; k < DIM; k++) {
+                            simplex[v][k] = simplex[best][k] + 0.5 * (simplex[v][k] - simplex[best][k]);
+                        }
+                        scores[v] = evaluate(simplex[v]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Centroid + coeff * (centroid - worst), projected into the bounds, scored. */
+    private double point(double[] target, int worst, double coeff) {
+        for (int k = 0; k < DIM; k++) {
+            target[k] = clamp(centroid[k] + coeff * (centroid[k] - simplex[worst][k]));
+        }
+        return evaluate(target);
+    }
+
+    private void accept(int vertex, double[] values, double score) {
+        System.arraycopy(values, 0, simplex[vertex], 0, DIM);
+        scores[vertex] = score;
+    }
+
+    private double evaluate(double[] params) {
+        double value = run(params[0], params[1], params[2]);
+        return Double.isFinite(value) ? value : Double.MAX_VALUE;
+    }
+
+    /** Runs the recursions over the whole series and returns the one-step-ahead SSE. */
+    private double run(double a, double b, double g) {
+        int n = series.length();
+        int len = seasonLength;
+        double first = 0.0, second = 0.0;
+        for (int i = 0; i < len; i++) {
+            first += series.get(i) + shift;
+            second += series.get(len + i) + shift;
+        }
+        first /= len;
+        second /= len;
+        double l = first;
+        double t = (second - first) / len;
+        for (int i = 0; i < len; i++) {
+            season[i] = multiplicative ? (series.get(i) + shift) / first : series.get(i) - first;
+        }
+
+        double total = 0.0;
+        for (int i = 0; i < n; i++) {
+            double y = series.get(i) + shift;
+            int idx = i % len;
+            double s = season[idx];
+            double prevLevel = l;
+            double err;
+            if (multiplicative) {
+                err = y - (l + t) * s;
+                l = a * (y / s) + (1 - a) * (l + t);
+                t = b * (l - prevLevel) + (1 - b) * t;
+                season[idx] = g * (y / l) + (1 - g) * s;
+            } else {
+                err = y - (l + t + s);
+                l = a * (y - s) + (1 - a) * (l + t);
+                t = b * (l - prevLevel) + (1 - b) * t;
+                season[idx] = g * (y - l) + (1 - g) * s;
+            }
+            total += err * err;
+        }
+        level = l;
+        trend = t;
+        return total;
+    }
+
+    private static double clamp(double v) {
+        return v < 0 ? 0 : (v > 1 ? 1 : v);
+    }
+}
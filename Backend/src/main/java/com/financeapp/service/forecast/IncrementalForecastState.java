@@ -0,0 +1,316 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Sufficient statistics for one forecast config over a sliding window of daily totals.
+ * <p>
+ * The window always covers the {@code capacity} days ending at {@link #endDate()}, the same
+ * window {@code generateForecast} queries. Daily totals live in a ring buffer of cents; the
+ * regression sums, SMA window sum, seasonal accumulators and a discounted EWMA sum are kept
+ * alongside it so that a single {@link #apply(LocalDate, long)} is O(1), advancing the window
+ * is O(1) per elapsed day, and {@link #forecast(int)} costs O(season + horizon) without
+ * touching the underlying transactions. Money is accumulated as integer cents so the state
+ * never drifts; only the EWMA sum is floating point.
+ * <p>
+ * Like {@link TimeSeries#fromDailyTotals}, leading days without data are trimmed from the
+ * effective series, so forecasts match a from-scratch computation over the same window.
+ */
+public final class IncrementalForecastState {
+
+    private static final long NO_DATA = Long.MAX_VALUE;
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    private final ForecastConfig.AlgorithmType algorithm;
+    private final int window;
+    private final double alpha;
+    private final int seasonLength;
+    private final int capacity;
+
+    private long endDay;
+    private long firstDataDay;
+    private final long[] ring;
+    private final long[] seasonSums;
+    private long sumY;
+    private long sumXY;
+    private long windowSum;
+    private double ewmaSum;
+
+    private IncrementalForecastState(ForecastConfig.AlgorithmType algorithm, int window, double alpha, int seasonLength,
+                                     int capacity, long endDay) {
+        if (!FusedForecastKernel.supports(algorithm)) {
+            throw new IllegalArgumentException("Incremental state not supported for " + algorithm);
+        }
+        this.algorithm = algorithm;
+        this.window = window;
+        this.alpha = alpha;
+        this.seasonLength = seasonLength;
+        this.capacity = capacity;
+        this.endDay = endDay;
+        this.firstDataDay = NO_DATA;
+        this.ring = new long[capacity];
+        this.seasonSums = new long[Math.max(1, seasonLength)];
+    }
+
+    /**
+     * Creates an empty state whose window ends at {@code endDate}.
+     */
+    public static IncrementalForecastState empty(ForecastConfig.AlgorithmType algorithm, int window, double alpha,
+                                                 int seasonLength, int capacity, LocalDate endDate) {
+        return new IncrementalForecastState(algorithm, window, alpha, seasonLength, capacity, endDate.toEpochDay());
+    }
+
+    /**
+     * Seeds a state from an already loaded series whose last day is the window end.
+     */
+    public static IncrementalForecastState seed(ForecastConfig.AlgorithmType algorithm, int window, double alpha,
+                                                int seasonLength, int capacity, LocalDate endDate, TimeSeries series) {
+        IncrementalForecastState state = empty(algorithm, window, alpha, seasonLength, capacity, endDate);
+        for (int i = 0; i < series.length(); i++) {
+            long cents = Math.round(series.get(i) * 100.0);
+            if (cents != 0) state.apply(series.dateAt(i), cents);
+        }
+        return state;
+    }
+
+    /**
+     * Restores a persisted state; see the accessors for the meaning of each component.
+     */
+    public static IncrementalForecastState restore(ForecastConfig.AlgorithmType algorithm, int window, double alpha,
+                                                   int seasonLength, int capacity, LocalDate endDate,
+                                                   LocalDate firstDataDate, byte[] ring, byte[] seasonSums,
+                                                   long sumY, long sumXY, long windowSum, double ewmaSum) {
+        IncrementalForecastState state = empty(algorithm, window, alpha, seasonLength, capacity, endDate);
+        ByteBuffer.wrap(ring).asLongBuffer().get(state.ring);
+        ByteBuffer.wrap(seasonSums).asLongBuffer().get(state.seasonSums);
+        state.firstDataDay = firstDataDate != null ? firstDataDate.toEpochDay() : UNKNOWN;
+        state.sumY = sumY;
+        state.sumXY = sumXY;
+        state.windowSum = windowSum;
+        state.ewmaSum = ewmaSum;
+        return state;
+    }
+
+    /**
+     * Adds {@code deltaCents} to the total of {@code date}. Dates after the window end advance
+     * the window first; dates before the window start have no effect on any forecast.
+     */
+    public void apply(LocalDate date, long deltaCents) {
+        long day = date.toEpochDay();
+        if (day > endDay) {
+            advanceTo(day);
+        }
+        long start = windowStart();
+        if (day < start || deltaCents == 0) {
+            return;
+        }
+        int slot = slot(day);
+        ring[slot] += deltaCents;
+        long x = day - start + 1;
+        sumY += deltaCents;
+        sumXY += x * deltaCents;
+        seasonSums[seasonSlot(day)] += deltaCents;
+        if (day > endDay - window) {
+            windowSum += deltaCents;
+        }
+        ewmaSum += Math.pow(1 - alpha, endDay - day) * deltaCents;
+
+        if (ring[slot] != 0) {
+            if (firstDataDay != UNKNOWN && day < firstDataDay) firstDataDay = day;
+        } else if (day == firstDataDay) {
+            firstDataDay = UNKNOWN;
+        }
+    }
+
+    /**
+     * Slides the window forward so that it ends at {@code day}; the new days are empty.
+     */
+    public void advanceTo(long day) {
+        if (day <= endDay) {
+            return;
+        }
+        if (day - endDay >= capacity) {
+            Arrays.fill(ring, 0L);
+            Arrays.fill(seasonSums, 0L);
+            sumY = 0;
+            sumXY = 0;
+            windowSum = 0;
+            ewmaSum = 0.0;
+            firstDataDay = NO_DATA;
+            endDay = day;
+            return;
+        }
+        double decay = 1 - alpha;
+        double oldestWeight = Math.pow(decay, capacity - 1);
+        while (endDay < day) {
+            long outDay = windowStart();
+            int outSlot = slot(outDay);
+            long out = ring[outSlot];
+
+            // Drop the oldest day (x = 1) then shift every remaining x down by one
+            sumY -= out;
+            sumXY -= out;
+            sumXY -= sumY;
+            seasonSums[seasonSlot(outDay)] -= out;
+            if (window <= capacity) {
+                windowSum -= ring[slot(endDay - window + 1)];
+            }
+            ewmaSum = decay * (ewmaSum - oldestWeight * out);
+            if (outDay == firstDataDay) {
+                firstDataDay = UNKNOWN;
+            }
+
+            ring[outSlot] = 0L;
+            endDay++;
+        }
+    }
+
+    /**
+     * Forecasts {@code horizon} days after the window end, or returns an empty array when the
+     * window holds no data.
+     *
+     * @throws IllegalArgumentException when the data is too short for the configured SMA window,
+     *                                  as the standalone kernel would
+     */
+    public double[] forecast(int horizon) {
+        long start = windowStart();
+        long first = resolveFirstDataDay();
+        if (first == NO_DATA) {
+            return new double[0];
+        }
+        long s = first - start;
+        int m = (int) (capacity - s);
+        double[] out = new double[horizon];
+        switch (algorithm) {
+            case SMA -> {
+                if (window <= 0 || m < window) {
+                    throw new IllegalArgumentException("Invalid window size for SMA");
+                }
+                Arrays.fill(out, (windowSum / 100.0) / window);
+            }
+            case EWMA -> {
+                double level = alpha * ewmaSum + Math.pow(1 - alpha, m) * ring[slot(first)];
+                Arrays.fill(out, level / 100.0);
+            }
+            case LINEAR_REGRESSION -> fillTrend(out, m, s);
+            case SEASONAL_DECOMPOSITION -> {
+                if (seasonLength <= 1 || m < seasonLength * 2) {
+                    int w = Math.min(7, Math.max(2, m));
+                    if (m < w) {
+                        throw new IllegalArgumentException("Invalid window size for SMA");
+                    }
+                    long sum = 0;
+                    for (int i = 0; i < w; i++) sum += ring[slot(endDay - i)];
+                    Arrays.fill(out, (sum / 100.0) / w);
+                } else {
+                    fillTrend(out, m, s);
+                    double[] season = new double[seasonLength];
+                    for (int r = 0; r < seasonLength; r++) {
+                        int count = m / seasonLength + (r < m % seasonLength ? 1 : 0);
+                        season[r] = count > 0 ? (seasonSums[seasonSlot(first + r)] / 100.0) / count : 0.0;
+                    }
+                    for (int i = 0; i < horizon; i++) {
+                        out[i] += season[(m + i) % seasonLength];
+                    }
+                }
+            }
+            default -> throw new IllegalStateException();
+        }
+        return out;
+    }
+
+    /**
+     * The window's daily totals from the first day with data, as {@link TimeSeries#fromDailyTotals}
+     * would load them; empty when the window holds no data.
+     */
+    public TimeSeries series() {
+        long first = resolveFirstDataDay();
+        if (first == NO_DATA) {
+            return TimeSeries.empty();
+        }
+        double[] values = new double[(int) (endDay - first + 1)];
+        for (int i = 0; i < values.length; i++) values[i] = ring[slot(first + i)] / 100.0;
+        return TimeSeries.of(LocalDate.ofEpochDay(first), values);
+    }
+
+    private void fillTrend(double[] out, int m, long s) {
+        double n = m;
+        double sumXd = n * (n + 1) / 2.0;
+        double sumXXd = n * (n + 1) * (2 * n + 1) / 6.0;
+        double sumYd = sumY / 100.0;
+        double sumXYd = (sumXY - s * sumY) / 100.0;
+        double denom = n * sumXXd - sumXd * sumXd;
+        if (denom == 0) denom = 1e-9;
+        double slope = (n * sumXYd - sumXd * sumYd) / denom;
+        double intercept = (sumYd - slope * sumXd) / n;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = intercept + slope * (m + 1 + i);
+        }
+    }
+
+    private long resolveFirstDataDay() {
+        if (firstDataDay == UNKNOWN || (firstDataDay != NO_DATA && firstDataDay < windowStart())) {
+            firstDataDay = NO_DATA;
+            for (long day = windowStart(); day <= endDay; day++) {
+                if (ring[slot(day)] != 0) {
+                    firstDataDay = day;
+                    break;
+                }
+            }
+        }
+        return firstDataDay;
+    }
+
+    private long windowStart() {
+        return endDay - capacity + 1;
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) capacity);
+    }
+
+    private int seasonSlot(long day) {
+        return (int) Math.floorMod(day, (long) seasonSums.length);
+    }
+
+    public boolean matches(ForecastConfig.AlgorithmType algorithm, int window, double alpha, int seasonLength, int capacity) {
+        return this.algorithm == algorithm && this.window == window && Double.compare(this.alpha, alpha) == 0
+                && this.seasonLength == seasonLength && this.capacity == capacity;
+    }
+
+    public ForecastConfig.AlgorithmType algorithm() { return algorithm; }
+    public int window() { return window; }
+    public double alpha() { return alpha; }
+    public int seasonLength() { return seasonLength; }
+    public int capacity() { return capacity; }
+    public LocalDate endDate() { return LocalDate.ofEpochDay(endDay); }
+
+    /** Earliest day with data inside the window, or null when unknown or empty. */
+    public LocalDate firstDataDate() {
+        long first = resolveFirstDataDay();
+        return first == NO_DATA ? null : LocalDate.ofEpochDay(first);
+    }
+
+    public long sumY() { return sumY; }
+    public long sumXY() { return sumXY; }
+    public long windowSum() { return windowSum; }
+    public double ewmaSum() { return ewmaSum; }
+
+    public byte[] ringBytes() {
+        return toBytes(ring);
+    }
+
+    public byte[] seasonSumBytes() {
+        return toBytes(seasonSums);
+    }
+
+    private static byte[] toBytes(long[] values) {
+        ByteBuffer buf = ByteBuffer.allocate(values.length * Long.BYTES);
+        buf.asLongBuffer().put(values);
+        return buf.array();
+    }
+}
@@ -0,0 +1,80 @@
+package com.financeapp.service.forecast;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed pool of workers fed from a priority queue: lower {@code priority} values run first,
+ * equal priorities in submission order. The queue holds at most {@code capacity} waiting tasks;
+ * further submissions are rejected straight away instead of piling up.
+ */
+public final class PriorityJobQueue implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public PriorityJobQueue(String name, int workers, int capacity) {
+        this.capacity = capacity;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, name + "-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Queues {@code task}.
+     *
+     * @throws RejectedExecutionException when {@code capacity} tasks are already waiting
+     */
+    public void submit(int priority, Runnable task) {
+        if (waiting.incrementAndGet() > capacity) {
+            waiting.decrementAndGet();
+            throw new RejectedExecutionException("Forecast job queue is full");
+        }
+        executor.execute(new Prioritized(priority, sequence.getAndIncrement(), task));
+    }
+
+    /** Tasks waiting for a worker. */
+    public int waiting() {
+        return waiting.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private final class Prioritized implements Runnable, Comparable<Prioritized> {
+        private final int priority;
+        private final long seq;
+        private final Runnable task;
+
+        Prioritized(int priority, long seq, Runnable task) {
+            this.priority = priority;
+            this.seq = seq;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            waiting.decrementAndGet();
+            task.run();
+        }
+
+        @Override
+        public int compareTo(Prioritized other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.financeapp.service.forecast;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * A daily series summed into weekly or monthly buckets anchored on the forecast start date:
+ * bucket {@code k} covers {@code [period.bucketStart(anchor, k), period.bucketStart(anchor, k + 1))},
+ * so history buckets have negative {@code k} and the forecast buckets start at {@code k = 0}.
+ * Bucket sums come from one prefix-sum pass over the dense daily array. Only complete buckets are
+ * kept; a leading bucket that starts before the first observed day is dropped.
+ * <p>
+ * Index {@code i} of {@link #values()} is bucket {@link #bucketStart(int)}; the series' own
+ * day-based dates do not apply to it.
+ */
+public final class ResampledSeries {
+
+    /** Bucket size, with how many buckets of history to load and the annual season in buckets. */
+    public enum Period {
+        DAILY(180, null),
+        WEEKLY(104, 52),
+        MONTHLY(36, 12);
+
+        private final int lookbackBuckets;
+        private final Integer seasonLength;
+
+        Period(int lookbackBuckets, Integer seasonLength) {
+            this.lookbackBuckets = lookbackBuckets;
+            this.seasonLength = seasonLength;
+        }
+
+        /**
+         * Parses a request parameter such as {@code weekly}, case-insensitively.
+         *
+         * @throws IllegalArgumentException for unknown periods
+         */
+        public static Period parse(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unknown forecast period: " + name);
+            }
+        }
+
+        public int lookbackBuckets() {
+            return lookbackBuckets;
+        }
+
+        /** Season in buckets for seasonal models; {@code null} for daily, which keeps the config's own. */
+        public Integer seasonLength() {
+            return seasonLength;
+        }
+
+        /** First day of bucket {@code k} relative to {@code anchor}; {@code k} may be negative. */
+        public LocalDate bucketStart(LocalDate anchor, int k) {
+            return switch (this) {
+                case DAILY -> anchor.plusDays(k);
+                case WEEKLY -> anchor.plusWeeks(k);
+                // Always offset from the anchor, so a start on the 31st keeps landing on month ends
+                case MONTHLY -> anchor.plusMonths(k);
+            };
+        }
+
+        /** Number of buckets from {@code anchor} needed to cover {@code horizonDays} days. */
+        public int bucketsCovering(LocalDate anchor, int horizonDays) {
+            LocalDate end = anchor.plusDays(horizonDays);
+            int k = 0;
+            while (bucketStart(anchor, k).isBefore(end)) k++;
+            return k;
+        }
+    }
+
+    private final Period period;
+    private final LocalDate anchor;
+    private final int firstBucket;
+    private final TimeSeries values;
+
+    private ResampledSeries(Period period, LocalDate anchor, int firstBucket, TimeSeries values) {
+        this.period = period;
+        this.anchor = anchor;
+        this.firstBucket = firstBucket;
+        this.values = values;
+    }
+
+    /**
+     * Sums {@code daily} into the complete {@code period} buckets before {@code anchor} that lie
+     * within the series. Empty when no complete bucket fits.
+     */
+    public static ResampledSeries of(TimeSeries daily, Period period, LocalDate anchor) {
+        if (daily.isEmpty()) {
+            return new ResampledSeries(period, anchor, 0, TimeSeries.empty());
+        }
+        LocalDate first = daily.startDate();
+        LocalDate end = daily.endDate().plusDays(1);
+        // Last bucket must end by the end of the series, the first must start at or after its start
+        int hi = -1;
+        while (period.bucketStart(anchor, hi + 1).isAfter(end)) hi--;
+        int lo = hi + 1;
+        while (!period.bucketStart(anchor, lo - 1).isBefore(first)) lo--;
+        if (lo > hi) {
+            return new ResampledSeries(period, anchor, 0, TimeSeries.empty());
+        }
+
+        int n = daily.length();
+        double[] prefix = new double[n + 1];
+        for (int i = 0; i < n; i++) prefix[i + 1] = prefix[i] + daily.get(i);
+        double[] sums = new double[hi - lo + 1];
+        int from = daily.indexOf(period.bucketStart(anchor, lo));
+        for (int k = lo; k <= hi; k++) {
+            int to = daily.indexOf(period.bucketStart(anchor, k + 1));
+            sums[k - lo] = prefix[to] - prefix[from];
+            from = to;
+        }
+        return new ResampledSeries(period, anchor, lo, TimeSeries.of(period.bucketStart(anchor, lo), sums));
+    }
+
+    public Period period() {
+        return period;
+    }
+
+    /** Bucket totals, oldest first. */
+    public TimeSeries values() {
+        return values;
+    }
+
+    /** First day of history bucket {@code i}. */
+    public LocalDate bucketStart(int i) {
+        return period.bucketStart(anchor, firstBucket + i);
+    }
+}
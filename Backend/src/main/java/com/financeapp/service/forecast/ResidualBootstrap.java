@@ -0,0 +1,114 @@
+package com.financeapp.service.forecast;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Prediction intervals by residual bootstrap. Each simulated path adds resampled one-step
+ * residuals to the point forecast, carrying a share {@code rho} of the previous step's error
+ * forward (the residuals' lag-1 autocorrelation, clipped to [0, 0.95]), so intervals stay flat for
+ * white-noise residuals and widen with the horizon when errors persist.
+ * <p>
+ * Paths are split into chunks that run in parallel, each on its own {@link SplittableRandom}
+ * split from the seed, so results are reproducible for a given seed and chunk count. Every chunk
+ * writes into one step-major buffer preallocated per call; workers allocate nothing else.
+ */
+public final class ResidualBootstrap {
+
+    public static final double[] QUANTILES = {0.1, 0.5, 0.9};
+
+    private static final int MIN_PATHS_PER_CHUNK = 256;
+
+    private ResidualBootstrap() {}
+
+    /**
+     * Returns {@code out[q][h]}: quantile {@link #QUANTILES}{@code [q]} of the simulated value at
+     * step {@code h}.
+     *
+     * @throws IllegalArgumentException for fewer than two residuals or a non-positive path count
+     */
+    public static double[][] intervals(double[] point, double[] residuals, int paths, long seed, Executor executor) {
+        if (residuals.length < 2) {
+            throw new IllegalArgumentException("At least two residuals are needed for a bootstrap");
+        }
+        if (paths <= 0) {
+            throw new IllegalArgumentException("Path count must be positive");
+        }
+        int horizon = point.length;
+        double[] centred = centre(residuals);
+        double rho = persistence(centred);
+        double[] sims = new double[horizon * paths]; // sims[h * paths + p]
+
+        int chunks = executor == null || ForkJoinTask.inForkJoinPool()
+                ? 1
+                : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), paths / MIN_PATHS_PER_CHUNK));
+        SplittableRandom root = new SplittableRandom(seed);
+        if (chunks == 1) {
+            simulate(point, centred, rho, root, sims, paths, 0, paths);
+        } else {
+            CompletableFuture<?>[] tasks = new CompletableFuture[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int from = (int) ((long) paths * c / chunks);
+                int to = (int) ((long) paths * (c + 1) / chunks);
+                SplittableRandom rng = root.split();
+                tasks[c] = CompletableFuture.runAsync(() -> simulate(point, centred, rho, rng, sims, paths, from, to), executor);
+            }
+            CompletableFuture.allOf(tasks).join();
+        }
+
+        double[][] out = new double[QUANTILES.length][horizon];
+        for (int h = 0; h < horizon; h++) {
+            int base = h * paths;
+            Arrays.sort(sims, base, base + paths);
+            for (int q = 0; q < QUANTILES.length; q++) {
+                out[q][h] = quantile(sims, base, paths, QUANTILES[q]);
+            }
+        }
+        return out;
+    }
+
+    private static void simulate(double[] point, double[] residuals, double rho, SplittableRandom rng,
+                                 double[] sims, int paths, int from, int to) {
+        int horizon = point.length;
+        int r = residuals.length;
+        for (int p = from; p < to; p++) {
+            double err = 0.0;
+            for (int h = 0; h < horizon; h++) {
+                err = rho * err + residuals[rng.nextInt(r)];
+                sims[h * paths + p] = point[h] + err;
+            }
+        }
+    }
+
+    private static double[] centre(double[] residuals) {
+        double mean = 0.0;
+        for (double e : residuals) mean += e;
+        mean /= residuals.length;
+        double[] out = new double[residuals.length];
+        for (int i = 0; i < out.length; i++) out[i] = residuals[i] - mean;
+        return out;
+    }
+
+    /** Lag-1 autocorrelation of centred residuals, clipped to [0, 0.95]. */
+    private static double persistence(double[] e) {
+        double num = 0.0, den = 0.0;
+        for (int i = 0; i < e.length; i++) {
+            den += e[i] * e[i];
+            if (i > 0) num += e[i] * e[i - 1];
+        }
+        if (den == 0) return 0.0;
+        return Math.max(0.0, Math.min(0.95, num / den));
+    }
+
+    /** Linearly interpolated quantile of the sorted range {@code [base, base + n)}. */
+    private static double quantile(double[] sorted, int base, int n, double q) {
+        double pos = q * (n - 1);
+        int lo = (int) Math.floor(pos);
+        int hi = Math.min(n - 1, lo + 1);
+        double frac = pos - lo;
+        return sorted[base + lo] + frac * (sorted[base + hi] - sorted[base + lo]);
+    }
+}
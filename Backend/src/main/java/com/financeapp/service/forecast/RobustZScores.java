@@ -0,0 +1,52 @@
+package com.financeapp.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * Rolling robust z-scores: each point is compared with the median of the {@code window} points
+ * before it and scaled by 1.4826 times the median absolute residual over the same span, which
+ * estimates the standard deviation without letting earlier outliers inflate it. Both medians come
+ * from {@link RollingMedian}, so a series of n points costs O(n log w).
+ * <p>
+ * Sparse series (most days zero) have a zero median residual; there the mean absolute residual,
+ * scaled by 1.2533, is used instead, and points with no spread at all are left unscored (NaN).
+ */
+public record RobustZScores(double[] center, double[] scale, double[] zscore) {
+
+    private static final double MAD_TO_SIGMA = 1.4826;
+    private static final double MEAN_ABS_TO_SIGMA = 1.2533;
+
+    public static RobustZScores of(double[] values, int window, int minPeriods) {
+        int n = values.length;
+        double[] center = RollingMedian.trailing(values, window, minPeriods);
+        double[] scale = new double[n];
+        double[] zscore = new double[n];
+        Arrays.fill(scale, Double.NaN);
+        Arrays.fill(zscore, Double.NaN);
+
+        int first = 0;
+        while (first < n && Double.isNaN(center[first])) first++;
+        if (first == n) {
+            return new RobustZScores(center, scale, zscore);
+        }
+        // Residuals are defined from the first centred point on; scale them over the same trailing window
+        double[] residual = new double[n - first];
+        for (int i = first; i < n; i++) residual[i - first] = Math.abs(values[i] - center[i]);
+        double[] medianResidual = RollingMedian.trailing(residual, window, minPeriods);
+
+        double windowSum = 0;
+        for (int j = 0; j < residual.length; j++) {
+            int count = Math.min(j, window);
+            if (count >= minPeriods) {
+                double s = MAD_TO_SIGMA * medianResidual[j];
+                if (s == 0) s = MEAN_ABS_TO_SIGMA * windowSum / count;
+                int i = j + first;
+                scale[i] = s;
+                if (s > 0) zscore[i] = (values[i] - center[i]) / s;
+            }
+            windowSum += residual[j];
+            if (j >= window) windowSum -= residual[j - window];
+        }
+        return new RobustZScores(center, scale, zscore);
+    }
+}
@@ -0,0 +1,176 @@
+package com.financeapp.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * Median of a sliding window over a primitive array in O(log w) per step. Two heaps of array
+ * indices, a max-heap for the lower half and a min-heap for the upper half, are kept balanced;
+ * each index records its heap slot, so the element leaving the window is removed directly
+ * rather than lazily. Nothing is boxed.
+ */
+public final class RollingMedian {
+
+    private final double[] values;
+    private final int[] slot; // position of each index in its heap, -1 when outside the window
+    private final boolean[] inLower;
+    private final IndexHeap lower;
+    private final IndexHeap upper;
+
+    public RollingMedian(double[] values, int window) {
+        this.values = values;
+        this.slot = new int[values.length];
+        this.inLower = new boolean[values.length];
+        Arrays.fill(slot, -1);
+        int capacity = Math.max(1, window / 2 + 1);
+        this.lower = new IndexHeap(capacity, true);
+        this.upper = new IndexHeap(capacity, false);
+    }
+
+    /** Adds {@code values[i]} to the window. */
+    public void add(int i) {
+        if (lower.size == 0 || values[i] <= values[lower.peek()]) {
+            inLower[i] = true;
+            lower.push(i);
+        } else {
+            inLower[i] = false;
+            upper.push(i);
+        }
+        rebalance();
+    }
+
+    /** Removes {@code values[i]}, which must be in the window. */
+    public void remove(int i) {
+        if (slot[i] < 0) {
+            throw new IllegalArgumentException("Index " + i + " is not in the window");
+        }
+        (inLower[i] ? lower : upper).removeAt(slot[i]);
+        slot[i] = -1;
+        rebalance();
+    }
+
+    public int size() {
+        return lower.size + upper.size;
+    }
+
+    /** Median of the values in the window; NaN when it is empty. */
+    public double median() {
+        if (lower.size == 0) {
+            return Double.NaN;
+        }
+        if (lower.size > upper.size) {
+            return values[lower.peek()];
+        }
+        return (values[lower.peek()] + values[upper.peek()]) / 2.0;
+    }
+
+    /**
+     * For each {@code i}, the median of the up to {@code window} values before it,
+     * {@code values[i - window .. i - 1]}; NaN while fewer than {@code minPeriods} are available.
+     */
+    public static double[] trailing(double[] values, int window, int minPeriods) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        double[] out = new double[values.length];
+        RollingMedian median = new RollingMedian(values, window);
+        for (int i = 0; i < values.length; i++) {
+            out[i] = median.size() >= minPeriods ? median.median() : Double.NaN;
+            median.add(i);
+            if (i >= window) {
+                median.remove(i - window);
+            }
+        }
+        return out;
+    }
+
+    private void rebalance() {
+        if (lower.size > upper.size + 1) {
+            int moved = lower.pop();
+            inLower[moved] = false;
+            upper.push(moved);
+        } else if (upper.size > lower.size) {
+            int moved = upper.pop();
+            inLower[moved] = true;
+            lower.push(moved);
+        }
+    }
+
+    /** Binary heap of indices into {@link #values}, ordered by value. */
+    private final class IndexHeap {
+
+        private int[] heap;
+        private int size;
+        private final boolean max;
+
+        IndexHeap(int capacity, boolean max) {
+            this.heap = new int[capacity];
+            this.max = max;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void push(int index) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            place(size, index);
+            siftUp(size++);
+        }
+
+        int pop() {
+            int top = heap[0];
+            removeAt(0);
+            return top;
+        }
+
+        void removeAt(int pos) {
+            int last = heap[--size];
+            if (pos == size) {
+                return;
+            }
+            place(pos, last);
+            siftDown(pos);
+            siftUp(slot[last]);
+        }
+
+        // True when the value at heap position a belongs above the one at b
+        private boolean before(int a, int b) {
+            double va = values[heap[a]];
+            double vb = values[heap[b]];
+            return max ? va > vb : va < vb;
+        }
+
+        private void siftUp(int pos) {
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!before(pos, parent)) return;
+                swap(pos, parent);
+                pos = parent;
+            }
+        }
+
+        private void siftDown(int pos) {
+            while (true) {
+                int child = 2 * pos + 1;
+                if (child >= size) return;
+                if (child + 1 < size && before(child + 1, child)) child++;
+                if (!before(child, pos)) return;
+                swap(pos, child);
+                pos = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int ia = heap[a];
+            place(a, heap[b]);
+            place(b, ia);
+        }
+
+        private void place(int pos, int index) {
+            heap[pos] = index;
+            slot[index] = pos;
+        }
+    }
+}
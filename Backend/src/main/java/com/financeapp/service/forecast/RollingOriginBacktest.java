@@ -0,0 +1,127 @@
+package com.financeapp.service.forecast;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Rolling-origin evaluation over a {@link TimeSeries}. The forecast origin steps back
+ * {@code horizon} days per fold; each fold trains on the days before its origin and scores the
+ * next {@code horizon} days. Training windows either grow with the origin ({@link WindowMode#EXPANDING})
+ * or keep the length of the first fold's window ({@link WindowMode#SLIDING}).
+ * <p>
+ * Folds are independent and run in parallel; every metric is accumulated in the same pass over
+ * each fold's forecast. Training windows are passed as index ranges so forecasters backed by
+ * {@link SeriesPrefixStats} never rescan the prefix.
+ */
+public final class RollingOriginBacktest {
+
+    public enum WindowMode {
+        EXPANDING,
+        SLIDING
+    }
+
+    /** Produces a forecast of {@code horizon} values trained on {@code [from, to)} of the series. */
+    @FunctionalInterface
+    public interface Forecaster {
+        double[] forecast(int from, int to, int horizon);
+    }
+
+    // Per-fold accumulator layout
+    private static final int PCT_SUM = 0, PCT_COUNT = 1, SPCT_SUM = 2, SPCT_COUNT = 3,
+            ABS_SUM = 4, SQ_SUM = 5, ERR_SUM = 6, COUNT = 7, SCALE = 8, WIDTH = 9;
+
+    private RollingOriginBacktest() {}
+
+    /**
+     * Backtests {@code forecaster} over {@code folds} origins, running folds on {@code executor}
+     * (inline when already inside a fork/join worker, to avoid nested blocking).
+     *
+     * @throws IllegalArgumentException when the series cannot hold the folds plus a training prefix,
+     *                                  or when the forecaster rejects a training window
+     */
+    public static BacktestMetrics evaluate(SeriesPrefixStats stats, int folds, int horizon, WindowMode mode,
+                                           Forecaster forecaster, Executor executor) {
+        int n = stats.length();
+        if (folds <= 0 || horizon <= 0 || n <= folds * horizon) {
+            throw new IllegalArgumentException("Series too short for " + folds + " folds of " + horizon + " days");
+        }
+        int minTrain = n - folds * horizon;
+        double[] acc = new double[folds * WIDTH];
+
+        if (folds == 1 || executor == null || ForkJoinTask.inForkJoinPool()) {
+            for (int f = 0; f < folds; f++) scoreFold(stats, f, folds, horizon, minTrain, mode, forecaster, acc);
+        } else {
+            CompletableFuture<?>[] tasks = new CompletableFuture[folds];
+            for (int f = 0; f < folds; f++) {
+                int fold = f;
+                tasks[f] = CompletableFuture.runAsync(
+                        () -> scoreFold(stats, fold, folds, horizon, minTrain, mode, forecaster, acc), executor);
+            }
+            try {
+                CompletableFuture.allOf(tasks).join();
+            } catch (java.util.concurrent.CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+        return combine(acc, folds);
+    }
+
+    private static void scoreFold(SeriesPrefixStats stats, int fold, int folds, int horizon, int minTrain,
+                                  WindowMode mode, Forecaster forecaster, double[] acc) {
+        int origin = minTrain + fold * horizon;
+        int from = mode == WindowMode.SLIDING ? origin - minTrain : 0;
+        double[] forecast = forecaster.forecast(from, origin, horizon);
+        TimeSeries series = stats.series();
+
+        int base = fold * WIDTH;
+        for (int i = 0; i < horizon; i++) {
+            double a = series.get(origin + i);
+            double f = forecast[Math.min(i, forecast.length - 1)];
+            double err = f - a;
+            double abs = Math.abs(err);
+            if (a != 0) {
+                acc[base + PCT_SUM] += abs / Math.abs(a);
+                acc[base + PCT_COUNT] += 1;
+            }
+            double denom = Math.abs(a) + Math.abs(f);
+            if (denom != 0) {
+                acc[base + SPCT_SUM] += 2 * abs / denom;
+                acc[base + SPCT_COUNT] += 1;
+            }
+            acc[base + ABS_SUM] += abs;
+            acc[base + SQ_SUM] += err * err;
+            acc[base + ERR_SUM] += err;
+            acc[base + COUNT] += 1;
+        }
+        acc[base + SCALE] = stats.naiveScale(from, origin);
+    }
+
+    private static BacktestMetrics combine(double[] acc, int folds) {
+        double pct = 0, pctCount = 0, spct = 0, spctCount = 0, sq = 0, err = 0, count = 0;
+        double maseSum = 0;
+        int maseFolds = 0;
+        for (int f = 0; f < folds; f++) {
+            int base = f * WIDTH;
+            pct += acc[base + PCT_SUM];
+            pctCount += acc[base + PCT_COUNT];
+            spct += acc[base + SPCT_SUM];
+            spctCount += acc[base + SPCT_COUNT];
+            sq += acc[base + SQ_SUM];
+            err += acc[base + ERR_SUM];
+            count += acc[base + COUNT];
+            double scale = acc[base + SCALE];
+            if (scale > 0) {
+                maseSum += acc[base + ABS_SUM] / acc[base + COUNT] / scale;
+                maseFolds++;
+            }
+        }
+        return new BacktestMetrics(folds, (int) count,
+                pctCount == 0 ? 0.0 : pct / pctCount * 100.0,
+                spctCount == 0 ? 0.0 : spct / spctCount * 100.0,
+                maseFolds == 0 ? Double.NaN : maseSum / maseFolds,
+                Math.sqrt(sq / count),
+                err / count);
+    }
+}
@@ -0,0 +1,64 @@
+package com.financeapp.service.forecast;
+
+/**
+ * Welford's running mean and variance: O(1) per observation, numerically stable, and no history
+ * kept. Not thread-safe; callers serialise access per instance.
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2; // sum of squared deviations from the mean
+
+    public RunningStats() {}
+
+    public static RunningStats of(long count, double mean, double m2) {
+        RunningStats stats = new RunningStats();
+        stats.count = count;
+        stats.mean = mean;
+        stats.m2 = m2;
+        return stats;
+    }
+
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    /** Folds {@code other} in as if its observations had been added here (Chan et al.). */
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    public RunningStats copy() {
+        return of(count, mean, m2);
+    }
+
+    public long count() { return count; }
+    public double mean() { return mean; }
+    public double m2() { return m2; }
+
+    /** Sample variance; NaN with fewer than two observations. */
+    public double variance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    public double stddev() {
+        return Math.sqrt(variance());
+    }
+
+    /** Standard score of {@code x}; NaN while the spread is undefined or zero. */
+    public double zscore(double x) {
+        double sd = stddev();
+        return sd > 0 ? (x - mean) / sd : Double.NaN;
+    }
+}
@@ -0,0 +1,86 @@
+package com.financeapp.service.forecast;
+
+/**
+ * Finds the dominant cycle of a daily series from its autocorrelation function. The series is
+ * detrended by least squares, the ACF is computed directly for lags up to {@code maxPeriod}
+ * (O(n * maxPeriod), cheaper than an FFT at these lengths), and the highest local peak above the
+ * noise level wins. A shorter period whose own peak is nearly as strong is preferred, so a weekly
+ * cycle is not reported as 14 or 21 days.
+ */
+public final class SeasonalityDetector {
+
+    private static final double MIN_CORRELATION = 0.2;
+    private static final double FUNDAMENTAL_RATIO = 0.8;
+
+    private SeasonalityDetector() {}
+
+    /**
+     * Period in {@code [minPeriod, maxPeriod]} with the strongest autocorrelation peak, or 0 when
+     * the series is too short (fewer than two cycles) or shows no significant cycle.
+     */
+    public static int detect(TimeSeries series, int minPeriod, int maxPeriod) {
+        int n = series.length();
+        int maxLag = Math.min(maxPeriod, n / 2);
+        if (minPeriod < 2 || maxLag < minPeriod) {
+            return 0;
+        }
+        double[] x = detrend(series);
+        double variance = 0;
+        for (double v : x) variance += v * v;
+        if (variance == 0) {
+            return 0;
+        }
+        // acf[k] for k in 0..maxLag + 1, so every candidate lag has both neighbours
+        int lags = Math.min(maxLag + 1, n - 1);
+        double[] acf = new double[lags + 1];
+        for (int k = 1; k <= lags; k++) {
+            double sum = 0;
+            for (int i = k; i < n; i++) sum += x[i] * x[i - k];
+            acf[k] = sum / variance;
+        }
+        double noise = Math.max(MIN_CORRELATION, 2.0 / Math.sqrt(n));
+        int best = 0;
+        for (int k = minPeriod; k <= maxLag; k++) {
+            if (isPeak(acf, k) && acf[k] > noise && (best == 0 || acf[k] > acf[best])) {
+                best = k;
+            }
+        }
+        if (best == 0) {
+            return 0;
+        }
+        for (int p = minPeriod; p < best; p++) {
+            if (isPeak(acf, p) && acf[p] >= FUNDAMENTAL_RATIO * acf[best] && isMultiple(best, p)) {
+                return p;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isPeak(double[] acf, int k) {
+        return acf[k] > acf[k - 1] && (k + 1 >= acf.length || acf[k] >= acf[k + 1]);
+    }
+
+    // Within a day either way, since monthly cycles drift between 28 and 31 days
+    private static boolean isMultiple(int period, int base) {
+        int r = period % base;
+        return r <= 1 || base - r <= 1;
+    }
+
+    private static double[] detrend(TimeSeries series) {
+        int n = series.length();
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            double y = series.get(i);
+            sumX += i;
+            sumY += y;
+            sumXX += (double) i * i;
+            sumXY += i * y;
+        }
+        double denom = n * sumXX - sumX * sumX;
+        double slope = denom == 0 ? 0 : (n * sumXY - sumX * sumY) / denom;
+        double intercept = (sumY - slope * sumX) / n;
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) out[i] = series.get(i) - (intercept + slope * i);
+        return out;
+    }
+}
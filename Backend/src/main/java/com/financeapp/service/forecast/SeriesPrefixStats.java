@@ -0,0 +1,164 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prefix statistics over a {@link TimeSeries} that let the classic kernels be evaluated on any
+ * window {@code [from, to)} without rescanning it: running sums of {@code y} and {@code i*y}
+ * (SMA and least squares), discounted sums per alpha (EWMA), per-residue strided sums per season
+ * length (seasonal indices) and the in-sample naive error (MASE scale).
+ * <p>
+ * Built once per series and shared by every fold and config; the per-alpha and per-season arrays
+ * are created on first use and are safe to request concurrently.
+ */
+public final class SeriesPrefixStats {
+
+    private final TimeSeries series;
+    private final int n;
+    private final double[] sumY;       // sumY[i] = y[0] + ... + y[i-1]
+    private final double[] sumIY;      // sumIY[i] = 0*y[0] + ... + (i-1)*y[i-1]
+    private final double[] sumAbsDiff; // sumAbsDiff[i] = |y[1]-y[0]| + ... + |y[i]-y[i-1]|
+    private final Map<Double, double[]> discounted = new ConcurrentHashMap<>();
+    private final Map<Integer, double[]> strided = new ConcurrentHashMap<>();
+
+    private SeriesPrefixStats(TimeSeries series) {
+        this.series = series;
+        this.n = series.length();
+        this.sumY = new double[n + 1];
+        this.sumIY = new double[n + 1];
+        this.sumAbsDiff = new double[Math.max(1, n)];
+        for (int i = 0; i < n; i++) {
+            double y = series.get(i);
+            sumY[i + 1] = sumY[i] + y;
+            sumIY[i + 1] = sumIY[i] + i * y;
+            if (i > 0) sumAbsDiff[i] = sumAbsDiff[i - 1] + Math.abs(y - series.get(i - 1));
+        }
+    }
+
+    public static SeriesPrefixStats of(TimeSeries series) {
+        return new SeriesPrefixStats(series);
+    }
+
+    public static boolean supports(ForecastConfig.AlgorithmType algorithm) {
+        return FusedForecastKernel.supports(algorithm);
+    }
+
+    public TimeSeries series() {
+        return series;
+    }
+
+    public int length() {
+        return n;
+    }
+
+    /** Mean absolute one-step naive error over {@code [from, to)}; NaN for fewer than two points. */
+    public double naiveScale(int from, int to) {
+        if (to - from < 2) return Double.NaN;
+        return (sumAbsDiff[to - 1] - sumAbsDiff[from]) / (to - from - 1);
+    }
+
+    /**
+     * Forecast of {@code config} trained on {@code [from, to)}, equal (up to rounding) to running
+     * the standalone kernel on {@code series.slice(from, to)}.
+     *
+     * @throws IllegalArgumentException for unsupported algorithms or invalid parameters
+     */
+    public double[] forecast(ForecastConfig config, int from, int to, int horizon) {
+        int len = to - from;
+        double[] out = new double[horizon];
+        switch (config.getAlgorithm()) {
+            case SMA -> {
+                int w = config.getWindowSize() != null ? config.getWindowSize() : FusedForecastKernel.DEFAULT_WINDOW;
+                Arrays.fill(out, movingAverage(from, to, w));
+            }
+            case EWMA -> {
+                double alpha = config.getSmoothingFactor() != null ? config.getSmoothingFactor() : FusedForecastKernel.DEFAULT_ALPHA;
+                if (alpha <= 0 || alpha >= 1) {
+                    throw new IllegalArgumentException("Alpha must be in (0,1)");
+                }
+                Arrays.fill(out, ewmaLevel(from, to, alpha));
+            }
+            case LINEAR_REGRESSION -> {
+                double[] fit = regression(from, to);
+                for (int i = 0; i < horizon; i++) out[i] = fit[0] + fit[1] * (len + 1 + i);
+            }
+            case SEASONAL_DECOMPOSITION -> {
+                int season = FusedForecastKernel.seasonOf(config);
+                if (season <= 1 || len < season * 2) {
+                    // Same fallback as seasonalDecomposition
+                    Arrays.fill(out, movingAverage(from, to, Math.min(7, Math.max(2, len))));
+                } else {
+                    double[] fit = regression(from, to);
+                    double[] strides = strided.computeIfAbsent(season, this::buildStrided);
+                    for (int i = 0; i < horizon; i++) {
+                        out[i] = fit[0] + fit[1] * (len + 1 + i) + seasonalMean(strides, season, from, to, (len + i) % season);
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported algorithm for prefix evaluation: " + config.getAlgorithm());
+        }
+        return out;
+    }
+
+    private double movingAverage(int from, int to, int w) {
+        if (w <= 0 || to - from < w) {
+            throw new IllegalArgumentException("Invalid window size for SMA");
+        }
+        return (sumY[to] - sumY[to - w]) / w;
+    }
+
+    /**
+     * EWMA seeded with {@code y[from]}: alpha * sum (1-alpha)^(to-1-i) y[i] over (from, to)
+     * plus (1-alpha)^(to-1-from) y[from], taken as a difference of discounted prefixes.
+     */
+    private double ewmaLevel(int from, int to, double alpha) {
+        double[] d = discounted.computeIfAbsent(alpha, this::buildDiscounted);
+        double decay = 1 - alpha;
+        double tail = d[to] - Math.pow(decay, to - from - 1) * d[from + 1];
+        double first = series.get(from);
+        return alpha * tail + Math.pow(decay, to - from - 1) * first;
+    }
+
+    /** Intercept and slope of the least-squares line with x = 1..len over {@code [from, to)}. */
+    private double[] regression(int from, int to) {
+        int len = to - from;
+        double sy = sumY[to] - sumY[from];
+        double sxy = (sumIY[to] - sumIY[from]) - (from - 1.0) * sy;
+        double sx = len * (len + 1.0) / 2.0;
+        double sxx = len * (len + 1.0) * (2.0 * len + 1.0) / 6.0;
+        double denom = len * sxx - sx * sx;
+        if (denom == 0) denom = 1e-9;
+        double slope = (len * sxy - sx * sy) / denom;
+        double intercept = (sy - slope * sx) / len;
+        return new double[]{intercept, slope};
+    }
+
+    /** Mean of the window's values at relative positions congruent to {@code slot} mod {@code season}. */
+    private double seasonalMean(double[] strides, int season, int from, int to, int slot) {
+        int first = from + slot;
+        if (first >= to) return 0.0;
+        int last = first + (to - 1 - first) / season * season;
+        int count = (last - first) / season + 1;
+        double sum = strides[last] - (first >= season ? strides[first - season] : 0.0);
+        return sum / count;
+    }
+
+    /** d[i] = sum over j < i of (1-alpha)^(i-1-j) y[j]. */
+    private double[] buildDiscounted(double alpha) {
+        double decay = 1 - alpha;
+        double[] d = new double[n + 1];
+        for (int i = 0; i < n; i++) d[i + 1] = decay * d[i] + series.get(i);
+        return d;
+    }
+
+    /** s[i] = y[i] + y[i-L] + y[i-2L] + ... */
+    private double[] buildStrided(int season) {
+        double[] s = new double[n];
+        for (int i = 0; i < n; i++) s[i] = series.get(i) + (i >= season ? s[i - season] : 0.0);
+        return s;
+    }
+}
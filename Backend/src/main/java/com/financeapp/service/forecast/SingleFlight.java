@@ -0,0 +1,47 @@
+package com.financeapp.service.forecast;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with equal keys: the first caller starts the computation, callers
+ * arriving while it runs share its outcome. The key is released as soon as the computation
+ * completes, so nothing is retained beyond the calls in flight.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the outcome of {@code call}, started only if no call for {@code key} is running.
+     * Each caller gets its own dependent future, so cancelling one does not affect the others.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, shared);
+        if (running != null) {
+            return running.copy();
+        }
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, shared);
+                if (error != null) {
+                    shared.completeExceptionally(error);
+                } else {
+                    shared.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    /** Number of keys with a computation running. */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
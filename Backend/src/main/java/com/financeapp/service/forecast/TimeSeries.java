@@ -0,0 +1,141 @@
+package com.financeapp.service.forecast;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Dense, date-indexed series of primitive doubles used by the forecasting kernels.
+ * <p>
+ * Index {@code i} maps to {@code startDate + i days}; days without data are zero.
+ * Instances are immutable views over a shared backing array, so {@link #slice(int, int)},
+ * {@link #head(int)} and {@link #tail(int)} never copy values and the same series can be
+ * handed to several kernels concurrently.
+ */
+public final class TimeSeries {
+
+    private static final TimeSeries EMPTY = new TimeSeries(LocalDate.MIN, new double[0], 0, 0);
+
+    private final LocalDate startDate;
+    private final double[] values;
+    private final int offset;
+    private final int length;
+
+    private TimeSeries(LocalDate startDate, double[] values, int offset, int length) {
+        this.startDate = startDate;
+        this.values = values;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public static TimeSeries empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Wraps {@code values} without copying; callers must not mutate the array afterwards.
+     */
+    public static TimeSeries of(LocalDate startDate, double... values) {
+        return new TimeSeries(startDate, values, 0, values.length);
+    }
+
+    /**
+     * Builds a dense series from {@code [date, SUM(amount)]} rows as returned by
+     * {@code FinancialDataRepository.getDailyTotals}. The series starts at the first
+     * observed day and ends at {@code to}; gaps are filled with zero.
+     */
+    public static TimeSeries fromDailyTotals(List<Object[]> rows, LocalDate to) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+        LocalDate first = (LocalDate) rows.get(0)[0];
+        if (first.isAfter(to)) {
+            return EMPTY;
+        }
+        double[] values = new double[(int) ChronoUnit.DAYS.between(first, to) + 1];
+        for (Object[] row : rows) {
+            int idx = (int) ChronoUnit.DAYS.between(first, (LocalDate) row[0]);
+            if (idx >= 0 && idx < values.length) {
+                values[idx] += ((BigDecimal) row[1]).doubleValue();
+            }
+        }
+        return new TimeSeries(first, values, 0, values.length);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public double get(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+        }
+        return values[offset + i];
+    }
+
+    public double last() {
+        return get(length - 1);
+    }
+
+    public LocalDate startDate() {
+        return startDate;
+    }
+
+    public LocalDate endDate() {
+        return startDate.plusDays(length - 1L);
+    }
+
+    public LocalDate dateAt(int i) {
+        return startDate.plusDays(i);
+    }
+
+    /**
+     * Returns the index of {@code date} relative to {@link #startDate()}, which may be
+     * negative or beyond {@link #length()} for dates outside the series.
+     */
+    public int indexOf(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(startDate, date);
+    }
+
+    /**
+     * Zero-copy view of {@code [from, to)}.
+     */
+    public TimeSeries slice(int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("Invalid slice [" + from + ", " + to + ") for length " + length);
+        }
+        return new TimeSeries(startDate.plusDays(from), values, offset + from, to - from);
+    }
+
+    public TimeSeries head(int n) {
+        return slice(0, n);
+    }
+
+    public TimeSeries tail(int n) {
+        return slice(length - n, length);
+    }
+
+    public double sum() {
+        double s = 0.0;
+        for (int i = offset, end = offset + length; i < end; i++) s += values[i];
+        return s;
+    }
+
+    /**
+     * Copies the visible values into {@code dst} (allocated when null or too small) and returns it.
+     */
+    public double[] copyTo(double[] dst) {
+        double[] out = dst != null && dst.length >= length ? dst : new double[length];
+        System.arraycopy(values, offset, out, 0, length);
+        return out;
+    }
+
+    public double[] toArray() {
+        return copyTo(null);
+    }
+}
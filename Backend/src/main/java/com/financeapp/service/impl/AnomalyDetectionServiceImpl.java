@@ -0,0 +1,173 @@
+package com.financeapp.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeapp.entity.ForecastAnomaly;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.AnomalyDetectionService;
+import com.financeapp.service.forecast.RobustZScores;
+import com.financeapp.service.forecast.TimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pages through users in id order. Within a page each user's history is loaded and scored on its
+ * own virtual thread, at most {@code app.anomaly.concurrency} at a time; the page's anomalies are
+ * then written with a single {@code saveAll}, which the pooled id sequence lets Hibernate send as
+ * JDBC batches. Reads and the write each run in the repository's own short transaction.
+ */
+@Service
+public class AnomalyDetectionServiceImpl implements AnomalyDetectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnomalyDetectionServiceImpl.class);
+
+    private static final String METHOD = "rolling_median_mad";
+
+    private final FinancialDataRepository financialDataRepository;
+    private final ForecastAnomalyRepository forecastAnomalyRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.anomaly.window-days:28}")
+    private int windowDays = 28;
+
+    @Value("${app.anomaly.min-periods:14}")
+    private int minPeriods = 14;
+
+    @Value("${app.anomaly.lookback-days:120}")
+    private int lookbackDays = 120;
+
+    @Value("${app.anomaly.scan-days:7}")
+    private int scanDays = 7;
+
+    @Value("${app.anomaly.threshold:3.5}")
+    private double threshold = 3.5;
+
+    @Value("${app.anomaly.concurrency:16}")
+    private int concurrency = 16;
+
+    @Value("${app.anomaly.page-size:500}")
+    private int pageSize = 500;
+
+    public AnomalyDetectionServiceImpl(FinancialDataRepository financialDataRepository,
+                                       ForecastAnomalyRepository forecastAnomalyRepository,
+                                       UserRepository userRepository,
+                                       ObjectMapper objectMapper) {
+        this.financialDataRepository = financialDataRepository;
+        this.forecastAnomalyRepository = forecastAnomalyRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public int scanAll(LocalDate runDate) {
+        int stored = 0;
+        long cursor = 0L;
+        Semaphore inFlight = new Semaphore(Math.max(1, concurrency));
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Long> userIds;
+            while (!(userIds = financialDataRepository.findUserIdsAfter(cursor, PageRequest.of(0, pageSize))).isEmpty()) {
+                List<Future<List<ForecastAnomaly>>> running = new ArrayList<>(userIds.size());
+                for (Long userId : userIds) {
+                    running.add(workers.submit(() -> {
+                        inFlight.acquire();
+                        try {
+                            return detect(userId, runDate);
+                        } catch (RuntimeException e) {
+                            log.warn("Anomaly scan failed for user {}: {}", userId, e.getMessage());
+                            return List.<ForecastAnomaly>of();
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                }
+                List<ForecastAnomaly> page = new ArrayList<>();
+                for (Future<List<ForecastAnomaly>> result : running) {
+                    page.addAll(result.get());
+                }
+                if (!page.isEmpty()) {
+                    forecastAnomalyRepository.saveAll(page);
+                    stored += page.size();
+                }
+                cursor = userIds.get(userIds.size() - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Anomaly scan for {} interrupted", runDate);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Anomaly scan worker failed", e.getCause());
+        }
+        log.info("Anomaly scan for {}: stored {} anomalies", runDate, stored);
+        return stored;
+    }
+
+    @Override
+    public List<ForecastAnomaly> scanUser(Long userId, LocalDate runDate) {
+        List<ForecastAnomaly> anomalies = detect(userId, runDate);
+        return anomalies.isEmpty() ? anomalies : forecastAnomalyRepository.saveAll(anomalies);
+    }
+
+    // Scores the user's daily spending over the lookback window and keeps new flags inside the
+    // scan window; income is left out, as a payday would otherwise read as a spike. No writes
+    private List<ForecastAnomaly> detect(Long userId, LocalDate runDate) {
+        TimeSeries series = TimeSeries.fromDailyTotals(financialDataRepository.getDailyTotalsByType(
+                userId, TransactionType.EXPENSE, runDate.minusDays(lookbackDays - 1L), runDate), runDate);
+        if (series.length() <= minPeriods) {
+            return List.of();
+        }
+        RobustZScores scores = RobustZScores.of(series.toArray(), windowDays, minPeriods);
+        LocalDate scanFrom = runDate.minusDays(Math.max(1, scanDays) - 1L);
+        Set<LocalDate> flagged = null;
+        List<ForecastAnomaly> out = new ArrayList<>();
+        for (int i = Math.max(0, series.indexOf(scanFrom)); i < series.length(); i++) {
+            double z = scores.zscore()[i];
+            if (Double.isNaN(z) || Math.abs(z) < threshold) continue;
+            if (flagged == null) {
+                flagged = new HashSet<>(forecastAnomalyRepository.findFlaggedDates(userId, scanFrom, runDate));
+            }
+            LocalDate date = series.dateAt(i);
+            if (!flagged.add(date)) continue;
+            ForecastAnomaly anomaly = new ForecastAnomaly();
+            anomaly.setUser(userRepository.getReferenceById(userId));
+            anomaly.setDate(date);
+            anomaly.setValue(series.get(i));
+            anomaly.setZscore(z);
+            anomaly.setParamsJson(params(scores.center()[i], scores.scale()[i]));
+            out.add(anomaly);
+        }
+        return out;
+    }
+
+    private String params(double median, double scale) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("method", METHOD);
+        params.put("window", windowDays);
+        params.put("threshold", threshold);
+        params.put("median", median);
+        params.put("scale", scale);
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise anomaly parameters", e);
+        }
+    }
+}
@@ -13,6 +13,9 @@ import com.financeapp.exception.ValidationException;
 import com.financeapp.repository.FinancialDataRepository;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.service.FinancialDataService;
+import com.financeapp.service.ForecastStateService;
+import com.financeapp.service.OnlineAnomalyService;
+import com.financeapp.service.UserDataVersionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,6 +50,15 @@ public class FinancialDataServiceImpl implements FinancialDataService {
     @Autowired
     private FinancialDataMapper financialDataMapper;
 
+    @Autowired
+    private ForecastStateService forecastStateService;
+
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
+    @Autowired
+    private OnlineAnomalyService onlineAnomalyService;
+
     @Override
     @Transactional(readOnly = true)
     public Page<FinancialDataResponseDto> getAllFinancialData(Specification<FinancialData> spec, Pageable pageable) {
@@ -95,6 +107,8 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         financialData.setUpdatedAt(java.time.OffsetDateTime.now());
         
         FinancialData savedFinancialData = financialDataRepository.save(financialData);
+        recordChanges(currentUserId, Map.of(savedFinancialData.getDate(), savedFinancialData.getAmount()));
+        onlineAnomalyService.recordCreated(List.of(savedFinancialData));
         
         logger.info("Financial data created successfully with ID: {}", savedFinancialData.getId());
         return financialDataMapper.toResponseDto(savedFinancialData);
@@ -136,6 +150,8 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         financialData.setUpdatedAt(java.time.OffsetDateTime.now());
 
         FinancialData saved = financialDataRepository.save(financialData);
+        recordChanges(currentUserId, Map.of(saved.getDate(), saved.getAmount()));
+        onlineAnomalyService.recordCreated(List.of(saved));
         return financialDataMapper.toResponseDto(saved);
     }
 
@@ -154,6 +170,8 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         }
         
         FinancialData financialData = existingFinancialData.get();
+        LocalDate previousDate = financialData.getDate();
+        BigDecimal previousAmount = financialData.getAmount();
         if (financialDataDto.date() != null) {
             financialData.setDate(financialDataDto.date());
         }
@@ -172,6 +190,10 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         financialData.setUpdatedAt(java.time.OffsetDateTime.now());
         
         FinancialData updatedFinancialData = financialDataRepository.save(financialData);
+        Map<LocalDate, BigDecimal> deltas = new HashMap<>();
+        deltas.merge(previousDate, previousAmount.negate(), BigDecimal::add);
+        deltas.merge(updatedFinancialData.getDate(), updatedFinancialData.getAmount(), BigDecimal::add);
+        recordChanges(currentUserId, deltas);
         
         logger.info("Financial data updated successfully with ID: {}", updatedFinancialData.getId());
         return Optional.of(financialDataMapper.toResponseDto(updatedFinancialData));
@@ -190,6 +212,8 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         }
         
         financialDataRepository.delete(financialData.get());
+        recordChanges(currentUserId,
+                Map.of(financialData.get().getDate(), financialData.get().getAmount().negate()));
         
         logger.info("Financial data deleted successfully with ID: {}", id);
         return true;
@@ -233,6 +257,12 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         }
         
         List<FinancialData> savedFinancialData = financialDataRepository.saveAll(validFinancialData);
+        Map<LocalDate, BigDecimal> deltas = new HashMap<>();
+        for (FinancialData saved : savedFinancialData) {
+            deltas.merge(saved.getDate(), saved.getAmount(), BigDecimal::add);
+        }
+        recordChanges(currentUserId, deltas);
+        onlineAnomalyService.recordCreated(savedFinancialData);
         
         Map<String, Object> result = new HashMap<>();
         result.put("createdCount", savedFinancialData.size());
@@ -542,6 +572,15 @@ public class FinancialDataServiceImpl implements FinancialDataService {
 
     // Helper methods
 
+    /**
+     * Every write goes through here: folds the per-day deltas into the incremental forecast
+     * state and bumps the user's data version so cached forecasts are no longer served.
+     */
+    private void recordChanges(Long userId, Map<LocalDate, BigDecimal> deltas) {
+        forecastStateService.recordChanges(userId, deltas);
+        userDataVersionService.bump(userId);
+    }
+
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
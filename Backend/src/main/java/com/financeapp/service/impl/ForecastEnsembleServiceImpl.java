@@ -0,0 +1,77 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastPerformance;
+import com.financeapp.repository.ForecastPerformanceRepository;
+import com.financeapp.service.ForecastEnsembleService;
+import com.financeapp.service.forecast.EnsembleMember;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+@Service
+public class ForecastEnsembleServiceImpl implements ForecastEnsembleService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastEnsembleServiceImpl.class);
+
+    static final int MAX_MEMBERS = 5;
+    private static final double MIN_ERROR = 1e-6;
+
+    private final ForecastPerformanceRepository forecastPerformanceRepository;
+
+    public ForecastEnsembleServiceImpl(ForecastPerformanceRepository forecastPerformanceRepository) {
+        this.forecastPerformanceRepository = forecastPerformanceRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "ensembleWeights", key = "#userId")
+    public List<EnsembleMember> memberWeights(Long userId) {
+        List<ForecastPerformance> latest = new ArrayList<>();
+        for (ForecastPerformance p : forecastPerformanceRepository.findLatestPerConfig(userId)) {
+            if (p.getConfig().getAlgorithm() != ForecastConfig.AlgorithmType.ENSEMBLE) latest.add(p);
+        }
+        if (latest.isEmpty()) {
+            return List.of();
+        }
+
+        // Rows from different runs may lack MASE; fall back to a metric every member has
+        Function<ForecastPerformance, Double> error;
+        if (latest.stream().allMatch(p -> p.getMase() != null)) {
+            error = ForecastPerformance::getMase;
+        } else if (latest.stream().allMatch(p -> p.getSmape() != null)) {
+            error = ForecastPerformance::getSmape;
+        } else {
+            error = ForecastPerformance::getMape;
+        }
+
+        latest.sort(Comparator.comparingDouble(p -> error.apply(p)));
+        List<ForecastPerformance> top = latest.subList(0, Math.min(MAX_MEMBERS, latest.size()));
+        double total = 0.0;
+        double[] raw = new double[top.size()];
+        for (int i = 0; i < top.size(); i++) {
+            raw[i] = 1.0 / Math.max(MIN_ERROR, error.apply(top.get(i)));
+            total += raw[i];
+        }
+        List<EnsembleMember> members = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            members.add(new EnsembleMember(EnsembleMember.parametersOf(top.get(i).getConfig()), raw[i] / total));
+        }
+        log.debug("Loaded {} ensemble members for user {}", members.size(), userId);
+        return List.copyOf(members);
+    }
+
+    @Override
+    @CacheEvict(value = "ensembleWeights", key = "#userId")
+    public void refreshWeights(Long userId) {
+        log.debug("Evicted ensemble weights for user {}", userId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.ForecastJobLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ForecastJobLeaseServiceImpl implements ForecastJobLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastJobLeaseServiceImpl.class);
+
+    private final ForecastJobRepository forecastJobRepository;
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final String nodeId;
+    private volatile Boolean skipLocked;
+
+    @Value("${app.forecast.lease.ttl-seconds:300}")
+    private long leaseSeconds = 300;
+
+    @Value("${app.forecast.lease.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    public ForecastJobLeaseServiceImpl(ForecastJobRepository forecastJobRepository,
+                                       UserRepository userRepository,
+                                       DataSource dataSource,
+                                       @Value("${app.forecast.node-id:}") String nodeId) {
+        this.forecastJobRepository = forecastJobRepository;
+        this.userRepository = userRepository;
+        this.dataSource = dataSource;
+        // pid@host by default, unique per running instance
+        this.nodeId = nodeId == null || nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(LocalDate runDate, List<Long> userIds) {
+        List<ForecastJob> jobs = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            ForecastJob job = new ForecastJob();
+            job.setUser(userRepository.getReferenceById(userId));
+            job.setRunDate(runDate);
+            job.setDescription("Nightly forecast " + runDate);
+            jobs.add(job);
+        }
+        forecastJobRepository.saveAll(jobs);
+    }
+
+    @Override
+    @Transactional
+    public List<ForecastJob> claim(LocalDate runDate, int limit) {
+        OffsetDateTime now = OffsetDateTime.now();
+        int failed = forecastJobRepository.failExhausted(runDate, maxAttempts, now,
+                ForecastJob.Status.RUNNING, ForecastJob.Status.FAILED, "Lease expired after " + maxAttempts + " attempts");
+        if (failed > 0) {
+            log.warn("Failed {} forecast jobs of run {} after exhausting their attempts", failed, runDate);
+        }
+
+        // PostgreSQL locks candidates so concurrent claimers skip straight past each other's rows;
+        // elsewhere the conditional update below settles any race
+        List<Long> candidates = supportsSkipLocked()
+                ? forecastJobRepository.lockClaimable(runDate, maxAttempts, now, limit)
+                : forecastJobRepository.findClaimable(runDate, maxAttempts, now,
+                        ForecastJob.Status.PENDING, ForecastJob.Status.RUNNING, PageRequest.of(0, limit));
+
+        OffsetDateTime expiresAt = now.plusSeconds(leaseSeconds);
+        List<Long> claimed = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            if (forecastJobRepository.claim(id, nodeId, expiresAt, now, maxAttempts,
+                    ForecastJob.Status.PENDING, ForecastJob.Status.RUNNING) == 1) {
+                claimed.add(id);
+            }
+        }
+        return claimed.isEmpty() ? List.of() : forecastJobRepository.findAllById(claimed);
+    }
+
+    @Override
+    @Transactional
+    public int renewLeases() {
+        return forecastJobRepository.renewLeases(nodeId, OffsetDateTime.now().plusSeconds(leaseSeconds),
+                ForecastJob.Status.RUNNING);
+    }
+
+    @Override
+    @Transactional
+    public boolean finish(Long jobId, ForecastJob.Status status, String errorMessage) {
+        boolean owned = forecastJobRepository.finish(jobId, nodeId, status, errorMessage, OffsetDateTime.now()) == 1;
+        if (!owned) {
+            log.warn("Lease on forecast job {} was lost before it finished", jobId);
+        }
+        return owned;
+    }
+
+    private boolean supportsSkipLocked() {
+        if (skipLocked == null) {
+            try (Connection conn = dataSource.getConnection()) {
+                skipLocked = "PostgreSQL".equalsIgnoreCase(conn.getMetaData().getDatabaseProductName());
+            } catch (Exception e) {
+                skipLocked = false;
+            }
+        }
+        return skipLocked;
+    }
+}
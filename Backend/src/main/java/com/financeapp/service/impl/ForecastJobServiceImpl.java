@@ -0,0 +1,165 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.dto.ForecastDtos;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.entity.ForecastResult;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.ForecastJobLeaseService;
+import com.financeapp.service.ForecastJobService;
+import com.financeapp.service.ForecastRunService;
+import com.financeapp.service.ForecastService;
+import com.financeapp.service.forecast.PriorityJobQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+public class ForecastJobServiceImpl implements ForecastJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastJobServiceImpl.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Set<ForecastJob.Status> OPEN = EnumSet.of(ForecastJob.Status.PENDING, ForecastJob.Status.RUNNING);
+
+    private final ForecastService forecastService;
+    private final ForecastJobRepository forecastJobRepository;
+    private final ForecastRunService forecastRunService;
+    private final UserRepository userRepository;
+    private final ForecastJobLeaseService forecastJobLeaseService;
+    private final PriorityJobQueue queue;
+    private final int capacity;
+
+    @Value("${app.forecast.lease.ttl-seconds:300}")
+    private long leaseSeconds = 300;
+
+    // Startup sweep only; afterwards this node's own leases are live
+    private volatile boolean started;
+
+    public ForecastJobServiceImpl(ForecastService forecastService,
+                                  ForecastJobRepository forecastJobRepository,
+                                  ForecastRunService forecastRunService,
+                                  UserRepository userRepository,
+                                  ForecastJobLeaseService forecastJobLeaseService,
+                                  @Value("${app.forecast.jobs.workers:4}") int workers,
+                                  @Value("${app.forecast.jobs.queue-capacity:100}") int capacity) {
+        this.forecastService = forecastService;
+        this.forecastJobRepository = forecastJobRepository;
+        this.forecastRunService = forecastRunService;
+        this.userRepository = userRepository;
+        this.forecastJobLeaseService = forecastJobLeaseService;
+        this.capacity = capacity;
+        this.queue = new PriorityJobQueue("forecast-job", workers, capacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        queue.close();
+    }
+
+    @Override
+    public ForecastDtos.JobStatusDto submit(Long userId, List<ForecastConfig> configs, LocalDate startDate,
+                                            int horizonDays, ForecastJob.Priority priority) {
+        // Refuse before writing anything so rejected bursts leave no rows behind
+        if (queue.waiting() >= capacity) {
+            throw new RejectedExecutionException("Forecast job queue is full");
+        }
+        ForecastJob job = new ForecastJob();
+        job.setUser(userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found")));
+        job.setPriority(priority);
+        job.setDescription("Forecast " + configs.size() + " configs from " + startDate + " for " + horizonDays + " days");
+        // The request exists only in this node's queue; the lease marks whose it is
+        job.setLeaseOwner(forecastJobLeaseService.nodeId());
+        job.setLeaseExpiresAt(OffsetDateTime.now().plusSeconds(leaseSeconds));
+        job = forecastJobRepository.save(job);
+
+        Long jobId = job.getId();
+        try {
+            queue.submit(priority.ordinal(), () -> run(jobId, userId, configs, startDate, horizonDays));
+        } catch (RejectedExecutionException e) {
+            forecastJobRepository.deleteById(jobId);
+            throw e;
+        }
+        log.info("Queued forecast job {} for user {} at {} priority", jobId, userId, priority);
+        return toDto(job, List.of());
+    }
+
+    @Override
+    public Optional<ForecastDtos.JobStatusDto> status(Long jobId) {
+        return forecastJobRepository.findById(jobId).map(job -> toDto(job,
+                job.getStatus() == ForecastJob.Status.COMPLETED ? forecastRunService.findByJobId(jobId) : List.of()));
+    }
+
+    @Override
+    @Transactional
+    public int renewLeases() {
+        return forecastJobRepository.renewAdHocLeases(forecastJobLeaseService.nodeId(),
+                OffsetDateTime.now().plusSeconds(leaseSeconds), OPEN);
+    }
+
+    @Override
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public int failOrphaned() {
+        // A restarted node with a fixed app.forecast.node-id finds its old jobs under its own id
+        String previousSelf = started ? null : forecastJobLeaseService.nodeId();
+        started = true;
+        int failed = forecastJobRepository.failOrphanedAdHoc(previousSelf, OffsetDateTime.now(), OPEN,
+                ForecastJob.Status.FAILED, "Interrupted by a restart before it finished; please resubmit");
+        if (failed > 0) {
+            log.warn("Failed {} forecast jobs orphaned by a stopped node", failed);
+        }
+        return failed;
+    }
+
+    private void run(Long jobId, Long userId, List<ForecastConfig> configs, LocalDate startDate, int horizonDays) {
+        ForecastJob job = forecastJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ForecastJob.Status.PENDING) {
+            return; // deleted, or failed as orphaned while it waited
+        }
+        job.setStatus(ForecastJob.Status.RUNNING);
+        job = forecastJobRepository.save(job);
+        try {
+            forecastService.generateBatch(userId, configs, startDate, horizonDays, jobId);
+            job.setStatus(ForecastJob.Status.COMPLETED);
+        } catch (RuntimeException e) {
+            log.warn("Forecast job {} failed: {}", jobId, e.getMessage());
+            String message = String.valueOf(e.getMessage());
+            job.setStatus(ForecastJob.Status.FAILED);
+            job.setErrorMessage(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        }
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        forecastJobRepository.save(job);
+    }
+
+    private static ForecastDtos.JobStatusDto toDto(ForecastJob job, List<ForecastResult> results) {
+        ForecastDtos.JobStatusDto dto = new ForecastDtos.JobStatusDto();
+        dto.jobId = job.getId();
+        dto.userId = job.getUser().getId();
+        dto.status = job.getStatus().name();
+        dto.priority = job.getPriority().name();
+        dto.errorMessage = job.getErrorMessage();
+        dto.createdAt = job.getCreatedAt();
+        dto.updatedAt = job.getUpdatedAt();
+        dto.results = results.stream()
+                .map(r -> new ForecastDtos.ForecastPointDto(r.getConfig().getId(), r.getTargetDate(), r.getForecastValue(),
+                        r.getForecastP10(), r.getForecastP50(), r.getForecastP90()))
+                .toList();
+        return dto;
+    }
+}
@@ -0,0 +1,82 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.ForecastResultRepository;
+import com.financeapp.repository.ForecastRunRepository;
+import com.financeapp.service.ForecastRetentionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Each table is drained by selecting a chunk of ids and deleting them with one statement; the
+ * repository's batch delete commits every chunk in its own short transaction, so no lock is held
+ * across the whole purge and concurrent forecast writes only ever wait on one chunk.
+ */
+@Service
+public class ForecastRetentionServiceImpl implements ForecastRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastRetentionServiceImpl.class);
+
+    private final ForecastRunRepository forecastRunRepository;
+    private final ForecastResultRepository forecastResultRepository;
+    private final ForecastAnomalyRepository forecastAnomalyRepository;
+    private final ForecastJobRepository forecastJobRepository;
+
+    @Value("${app.forecast.retention.keep-runs:3}")
+    private int keepRuns = 3;
+
+    @Value("${app.forecast.retention.job-days:30}")
+    private int jobDays = 30;
+
+    @Value("${app.forecast.retention.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public ForecastRetentionServiceImpl(ForecastRunRepository forecastRunRepository,
+                                        ForecastResultRepository forecastResultRepository,
+                                        ForecastAnomalyRepository forecastAnomalyRepository,
+                                        ForecastJobRepository forecastJobRepository) {
+        this.forecastRunRepository = forecastRunRepository;
+        this.forecastResultRepository = forecastResultRepository;
+        this.forecastAnomalyRepository = forecastAnomalyRepository;
+        this.forecastJobRepository = forecastJobRepository;
+    }
+
+    @Override
+    public int purgeSuperseded() {
+        int keep = Math.max(1, keepRuns);
+        OffsetDateTime jobCutoff = OffsetDateTime.now().minusDays(jobDays);
+
+        int runs = drain(forecastRunRepository, page -> forecastRunRepository.findSupersededIds(keep, page));
+        int rows = drain(forecastResultRepository, page -> forecastResultRepository.findSupersededIds(keep, page));
+        int anomalies = drain(forecastAnomalyRepository, forecastAnomalyRepository::findSupersededIds);
+        int jobs = drain(forecastJobRepository, page -> forecastJobRepository.findFinishedBefore(
+                EnumSet.of(ForecastJob.Status.COMPLETED, ForecastJob.Status.FAILED), jobCutoff, page));
+
+        log.info("Forecast retention removed {} runs, {} result rows, {} anomalies, {} jobs", runs, rows, anomalies, jobs);
+        return runs + rows + anomalies + jobs;
+    }
+
+    private int drain(JpaRepository<?, Long> repository, Function<Pageable, List<Long>> superseded) {
+        Pageable chunk = PageRequest.of(0, Math.max(1, chunkSize));
+        int deleted = 0;
+        List<Long> ids;
+        // Always the first page: deleted ids drop out of the next query
+        while (!(ids = superseded.apply(chunk)).isEmpty()) {
+            repository.deleteAllByIdInBatch(ids);
+            deleted += ids.size();
+        }
+        return deleted;
+    }
+}
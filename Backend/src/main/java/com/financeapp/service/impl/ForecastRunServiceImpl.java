@@ -0,0 +1,187 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.entity.ForecastResult;
+import com.financeapp.entity.ForecastRun;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastResultRepository;
+import com.financeapp.repository.ForecastRunRepository;
+import com.financeapp.service.ForecastRunService;
+import com.financeapp.service.forecast.ForecastRunCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ForecastRunServiceImpl implements ForecastRunService {
+
+    private final ForecastRunRepository forecastRunRepository;
+    private final ForecastResultRepository forecastResultRepository;
+    private final ForecastConfigRepository forecastConfigRepository;
+
+    // Also write the legacy one-row-per-day table, for readers not yet moved to runs
+    @Value("${app.forecast.storage.daily-rows:false}")
+    private boolean dailyRows = false;
+
+    public ForecastRunServiceImpl(ForecastRunRepository forecastRunRepository,
+                                  ForecastResultRepository forecastResultRepository,
+                                  ForecastConfigRepository forecastConfigRepository) {
+        this.forecastRunRepository = forecastRunRepository;
+        this.forecastResultRepository = forecastResultRepository;
+        this.forecastConfigRepository = forecastConfigRepository;
+    }
+
+    @Override
+    @Transactional
+    public List<ForecastRun> store(List<ForecastResult> results) {
+        List<ForecastRun> runs = new ArrayList<>();
+        List<List<ForecastResult>> rowsByRun = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= results.size(); i++) {
+            if (i == results.size() || results.get(i).getConfig() != results.get(from).getConfig()) {
+                runs.add(toRun(results.subList(from, i)));
+                rowsByRun.add(results.subList(from, i));
+                from = i;
+            }
+        }
+        if (runs.isEmpty()) {
+            return runs;
+        }
+
+        // Concurrent stores for the same config would both read version N and collide on N+1;
+        // holding the config rows makes the second wait and then read the first one's version
+        forecastConfigRepository.lockByIds(runs.stream().map(r -> r.getConfig().getId()).collect(Collectors.toSet()));
+
+        // One lookup for the current version of every (config, start date) in the batch
+        Map<String, ForecastRun> latest = new HashMap<>();
+        Map<Long, List<ForecastRun>> byUser = runs.stream().collect(Collectors.groupingBy(r -> r.getUser().getId()));
+        byUser.forEach((userId, userRuns) -> forecastRunRepository.findLatestVersions(userId,
+                        userRuns.stream().map(r -> r.getConfig().getId()).collect(Collectors.toSet()),
+                        userRuns.stream().map(ForecastRun::getStartDate).collect(Collectors.toSet()))
+                .forEach(r -> latest.put(keyOf(r), r)));
+
+        List<ForecastRun> saved = new ArrayList<>(runs.size());
+        List<ForecastResult> newRows = new ArrayList<>();
+        for (int i = 0; i < runs.size(); i++) {
+            ForecastRun run = runs.get(i);
+            ForecastRun current = latest.get(keyOf(run));
+            if (current != null && samePayload(current, run) && sameJob(current, run)) {
+                // Unchanged forecast: refresh the current version in place
+                current.setMape(run.getMape());
+                if (run.getJobId() != null) current.setJobId(run.getJobId());
+                saved.add(current);
+                continue;
+            }
+            run.setRunVersion(current == null ? 1 : current.getRunVersion() + 1);
+            saved.add(run);
+            for (ForecastResult fr : rowsByRun.get(i)) {
+                fr.setRunVersion(run.getRunVersion());
+                newRows.add(fr);
+            }
+        }
+        if (dailyRows && !newRows.isEmpty()) {
+            forecastResultRepository.saveAll(newRows);
+        }
+        return forecastRunRepository.saveAll(saved);
+    }
+
+    @Override
+    public List<ForecastResult> expand(ForecastRun run) {
+        double[][] values = ForecastRunCodec.decode(run.getForecastValues());
+        double[][] bands = run.getIntervalValues() != null ? ForecastRunCodec.decode(run.getIntervalValues()) : null;
+        List<ForecastResult> out = new ArrayList<>(run.getHorizonDays());
+        for (int i = 0; i < run.getHorizonDays(); i++) {
+            ForecastResult fr = new ForecastResult();
+            fr.setConfig(run.getConfig());
+            fr.setUser(run.getUser());
+            fr.setTargetDate(run.getStartDate().plusDays(i));
+            fr.setForecastValue(BigDecimal.valueOf(values[0][i]));
+            if (bands != null) {
+                fr.setForecastP10(BigDecimal.valueOf(bands[0][i]));
+                fr.setForecastP50(BigDecimal.valueOf(bands[1][i]));
+                fr.setForecastP90(BigDecimal.valueOf(bands[2][i]));
+            }
+            fr.setMape(run.getMape());
+            fr.setJobId(run.getJobId());
+            out.add(fr);
+        }
+        return out;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ForecastResult> findForUserBetween(Long userId, LocalDate from, LocalDate to) {
+        List<ForecastResult> out = new ArrayList<>();
+        for (ForecastRun run : forecastRunRepository.findOverlapping(userId, from, to)) {
+            for (ForecastResult fr : expand(run)) {
+                if (!fr.getTargetDate().isBefore(from) && !fr.getTargetDate().isAfter(to)) out.add(fr);
+            }
+        }
+        out.sort(Comparator.comparing(ForecastResult::getTargetDate));
+        return out;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ForecastResult> findByJobId(Long jobId) {
+        List<ForecastResult> out = new ArrayList<>();
+        for (ForecastRun run : forecastRunRepository.findByJobId(jobId)) {
+            out.addAll(expand(run));
+        }
+        return out;
+    }
+
+    private static String keyOf(ForecastRun run) {
+        return run.getUser().getId() + "|" + run.getConfig().getId() + "|" + run.getStartDate();
+    }
+
+    private static boolean samePayload(ForecastRun a, ForecastRun b) {
+        return a.getHorizonDays() == b.getHorizonDays()
+                && Arrays.equals(a.getForecastValues(), b.getForecastValues())
+                && Arrays.equals(a.getIntervalValues(), b.getIntervalValues());
+    }
+
+    // A run already tagged with another job stays with it, so that job's results remain readable
+    private static boolean sameJob(ForecastRun current, ForecastRun run) {
+        return run.getJobId() == null || current.getJobId() == null || run.getJobId().equals(current.getJobId());
+    }
+
+    private static ForecastRun toRun(List<ForecastResult> results) {
+        ForecastResult first = results.get(0);
+        int n = results.size();
+        double[] values = new double[n];
+        double[][] bands = new double[3][n];
+        boolean hasBands = true;
+        for (int i = 0; i < n; i++) {
+            ForecastResult fr = results.get(i);
+            values[i] = fr.getForecastValue().doubleValue();
+            if (fr.getForecastP10() == null || fr.getForecastP50() == null || fr.getForecastP90() == null) {
+                hasBands = false;
+            } else if (hasBands) {
+                bands[0][i] = fr.getForecastP10().doubleValue();
+                bands[1][i] = fr.getForecastP50().doubleValue();
+                bands[2][i] = fr.getForecastP90().doubleValue();
+            }
+        }
+        ForecastRun run = new ForecastRun();
+        run.setConfig(first.getConfig());
+        run.setUser(first.getUser());
+        run.setStartDate(first.getTargetDate());
+        run.setEndDate(results.get(n - 1).getTargetDate());
+        run.setHorizonDays(n);
+        run.setForecastValues(ForecastRunCodec.encode(values));
+        run.setIntervalValues(hasBands ? ForecastRunCodec.encode(bands) : null);
+        run.setMape(first.getMape());
+        run.setJobId(first.getJobId());
+        return run;
+    }
+}
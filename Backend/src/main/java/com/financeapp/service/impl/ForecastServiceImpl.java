@@ -3,14 +3,31 @@ package com.financeapp.service.impl;
 import com.financeapp.entity.ForecastConfig;
 import com.financeapp.entity.ForecastResult;
 import com.financeapp.entity.User;
-import com.financeapp.repository.ForecastResultRepository;
 import com.financeapp.repository.ForecastConfigRepository;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.service.ForecastEnsembleService;
+import com.financeapp.service.ForecastRunService;
 import com.financeapp.service.ForecastService;
+import com.financeapp.service.ForecastStateService;
+import com.financeapp.service.SeasonalityService;
+import com.financeapp.service.forecast.ArimaModel;
+import com.financeapp.service.forecast.BacktestMetrics;
+import com.financeapp.service.forecast.CategorySeries;
+import com.financeapp.service.forecast.EnsembleMember;
+import com.financeapp.service.forecast.FusedForecastKernel;
+import com.financeapp.service.forecast.HoltWintersModel;
+import com.financeapp.service.forecast.IncrementalForecastState;
+import com.financeapp.service.forecast.ResampledSeries;
+import com.financeapp.service.forecast.ResidualBootstrap;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+import com.financeapp.service.forecast.SeriesPrefixStats;
+import com.financeapp.service.forecast.TimeSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,80 +35,350 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.LinkedHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 @Service
 public class ForecastServiceImpl implements ForecastService {
 
     private static final Logger log = LoggerFactory.getLogger(ForecastServiceImpl.class);
 
+    private static final int LOOKBACK_DAYS = 180;
+    private static final int BACKTEST_FOLDS = 4;
+    private static final int RESIDUAL_ORIGINS = 30;
+    private static final List<EnsembleMember> DEFAULT_ENSEMBLE = List.of(
+            defaultMember(ForecastConfig.AlgorithmType.SMA),
+            defaultMember(ForecastConfig.AlgorithmType.EWMA),
+            defaultMember(ForecastConfig.AlgorithmType.LINEAR_REGRESSION),
+            defaultMember(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION));
+
     private final FinancialDataRepository financialDataRepository;
-    private final ForecastResultRepository forecastResultRepository;
+    private final ForecastRunService forecastRunService;
     private final UserRepository userRepository;
     private final ForecastConfigRepository forecastConfigRepository;
+    private final ForecastStateService forecastStateService;
+    private final ForecastEnsembleService forecastEnsembleService;
+    private final SeasonalityService seasonalityService;
+    private final Executor computeExecutor = ForkJoinPool.commonPool();
+
+    @Value("${app.forecast.bootstrap-paths:1000}")
+    private int bootstrapPaths = 1000; // 0 disables prediction intervals
 
     public ForecastServiceImpl(FinancialDataRepository financialDataRepository,
-                               ForecastResultRepository forecastResultRepository,
+                               ForecastRunService forecastRunService,
                                UserRepository userRepository,
-                               ForecastConfigRepository forecastConfigRepository) {
+                               ForecastConfigRepository forecastConfigRepository,
+                               ForecastStateService forecastStateService,
+                               ForecastEnsembleService forecastEnsembleService,
+                               SeasonalityService seasonalityService) {
         this.financialDataRepository = financialDataRepository;
-        this.forecastResultRepository = forecastResultRepository;
+        this.forecastRunService = forecastRunService;
         this.userRepository = userRepository;
         this.forecastConfigRepository = forecastConfigRepository;
+        this.forecastStateService = forecastStateService;
+        this.forecastEnsembleService = forecastEnsembleService;
+        this.seasonalityService = seasonalityService;
+    }
+
+    @Override
+    @Transactional
+    public ForecastConfig defaultConfig(Long userId, ForecastConfig.AlgorithmType algorithm) {
+        // Two first requests racing may both create one; every later call settles on the oldest
+        List<ForecastConfig> existing = forecastConfigRepository.findDefaults(userId, algorithm, PageRequest.of(0, 1));
+        if (!existing.isEmpty()) {
+            return existing.get(0);
+        }
+        User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(algorithm);
+        return forecastConfigRepository.save(cfg);
     }
 
     @Override
     @Transactional
     @Async
-    @Cacheable(value = "forecasts", key = "#userId + '-' + #config.id + '-' + #startDate + '-' + #horizonDays")
+    // Keys carry the user's data version, so any financial data write retires cached forecasts
+    @Cacheable(value = "forecasts", key = "#userId + '-v' + @userDataVersionServiceImpl.current(#userId) + '-' + #config.id + '-' + #startDate + '-' + #horizonDays")
     public java.util.concurrent.CompletableFuture<List<ForecastResult>> generateForecast(Long userId, ForecastConfig config, LocalDate startDate, int horizonDays) {
         log.info("Generating forecast: userId={}, algo={}, horizon={}", userId, config.getAlgorithm(), horizonDays);
 
         User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
 
+        // Stored configs can be answered from their incremental state without scanning history;
+        // that state tracks the user's combined total, so filtered configs always read history
+        CategorySeries.Filter filter = CategorySeries.Filter.of(config);
+        boolean storedConfig = stateful(config);
+        LocalDate windowEnd = startDate.minusDays(1);
+        resolveSeasons(userId, List.of(config), windowEnd);
+        if (storedConfig) {
+            Optional<IncrementalForecastState> state = forecastStateService.stateFor(config, windowEnd, LOOKBACK_DAYS);
+            if (state.isPresent()) {
+                double[] fromState = state.get().forecast(horizonDays);
+                if (fromState.length == 0) {
+                    return java.util.concurrent.CompletableFuture.completedFuture(Collections.emptyList());
+                }
+                List<ForecastResult> results = toResults(user, config, startDate, fromState, horizonDays);
+                // The ring holds the whole lookback window, so residuals need no history query
+                applyIntervals(results, config, state.get().series(), fromState, startDate);
+                forecastRunService.store(results);
+                return java.util.concurrent.CompletableFuture.completedFuture(results);
+            }
+        }
+
         // Ensure config is persisted to satisfy non-nullable association
+        if (config.getUser() == null) {
+            config.setUser(user);
+        }
         if (config.getId() == null) {
             config = forecastConfigRepository.save(config);
         }
 
         // Retrieve daily totals from FinancialData with DB-agnostic queries
         // For H2 and PostgreSQL compatibility, we rely on repository helpers already present
-        LocalDate fromDate = startDate.minusDays(180); // lookback window
-
-        List<Object[]> dailyTotals = financialDataRepository.getDailyTotals(userId, fromDate, startDate.minusDays(1));
-        List<Double> values = new ArrayList<>();
-        for (Object[] row : dailyTotals) {
-            BigDecimal amount = (BigDecimal) row[1];
-            values.add(amount.doubleValue());
-        }
+        TimeSeries values = storedConfig
+                ? seedState(user, List.of(config), startDate).orElseGet(() -> loadHistory(userId, filter, startDate))
+                : loadHistory(userId, filter, startDate);
 
         if (values.isEmpty()) {
             return java.util.concurrent.CompletableFuture.completedFuture(Collections.emptyList());
         }
 
-        double[] forecasts;
+        double[] forecasts = computeForecast(config, values, horizonDays);
+        saveFittedParameters(List.of(config));
+        List<ForecastResult> results = toResults(user, config, startDate, forecasts, horizonDays);
+        applyIntervals(results, config, values, forecasts, startDate);
+        forecastRunService.store(results);
+
+        return java.util.concurrent.CompletableFuture.completedFuture(results);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Async
+    @Cacheable(value = "forecasts", key = "'rs-' + #period + '-' + #userId + '-v' + @userDataVersionServiceImpl.current(#userId) + '-' + #config.id + '-' + #startDate + '-' + #horizonDays")
+    public CompletableFuture<List<ForecastResult>> generateResampledForecast(Long userId, ForecastConfig config, LocalDate startDate,
+                                                                             int horizonDays, ResampledSeries.Period period) {
+        log.info("Generating {} forecast: userId={}, algo={}, horizon={}", period, userId, config.getAlgorithm(), horizonDays);
+
+        User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (config.getUser() == null) {
+            config.setUser(user);
+        }
+        // Buckets get their own season, and Holt-Winters fits on them must not replace the daily
+        // parameters stored on the config, so the kernel runs on a copy
+        ForecastConfig bucketConfig = EnsembleMember.parametersOf(config);
+        bucketConfig.setUser(user);
+        if (period.seasonLength() != null) {
+            bucketConfig.setSeasonLength(period.seasonLength());
+            bucketConfig.setFittedAlpha(null);
+            bucketConfig.setFittedBeta(null);
+            bucketConfig.setFittedGamma(null);
+        }
+        resolveSeasons(userId, List.of(bucketConfig), startDate.minusDays(1));
+
+        // One daily query over the whole lookback, summed into buckets in memory
+        LocalDate historyFrom = period.bucketStart(startDate, -period.lookbackBuckets());
+        TimeSeries daily = loadSeries(userId, CategorySeries.Filter.of(config), historyFrom, startDate.minusDays(1));
+        TimeSeries buckets = ResampledSeries.of(daily, period, startDate).values();
+        if (buckets.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        int horizon = period.bucketsCovering(startDate, horizonDays);
+        double[] forecasts = computeForecast(bucketConfig, buckets, horizon);
+        List<ForecastResult> results = new ArrayList<>(horizon);
+        for (int k = 0; k < horizon; k++) {
+            ForecastResult fr = new ForecastResult();
+            fr.setConfig(config);
+            fr.setUser(user);
+            fr.setTargetDate(period.bucketStart(startDate, k));
+            fr.setForecastValue(BigDecimal.valueOf(forecasts[Math.min(k, forecasts.length - 1)]));
+            results.add(fr);
+        }
+        applyIntervals(results, bucketConfig, buckets, forecasts, startDate);
+        return CompletableFuture.completedFuture(results);
+    }
+
+    @Override
+    public double[] forecastSeries(ForecastConfig config, TimeSeries series, int horizonDays) {
+        return computeForecast(config, series, horizonDays);
+    }
+
+    @Override
+    public BacktestMetrics backtest(ForecastConfig config, SeriesPrefixStats stats, int folds, int horizonDays,
+                                   RollingOriginBacktest.WindowMode mode) {
+        if (SeriesPrefixStats.supports(config.getAlgorithm())) {
+            return RollingOriginBacktest.evaluate(stats, folds, horizonDays, mode,
+                    (from, to, h) -> stats.forecast(config, from, to, h), computeExecutor);
+        }
+        // Folds fit a detached copy: Holt-Winters records each fold's parameters on it, and those must
+        // not reach a managed config. Its folds run in order, each warm-starting from the previous one
+        ForecastConfig foldConfig = EnsembleMember.parametersOf(config);
+        foldConfig.setUser(config.getUser());
+        Executor foldExecutor = config.getAlgorithm() == ForecastConfig.AlgorithmType.HOLT_WINTERS ? null : computeExecutor;
+        return RollingOriginBacktest.evaluate(stats, folds, horizonDays, mode,
+                (from, to, h) -> computeForecast(foldConfig, stats.series().slice(from, to), h), foldExecutor);
+    }
+
+    /**
+     * Runs the kernel selected by {@code config} against {@code values}. Pure CPU work with no
+     * repository access, so it is safe to call concurrently for several configs sharing one series.
+     */
+    private double[] computeForecast(ForecastConfig config, TimeSeries values, int horizonDays) {
         switch (config.getAlgorithm()) {
             case SMA -> {
                 int w = config.getWindowSize() != null ? config.getWindowSize() : 7;
-                forecasts = projectFromHistory(simpleMovingAverage(values, w), horizonDays);
+                return projectFromHistory(simpleMovingAverage(values, w), horizonDays);
             }
             case EWMA -> {
                 double alpha = config.getSmoothingFactor() != null ? config.getSmoothingFactor() : 0.3d;
-                forecasts = projectFromHistory(exponentialWeightedMovingAverage(values, alpha), horizonDays);
+                return projectFromHistory(exponentialWeightedMovingAverage(values, alpha), horizonDays);
+            }
+            case LINEAR_REGRESSION -> {
+                return linearRegressionForecast(values, horizonDays);
             }
-            case LINEAR_REGRESSION -> forecasts = linearRegressionForecast(values, horizonDays);
             case SEASONAL_DECOMPOSITION -> {
-                int season = config.getSeasonLength() != null ? config.getSeasonLength() : 7;
-                forecasts = seasonalDecomposition(values, season, horizonDays);
+                int season = FusedForecastKernel.seasonOf(config);
+                return seasonalDecomposition(values, season, horizonDays);
+            }
+            case ARIMA -> {
+                return arimaForecast(values, orderOf(config.getArimaP()), orderOf(config.getArimaD()),
+                        orderOf(config.getArimaQ()), horizonDays);
+            }
+            case HOLT_WINTERS -> {
+                return fitHoltWinters(config, values, horizonDays);
+            }
+            case ENSEMBLE -> {
+                return weightedEnsemble(config.getUser().getId(), values, horizonDays);
             }
             default -> throw new IllegalArgumentException("Unsupported algorithm");
         }
+    }
 
-        List<ForecastResult> results = new ArrayList<>();
+    /**
+     * Forecasts every config against one shared series. Configs the fused kernel understands are
+     * evaluated together in a single pass; any others run as parallel tasks alongside it.
+     */
+    private double[][] evaluateAll(List<ForecastConfig> configs, TimeSeries values, int horizonDays) {
+        double[][] out = new double[configs.size()][];
+        List<ForecastConfig> fusable = new ArrayList<>();
+        List<Integer> fusableIdx = new ArrayList<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int c = 0; c < configs.size(); c++) {
+            ForecastConfig cfg = configs.get(c);
+            if (FusedForecastKernel.supports(cfg.getAlgorithm())) {
+                fusable.add(cfg);
+                fusableIdx.add(c);
+            } else {
+                int idx = c;
+                tasks.add(CompletableFuture.runAsync(() -> out[idx] = computeForecast(cfg, values, horizonDays), computeExecutor));
+            }
+        }
+        if (fusable.size() == 1) {
+            out[fusableIdx.get(0)] = computeForecast(fusable.get(0), values, horizonDays);
+        } else if (!fusable.isEmpty()) {
+            double[][] fused = fusedForecast(values, fusable, horizonDays);
+            for (int i = 0; i < fused.length; i++) out[fusableIdx.get(i)] = fused[i];
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        return out;
+    }
+
+    /**
+     * Fits Holt-Winters warm-started from the config's previous parameters and records the new
+     * ones on the config; callers persist them with {@link #saveFittedParameters}.
+     */
+    private double[] fitHoltWinters(ForecastConfig config, TimeSeries values, int horizonDays) {
+        int season = FusedForecastKernel.seasonOf(config);
+        if (season <= 1 || values.length() < season * 2) {
+            // Same fallback as seasonalDecomposition
+            return projectFromHistory(simpleMovingAverage(values, Math.min(7, Math.max(2, values.length()))), horizonDays);
+        }
+        boolean multiplicative = config.getSeasonalityMode() == ForecastConfig.SeasonalityMode.MULTIPLICATIVE;
+        HoltWintersModel model = HoltWintersModel.forCurrentThread().fit(values, season, multiplicative,
+                config.getFittedAlpha(), config.getFittedBeta(), config.getFittedGamma());
+        config.setFittedAlpha(model.alpha());
+        config.setFittedBeta(model.beta());
+        config.setFittedGamma(model.gamma());
+        return model.forecast(horizonDays, new double[horizonDays]);
+    }
+
+    /**
+     * Combines the user's best backtested configs with inverse-error weights, forecasting every
+     * member concurrently from the shared series. Members whose parameters do not fit the series
+     * are dropped and the remaining weights renormalised. Without backtests yet, the classic
+     * default kernels are averaged with equal weights.
+     */
+    private double[] weightedEnsemble(Long userId, TimeSeries values, int horizonDays) {
+        List<EnsembleMember> members = forecastEnsembleService.memberWeights(userId);
+        if (members.isEmpty()) {
+            members = DEFAULT_ENSEMBLE;
+        }
+        double[][] forecasts = new double[members.size()][];
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(members.size());
+        for (int m = 0; m < members.size(); m++) {
+            int idx = m;
+            // Each task gets its own parameter copy; Holt-Winters records fitted values on it
+            ForecastConfig member = EnsembleMember.parametersOf(members.get(m).config());
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    forecasts[idx] = computeForecast(member, values, horizonDays);
+                } catch (IllegalArgumentException e) {
+                    log.debug("Ensemble member {} skipped: {}", member.getAlgorithm(), e.getMessage());
+                }
+            }, computeExecutor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+        List<double[]> usable = new ArrayList<>(members.size());
+        List<Double> weights = new ArrayList<>(members.size());
+        for (int m = 0; m < members.size(); m++) {
+            if (forecasts[m] != null) {
+                usable.add(forecasts[m]);
+                weights.add(members.get(m).weight());
+            }
+        }
+        if (usable.isEmpty()) {
+            throw new IllegalArgumentException("No ensemble member can forecast this series");
+        }
+        return ensembleForecast(usable, weights.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    private static EnsembleMember defaultMember(ForecastConfig.AlgorithmType algorithm) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(algorithm);
+        return new EnsembleMember(cfg, 0.25);
+    }
+
+    private void saveFittedParameters(List<ForecastConfig> configs) {
+        List<ForecastConfig> fitted = new ArrayList<>();
+        for (ForecastConfig cfg : configs) {
+            if (cfg.getAlgorithm() == ForecastConfig.AlgorithmType.HOLT_WINTERS && cfg.getFittedAlpha() != null) {
+                fitted.add(cfg);
+            }
+        }
+        if (!fitted.isEmpty()) {
+            forecastConfigRepository.saveAll(fitted);
+        }
+    }
+
+    private static int orderOf(Integer order) {
+        return order != null ? order : ArimaModel.AUTO;
+    }
+
+    private List<ForecastResult> toResults(User user, ForecastConfig config, LocalDate startDate, double[] forecasts, int horizonDays) {
+        List<ForecastResult> results = new ArrayList<>(horizonDays);
         for (int i = 0; i < horizonDays; i++) {
             ForecastResult fr = new ForecastResult();
             fr.setConfig(config);
@@ -100,8 +387,141 @@ public class ForecastServiceImpl implements ForecastService {
             fr.setForecastValue(BigDecimal.valueOf(forecasts[Math.min(i, forecasts.length - 1)]));
             results.add(fr);
         }
+        return results;
+    }
+
+    /**
+     * Sets p10/p50/p90 on {@code results} from a residual bootstrap of the config's one-step
+     * errors over the last days of {@code values}. Left unset when intervals are disabled or too
+     * few residuals can be computed.
+     */
+    private void applyIntervals(List<ForecastResult> results, ForecastConfig config, TimeSeries values,
+                                double[] forecasts, LocalDate startDate) {
+        if (bootstrapPaths <= 0 || results.isEmpty()) {
+            return;
+        }
+        double[] residuals = oneStepResiduals(config, values);
+        if (residuals.length < 2) {
+            return;
+        }
+        double[] point = new double[results.size()];
+        for (int i = 0; i < point.length; i++) point[i] = forecasts[Math.min(i, forecasts.length - 1)];
+        // Seeded per config and date so regenerating a forecast reproduces its bounds
+        long seed = 31L * Objects.hashCode(config.getId()) + startDate.toEpochDay();
+        double[][] bands = ResidualBootstrap.intervals(point, residuals, bootstrapPaths, seed, computeExecutor);
+        for (int i = 0; i < results.size(); i++) {
+            ForecastResult fr = results.get(i);
+            fr.setForecastP10(BigDecimal.valueOf(bands[0][i]));
+            fr.setForecastP50(BigDecimal.valueOf(bands[1][i]));
+            fr.setForecastP90(BigDecimal.valueOf(bands[2][i]));
+        }
+    }
+
+    /**
+     * One-step-ahead errors of {@code config} at each of the last {@link #RESIDUAL_ORIGINS} days,
+     * trained on everything before that day. Prefix statistics serve the classic kernels in O(1)
+     * per origin; other models are refitted per origin in parallel. Origins the config cannot
+     * fit (window longer than the prefix...) are skipped.
+     */
+    private double[] oneStepResiduals(ForecastConfig config, TimeSeries values) {
+        int n = values.length();
+        int first = Math.max(2, n - RESIDUAL_ORIGINS);
+        if (first >= n) {
+            return new double[0];
+        }
+        double[] errors = new double[n - first];
+        Arrays.fill(errors, Double.NaN);
+        if (SeriesPrefixStats.supports(config.getAlgorithm())) {
+            SeriesPrefixStats stats = SeriesPrefixStats.of(values);
+            for (int t = first; t < n; t++) {
+                try {
+                    errors[t - first] = values.get(t) - stats.forecast(config, 0, t, 1)[0];
+                } catch (IllegalArgumentException ignored) {
+                    // prefix too short for this config
+                }
+            }
+        } else {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(errors.length);
+            for (int t = first; t < n; t++) {
+                int origin = t;
+                // Copies keep Holt-Winters refits from overwriting the config's fitted parameters
+                ForecastConfig copy = EnsembleMember.parametersOf(config);
+                copy.setUser(config.getUser());
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        errors[origin - first] = values.get(origin) - computeForecast(copy, values.head(origin), 1)[0];
+                    } catch (IllegalArgumentException ignored) {
+                        // prefix too short for this config
+                    }
+                }, computeExecutor));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        }
+        return Arrays.stream(errors).filter(Double::isFinite).toArray();
+    }
+
+    /**
+     * Gives seasonal configs without a configured season length the user's period detected over
+     * the history ending at {@code windowEnd}, the same history the forecast fits on. The
+     * detection is looked up at most once per call and is cached per data version and window end.
+     */
+    private void resolveSeasons(Long userId, List<ForecastConfig> configs, LocalDate windowEnd) {
+        Integer detected = null;
+        for (ForecastConfig cfg : configs) {
+            boolean seasonal = cfg.getAlgorithm() == ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION
+                    || cfg.getAlgorithm() == ForecastConfig.AlgorithmType.HOLT_WINTERS;
+            if (!seasonal || cfg.getSeasonLength() != null) continue;
+            if (detected == null) detected = seasonalityService.seasonLength(userId, windowEnd);
+            cfg.setDetectedSeasonLength(detected);
+        }
+    }
+
+    /**
+     * Seeds the incremental state of stored configs that have none yet, returning the history it
+     * loaded for them. Empty when every state already existed or seeding failed.
+     */
+    private Optional<TimeSeries> seedState(User user, List<ForecastConfig> configs, LocalDate startDate) {
+        try {
+            return forecastStateService.seed(user, configs, startDate.minusDays(1), LOOKBACK_DAYS,
+                    () -> loadHistory(user.getId(), CategorySeries.Filter.ALL, startDate));
+        } catch (RuntimeException e) {
+            // A concurrent request may have seeded the same config; the forecast itself is unaffected
+            log.warn("Could not seed forecast state for user {}: {}", user.getId(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Stored, unfiltered configs the fused kernel handles, which can be answered from incremental state. */
+    private static boolean stateful(ForecastConfig config) {
+        return config.getId() != null && CategorySeries.Filter.of(config).isAll()
+                && FusedForecastKernel.supports(config.getAlgorithm());
+    }
+
+    private TimeSeries loadHistory(Long userId, CategorySeries.Filter filter, LocalDate startDate) {
+        return loadSeries(userId, filter, startDate.minusDays(LOOKBACK_DAYS), startDate.minusDays(1));
+    }
+
+    private TimeSeries loadSeries(Long userId, CategorySeries.Filter filter, LocalDate from, LocalDate to) {
+        if (filter.isAll()) {
+            return TimeSeries.fromDailyTotals(financialDataRepository.getDailyTotals(userId, from, to), to);
+        }
+        return loadCategorySeries(userId, from, to).series(filter);
+    }
+
+    // Unfiltered batches keep the plain daily totals query; any filter switches to the grouped one
+    private Map<CategorySeries.Filter, TimeSeries> loadBatchSeries(Long userId, LocalDate startDate,
+                                                                   Map<CategorySeries.Filter, List<ForecastConfig>> groups) {
+        if (groups.size() == 1 && groups.containsKey(CategorySeries.Filter.ALL)) {
+            return Map.of(CategorySeries.Filter.ALL, loadHistory(userId, CategorySeries.Filter.ALL, startDate));
+        }
+        CategorySeries byCategory = loadCategorySeries(userId, startDate.minusDays(LOOKBACK_DAYS), startDate.minusDays(1));
+        Map<CategorySeries.Filter, TimeSeries> out = new HashMap<>();
+        for (CategorySeries.Filter filter : groups.keySet()) out.put(filter, byCategory.series(filter));
+        return out;
+    }
 
-        return java.util.concurrent.CompletableFuture.completedFuture(forecastResultRepository.saveAll(results));
+    private CategorySeries loadCategorySeries(Long userId, LocalDate from, LocalDate to) {
+        return CategorySeries.fromRows(financialDataRepository.getDailyTotalsByCategoryAndType(userId, from, to), to);
     }
 
     private double[] projectFromHistory(double[] smoothed, int horizon) {
@@ -112,13 +532,13 @@ public class ForecastServiceImpl implements ForecastService {
     }
 
     @Override
-    public double[] simpleMovingAverage(List<Double> values, int window) {
-        if (window <= 0 || values.size() < window) {
+    public double[] simpleMovingAverage(TimeSeries values, int window) {
+        if (window <= 0 || values.length() < window) {
             throw new IllegalArgumentException("Invalid window size for SMA");
         }
-        double[] out = new double[values.size() - window + 1];
+        double[] out = new double[values.length() - window + 1];
         double sum = 0.0;
-        for (int i = 0; i < values.size(); i++) {
+        for (int i = 0; i < values.length(); i++) {
             sum += values.get(i);
             if (i >= window) sum -= values.get(i - window);
             if (i >= window - 1) out[i - window + 1] = sum / window;
@@ -127,21 +547,21 @@ public class ForecastServiceImpl implements ForecastService {
     }
 
     @Override
-    public double[] exponentialWeightedMovingAverage(List<Double> values, double alpha) {
+    public double[] exponentialWeightedMovingAverage(TimeSeries values, double alpha) {
         if (alpha <= 0 || alpha >= 1) {
             throw new IllegalArgumentException("Alpha must be in (0,1)");
         }
-        double[] out = new double[values.size()];
+        double[] out = new double[values.length()];
         out[0] = values.get(0);
-        for (int i = 1; i < values.size(); i++) {
+        for (int i = 1; i < values.length(); i++) {
             out[i] = alpha * values.get(i) + (1 - alpha) * out[i - 1];
         }
         return out;
     }
 
     @Override
-    public double[] linearRegressionForecast(List<Double> values, int horizon) {
-        int n = values.size();
+    public double[] linearRegressionForecast(TimeSeries values, int horizon) {
+        int n = values.length();
         double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
         for (int i = 0; i < n; i++) {
             double x = i + 1;
@@ -162,15 +582,15 @@ public class ForecastServiceImpl implements ForecastService {
     }
 
     @Override
-    public double[] seasonalDecomposition(List<Double> values, int seasonLength, int horizon) {
-        if (seasonLength <= 1 || values.size() < seasonLength * 2) {
+    public double[] seasonalDecomposition(TimeSeries values, int seasonLength, int horizon) {
+        if (seasonLength <= 1 || values.length() < seasonLength * 2) {
             // Not enough data; fallback to SMA
-            return projectFromHistory(simpleMovingAverage(values, Math.min(7, Math.max(2, values.size()))), horizon);
+            return projectFromHistory(simpleMovingAverage(values, Math.min(7, Math.max(2, values.length()))), horizon);
         }
         // Compute seasonal indices (naive average by position in season)
         double[] season = new double[seasonLength];
         int[] counts = new int[seasonLength];
-        for (int i = 0; i < values.size(); i++) {
+        for (int i = 0; i < values.length(); i++) {
             int idx = i % seasonLength;
             season[idx] += values.get(i);
             counts[idx] += 1;
@@ -183,53 +603,73 @@ public class ForecastServiceImpl implements ForecastService {
         double[] trend = linearRegressionForecast(values, horizon + seasonLength);
         double[] out = new double[horizon];
         for (int i = 0; i < horizon; i++) {
-            out[i] = Math.max(0.0, trend[i] + season[(values.size() + i) % seasonLength] - seasonLength > 0 ? 0 : 0);
             // simplified: trend plus seasonal component (centered minimalistically)
-            out[i] = trend[i] + season[(values.size() + i) % seasonLength];
+            out[i] = trend[i] + season[(values.length() + i) % seasonLength];
         }
         return out;
     }
 
-    // Advanced algorithms (lightweight stubs; ready to replace with full impls)
     @Override
-    public double[] arimaForecast(List<Double> values, int p, int d, int q, int horizon) {
-        // Placeholder: fallback to linear regression projection
-        return linearRegressionForecast(values, horizon);
+    public double[][] fusedForecast(TimeSeries values, List<ForecastConfig> configs, int horizon) {
+        return FusedForecastKernel.evaluate(values, configs, horizon);
+    }
+
+    // Advanced algorithms
+    @Override
+    public double[] arimaForecast(TimeSeries values, int p, int d, int q, int horizon) {
+        return ArimaModel.forCurrentThread().fit(values, p, d, q).forecast(horizon, new double[horizon]);
     }
 
     @Override
-    public double[] prophetLikeDecomposition(List<Double> values, int seasonLength, int horizon) {
+    public double[] holtWintersForecast(TimeSeries values, int seasonLength, boolean multiplicative, int horizon) {
+        return HoltWintersModel.forCurrentThread().fit(values, seasonLength, multiplicative, null, null, null)
+                .forecast(horizon, new double[horizon]);
+    }
+
+    @Override
+    public double[] prophetLikeDecomposition(TimeSeries values, int seasonLength, int horizon) {
         return seasonalDecomposition(values, seasonLength, horizon);
     }
 
     @Override
     public double[] ensembleForecast(List<double[]> memberForecasts) {
+        if (memberForecasts == null || memberForecasts.isEmpty()) return new double[0];
+        double[] weights = new double[memberForecasts.size()];
+        Arrays.fill(weights, 1.0);
+        return ensembleForecast(memberForecasts, weights);
+    }
+
+    @Override
+    public double[] ensembleForecast(List<double[]> memberForecasts, double[] weights) {
         if (memberForecasts == null || memberForecasts.isEmpty()) return new double[0];
         int n = memberForecasts.get(0).length;
         double[] out = new double[n];
         for (int i = 0; i < n; i++) {
-            double sum = 0.0; int cnt = 0;
-            for (double[] f : memberForecasts) {
-                if (i < f.length) { sum += f[i]; cnt++; }
+            double sum = 0.0, weightSum = 0.0;
+            for (int m = 0; m < memberForecasts.size(); m++) {
+                double[] f = memberForecasts.get(m);
+                if (i < f.length) { sum += weights[m] * f[i]; weightSum += weights[m]; }
             }
-            out[i] = cnt == 0 ? 0.0 : sum / cnt;
+            out[i] = weightSum == 0 ? 0.0 : sum / weightSum;
         }
         return out;
     }
 
     @Override
-    public List<Integer> detectAnomalies(List<Double> values, double thresholdSigma) {
+    public List<Integer> detectAnomalies(TimeSeries values, double thresholdSigma) {
         if (values.isEmpty()) return Collections.emptyList();
-        double mean = 0.0;
-        for (double v : values) mean += v;
-        mean /= values.size();
+        int n = values.length();
+        double mean = values.sum() / n;
         double var = 0.0;
-        for (double v : values) var += (v - mean) * (v - mean);
-        var /= Math.max(1, values.size() - 1);
+        for (int i = 0; i < n; i++) {
+            double d = values.get(i) - mean;
+            var += d * d;
+        }
+        var /= Math.max(1, n - 1);
         double std = Math.sqrt(var);
         List<Integer> idxs = new ArrayList<>();
         double thr = Math.max(1e-9, thresholdSigma) * (std <= 1e-9 ? 1.0 : std);
-        for (int i = 0; i < values.size(); i++) {
+        for (int i = 0; i < n; i++) {
             if (Math.abs(values.get(i) - mean) > thr) idxs.add(i);
         }
         return idxs;
@@ -238,7 +678,7 @@ public class ForecastServiceImpl implements ForecastService {
     @Override
     @Transactional
     @Async
-    @Cacheable(value = "forecasts", key = "'bt-' + #userId + '-' + #config.id + '-' + #startDate + '-' + #horizonDays + '-' + #lookbackDays")
+    @Cacheable(value = "forecasts", key = "'bt-' + #userId + '-v' + @userDataVersionServiceImpl.current(#userId) + '-' + #config.id + '-' + #startDate + '-' + #horizonDays + '-' + #lookbackDays")
     public java.util.concurrent.CompletableFuture<List<ForecastResult>> backtestAndStoreAccuracy(Long userId,
                                                                                                  ForecastConfig config,
                                                                                                  LocalDate startDate,
@@ -251,49 +691,26 @@ public class ForecastServiceImpl implements ForecastService {
 
         LocalDate historyFrom = startDate.minusDays(lookbackDays + horizonDays);
         LocalDate historyTo = startDate.minusDays(1);
-        List<Object[]> dailyTotals = financialDataRepository.getDailyTotals(userId, historyFrom, historyTo);
-
-        List<Double> values = new ArrayList<>();
-        for (Object[] row : dailyTotals) {
-            java.math.BigDecimal amount = (java.math.BigDecimal) row[1];
-            values.add(amount.doubleValue());
-        }
-        if (values.size() < Math.max(7, horizonDays)) {
+        resolveSeasons(userId, List.of(config), historyTo);
+        TimeSeries values = loadSeries(userId, CategorySeries.Filter.of(config), historyFrom, historyTo);
+        if (values.length() < Math.max(7, horizonDays)) {
             return java.util.concurrent.CompletableFuture.completedFuture(Collections.emptyList());
         }
 
-        // Split into train/test
-        int split = Math.max(1, values.size() - horizonDays);
-        List<Double> train = values.subList(0, split);
-        List<Double> actual = values.subList(split, values.size());
-
+        // Rolling-origin folds over the loaded window, as many as fit up to BACKTEST_FOLDS
+        int folds = Math.max(1, Math.min(BACKTEST_FOLDS, (values.length() - 1) / horizonDays));
         double[] forecast;
-        switch (config.getAlgorithm()) {
-            case SMA -> {
-                int w = config.getWindowSize() != null ? config.getWindowSize() : 7;
-                forecast = linearRegressionForecast(train, horizonDays); // simple baseline; could use SMA projection
-            }
-            case EWMA -> {
-                double alpha = config.getSmoothingFactor() != null ? config.getSmoothingFactor() : 0.3d;
-                double[] ew = exponentialWeightedMovingAverage(train, alpha);
-                forecast = projectFromHistory(ew, horizonDays);
-            }
-            case LINEAR_REGRESSION -> forecast = linearRegressionForecast(train, horizonDays);
-            case SEASONAL_DECOMPOSITION -> {
-                int season = config.getSeasonLength() != null ? config.getSeasonLength() : 7;
-                forecast = seasonalDecomposition(train, season, horizonDays);
-            }
-            default -> throw new IllegalArgumentException("Unsupported algorithm");
-        }
-
-        // Compute MAPE
-        double mape = 0.0;
-        int n = Math.min(actual.size(), forecast.length);
-        for (int i = 0; i < n; i++) {
-            double a = Math.max(1e-9, Math.abs(actual.get(i)));
-            mape += Math.abs((actual.get(i) - forecast[i]) / a);
+        double mape;
+        try {
+            BacktestMetrics metrics = backtest(config, SeriesPrefixStats.of(values), folds, horizonDays,
+                    RollingOriginBacktest.WindowMode.EXPANDING);
+            mape = metrics.mape();
+            forecast = computeForecast(config, values, horizonDays);
+        } catch (IllegalArgumentException e) {
+            // Training prefix too short for the config's parameters (e.g. SMA window)
+            log.debug("Backtest skipped for config {}: {}", config.getId(), e.getMessage());
+            return java.util.concurrent.CompletableFuture.completedFuture(Collections.emptyList());
         }
-        mape = (mape / n) * 100.0;
 
         List<ForecastResult> results = new ArrayList<>();
         for (int i = 0; i < horizonDays; i++) {
@@ -305,31 +722,121 @@ public class ForecastServiceImpl implements ForecastService {
             fr.setMape(mape);
             results.add(fr);
         }
-        return java.util.concurrent.CompletableFuture.completedFuture(forecastResultRepository.saveAll(results));
+        forecastRunService.store(results);
+        return java.util.concurrent.CompletableFuture.completedFuture(results);
     }
 
     @Override
     @Transactional
     @Async
-    @Cacheable(value = "forecasts", key = "'batch-' + #userId + '-' + #startDate + '-' + #horizonDays + '-' + #configs.hashCode()")
+    // Keyed on the sorted config ids like the single-config key; batches with unsaved configs are not cached
+    @Cacheable(value = "forecasts", condition = "#configs != null && #configs.?[id == null].isEmpty()",
+            key = "'batch-' + #userId + '-v' + @userDataVersionServiceImpl.current(#userId) + '-' + #startDate + '-' + #horizonDays + '-' + new java.util.TreeSet(#configs.![id])")
     public CompletableFuture<Map<Long, List<ForecastResult>>> batchGenerateForecasts(Long userId,
                                                                                       List<ForecastConfig> configs,
                                                                                       LocalDate startDate,
                                                                                       int horizonDays) {
+        return CompletableFuture.completedFuture(generateBatch(userId, configs, startDate, horizonDays, null));
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, List<ForecastResult>> generateBatch(Long userId, List<ForecastConfig> configs,
+                                                         LocalDate startDate, int horizonDays, Long jobId) {
         Map<Long, List<ForecastResult>> out = new LinkedHashMap<>();
-        List<CompletableFuture<?>> futures = new ArrayList<>();
+        if (configs == null || configs.isEmpty()) {
+            return out;
+        }
+        log.info("Batch generating forecasts: userId={}, configs={}, horizon={}", userId, configs.size(), horizonDays);
+
+        // One user lookup and one history query shared by every config
+        User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        List<ForecastConfig> unsaved = new ArrayList<>();
+        // Only configs committed before this call can have state; seeding runs in its own transaction
+        List<ForecastConfig> stateful = new ArrayList<>();
         for (ForecastConfig cfg : configs) {
-            CompletableFuture<List<ForecastResult>> f = generateForecast(userId, cfg, startDate, horizonDays)
-                .thenApply(results -> {
-                    Long key = cfg.getId() != null ? cfg.getId() : -1L;
-                    out.put(key, results);
-                    return results;
-                });
-            futures.add(f);
-        }
-        // Wait for all
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        return CompletableFuture.completedFuture(out);
+            if (cfg.getUser() == null) cfg.setUser(user);
+            if (cfg.getId() == null) unsaved.add(cfg);
+            else if (stateful(cfg)) stateful.add(cfg);
+        }
+        if (!unsaved.isEmpty()) {
+            forecastConfigRepository.saveAll(unsaved);
+        }
+
+        LocalDate windowEnd = startDate.minusDays(1);
+        resolveSeasons(userId, configs, windowEnd);
+
+        // Configs with incremental state are answered from it; only the rest need history
+        Map<ForecastConfig, TimeSeries> seriesOf = new HashMap<>();
+        Map<ForecastConfig, double[]> forecastOf = new ConcurrentHashMap<>();
+        List<ForecastConfig> unseeded = new ArrayList<>();
+        List<ForecastConfig> fromHistory = new ArrayList<>(configs.size());
+        for (ForecastConfig cfg : configs) {
+            Optional<IncrementalForecastState> state = stateful.contains(cfg)
+                    ? forecastStateService.stateFor(cfg, windowEnd, LOOKBACK_DAYS)
+                    : Optional.empty();
+            if (state.isEmpty()) {
+                if (stateful.contains(cfg)) unseeded.add(cfg);
+                fromHistory.add(cfg);
+                continue;
+            }
+            double[] forecast = state.get().forecast(horizonDays);
+            if (forecast.length > 0) {
+                forecastOf.put(cfg, forecast);
+                seriesOf.put(cfg, state.get().series());
+            }
+        }
+        if (!unseeded.isEmpty()) {
+            seedState(user, unseeded, startDate);
+        }
+
+        // Configs sharing a category/type filter share one series; every series comes from one query
+        Map<CategorySeries.Filter, List<ForecastConfig>> groups = new LinkedHashMap<>();
+        for (ForecastConfig cfg : fromHistory) {
+            groups.computeIfAbsent(CategorySeries.Filter.of(cfg), f -> new ArrayList<>()).add(cfg);
+        }
+        if (!groups.isEmpty()) {
+            loadBatchSeries(userId, startDate, groups).forEach((filter, values) -> {
+                for (ForecastConfig cfg : groups.get(filter)) seriesOf.put(cfg, values);
+            });
+        }
+        List<Runnable> evaluations = new ArrayList<>(groups.size());
+        for (List<ForecastConfig> group : groups.values()) {
+            TimeSeries values = seriesOf.get(group.get(0));
+            if (values.isEmpty()) continue;
+            evaluations.add(() -> {
+                double[][] forecasts = evaluateAll(group, values, horizonDays);
+                for (int c = 0; c < group.size(); c++) forecastOf.put(group.get(c), forecasts[c]);
+            });
+        }
+        if (evaluations.size() == 1) {
+            evaluations.get(0).run();
+        } else {
+            CompletableFuture.allOf(evaluations.stream()
+                    .map(e -> CompletableFuture.runAsync(e, computeExecutor))
+                    .toArray(CompletableFuture[]::new)).join();
+        }
+        saveFittedParameters(configs.stream().filter(forecastOf::containsKey).toList());
+
+        List<ForecastResult> all = new ArrayList<>(configs.size() * horizonDays);
+        for (ForecastConfig cfg : configs) {
+            double[] forecast = forecastOf.get(cfg);
+            if (forecast == null) {
+                out.put(cfg.getId(), Collections.emptyList());
+                continue;
+            }
+            List<ForecastResult> results = toResults(user, cfg, startDate, forecast, horizonDays);
+            applyIntervals(results, cfg, seriesOf.get(cfg), forecast, startDate);
+            results.forEach(fr -> fr.setJobId(jobId));
+            out.put(cfg.getId(), results);
+            all.addAll(results);
+        }
+        if (all.isEmpty()) {
+            return out;
+        }
+        // Single batched write, one run per config
+        forecastRunService.store(all);
+        return out;
     }
 }
 
@@ -0,0 +1,173 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastModelState;
+import com.financeapp.entity.User;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastModelStateRepository;
+import com.financeapp.service.ForecastStateService;
+import com.financeapp.service.forecast.FusedForecastKernel;
+import com.financeapp.service.forecast.IncrementalForecastState;
+import com.financeapp.service.forecast.TimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Service
+public class ForecastStateServiceImpl implements ForecastStateService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastStateServiceImpl.class);
+
+    private final ForecastModelStateRepository stateRepository;
+    private final FinancialDataRepository financialDataRepository;
+
+    public ForecastStateServiceImpl(ForecastModelStateRepository stateRepository,
+                                    FinancialDataRepository financialDataRepository) {
+        this.stateRepository = stateRepository;
+        this.financialDataRepository = financialDataRepository;
+    }
+
+    @Override
+    @Transactional
+    public void recordChanges(Long userId, Map<LocalDate, BigDecimal> deltas) {
+        if (userId == null || deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        List<ForecastModelState> states = stateRepository.findByUserIdForUpdate(userId);
+        for (ForecastModelState entity : states) {
+            IncrementalForecastState state = toState(entity);
+            deltas.forEach((date, delta) -> state.apply(date, toCents(delta)));
+            copyInto(state, entity);
+        }
+        if (!states.isEmpty()) {
+            log.debug("Applied {} day deltas to {} forecast states for user {}", deltas.size(), states.size(), userId);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<IncrementalForecastState> stateFor(ForecastConfig config, LocalDate windowEnd, int lookbackDays) {
+        if (config.getId() == null || !FusedForecastKernel.supports(config.getAlgorithm())) {
+            return Optional.empty();
+        }
+        Optional<ForecastModelState> stored = stateRepository.findByConfigId(config.getId());
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        IncrementalForecastState state = toState(stored.get());
+        if (!matches(state, config, lookbackDays) || windowEnd.isBefore(state.endDate())) {
+            // Config changed or a historical window was requested; caller recomputes from history
+            return Optional.empty();
+        }
+        if (windowEnd.isAfter(state.endDate()) && hasDataBetween(stored.get().getUser().getId(), state.endDate(), windowEnd)) {
+            // Any write after the window end would have advanced it, so these records predate the
+            // state (e.g. it was seeded for a past window); rolling forward would read them as zero
+            return Optional.empty();
+        }
+        // Rolling forward only adds empty days; the persisted copy catches up on the next write
+        state.advanceTo(windowEnd.toEpochDay());
+        return Optional.of(state);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<TimeSeries> seed(User user, List<ForecastConfig> configs, LocalDate windowEnd, int lookbackDays,
+                                     Supplier<TimeSeries> history) {
+        // Same lock as recordChanges: a write either committed before the history below is read,
+        // or applies its delta to the seeded state once this transaction commits. A user's very
+        // first state has no row to lock yet, so only writes already committed are covered then.
+        Map<Long, ForecastModelState> existing = new HashMap<>();
+        for (ForecastModelState entity : stateRepository.findByUserIdForUpdate(user.getId())) {
+            existing.put(entity.getConfig().getId(), entity);
+        }
+        List<ForecastConfig> stale = new ArrayList<>();
+        for (ForecastConfig config : configs) {
+            if (config.getId() == null || !FusedForecastKernel.supports(config.getAlgorithm())) continue;
+            ForecastModelState entity = existing.get(config.getId());
+            if (entity == null || isStale(toState(entity), config, windowEnd, lookbackDays)) stale.add(config);
+        }
+        if (stale.isEmpty()) {
+            return Optional.empty();
+        }
+
+        TimeSeries values = history.get();
+        List<ForecastModelState> seeded = new ArrayList<>(stale.size());
+        for (ForecastConfig config : stale) {
+            IncrementalForecastState state = IncrementalForecastState.seed(config.getAlgorithm(), windowOf(config),
+                    alphaOf(config), seasonOf(config), lookbackDays, windowEnd, values);
+            ForecastModelState entity = existing.getOrDefault(config.getId(), new ForecastModelState());
+            entity.setUser(user);
+            entity.setConfig(config);
+            entity.setAlgorithm(state.algorithm());
+            entity.setWindowSize(state.window());
+            entity.setSmoothingFactor(state.alpha());
+            entity.setSeasonLength(state.seasonLength());
+            entity.setCapacityDays(state.capacity());
+            copyInto(state, entity);
+            seeded.add(entity);
+        }
+        stateRepository.saveAll(seeded);
+        log.debug("Seeded {} forecast states for user {} at {}", seeded.size(), user.getId(), windowEnd);
+        return Optional.of(values);
+    }
+
+    /** Behind states are reseeded too: callers only seed them once stateFor declined to roll them forward. */
+    private static boolean isStale(IncrementalForecastState state, ForecastConfig config, LocalDate windowEnd,
+                                   int lookbackDays) {
+        return !matches(state, config, lookbackDays) || state.endDate().isBefore(windowEnd);
+    }
+
+    private boolean hasDataBetween(Long userId, LocalDate after, LocalDate to) {
+        Long count = financialDataRepository.getCountByTypeAndDateRange(userId, null, after.plusDays(1), to);
+        return count != null && count > 0;
+    }
+
+    private static boolean matches(IncrementalForecastState state, ForecastConfig config, int lookbackDays) {
+        return state.matches(config.getAlgorithm(), windowOf(config), alphaOf(config), seasonOf(config), lookbackDays);
+    }
+
+    private static IncrementalForecastState toState(ForecastModelState e) {
+        return IncrementalForecastState.restore(e.getAlgorithm(), e.getWindowSize(), e.getSmoothingFactor(),
+                e.getSeasonLength(), e.getCapacityDays(), e.getEndDate(), e.getFirstDataDate(), e.getRingCents(),
+                e.getSeasonSumsCents(), e.getSumYCents(), e.getSumXYCents(), e.getWindowSumCents(), e.getEwmaWeightedSum());
+    }
+
+    private static void copyInto(IncrementalForecastState state, ForecastModelState e) {
+        e.setEndDate(state.endDate());
+        e.setFirstDataDate(state.firstDataDate());
+        e.setSumYCents(state.sumY());
+        e.setSumXYCents(state.sumXY());
+        e.setWindowSumCents(state.windowSum());
+        e.setEwmaWeightedSum(state.ewmaSum());
+        e.setRingCents(state.ringBytes());
+        e.setSeasonSumsCents(state.seasonSumBytes());
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static int windowOf(ForecastConfig config) {
+        return config.getWindowSize() != null ? config.getWindowSize() : FusedForecastKernel.DEFAULT_WINDOW;
+    }
+
+    private static double alphaOf(ForecastConfig config) {
+        return config.getSmoothingFactor() != null ? config.getSmoothingFactor() : FusedForecastKernel.DEFAULT_ALPHA;
+    }
+
+    private static int seasonOf(ForecastConfig config) {
+        return FusedForecastKernel.seasonOf(config);
+    }
+}
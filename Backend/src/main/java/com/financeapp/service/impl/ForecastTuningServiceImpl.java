@@ -0,0 +1,242 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.dto.ForecastDtos;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastPerformance;
+import com.financeapp.entity.User;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastPerformanceRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.ForecastEnsembleService;
+import com.financeapp.service.ForecastService;
+import com.financeapp.service.ForecastTuningService;
+import com.financeapp.service.forecast.BacktestMetrics;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+import com.financeapp.service.forecast.SeriesPrefixStats;
+import com.financeapp.service.forecast.TimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+@Service
+public class ForecastTuningServiceImpl implements ForecastTuningService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastTuningServiceImpl.class);
+
+    private static final int[] WINDOWS = {3, 5, 7, 14, 21, 28};
+    private static final double[] ALPHAS = {0.1, 0.2, 0.3, 0.5, 0.7, 0.9};
+    private static final int[] SEASONS = {7, 14, 30};
+    private static final int[] HOLT_WINTERS_SEASONS = {7, 30};
+
+    private final ForecastService forecastService;
+    private final FinancialDataRepository financialDataRepository;
+    private final ForecastConfigRepository forecastConfigRepository;
+    private final ForecastPerformanceRepository forecastPerformanceRepository;
+    private final UserRepository userRepository;
+    private final ForecastEnsembleService forecastEnsembleService;
+    private final Executor computeExecutor = ForkJoinPool.commonPool();
+
+    public ForecastTuningServiceImpl(ForecastService forecastService,
+                                     FinancialDataRepository financialDataRepository,
+                                     ForecastConfigRepository forecastConfigRepository,
+                                     ForecastPerformanceRepository forecastPerformanceRepository,
+                                     UserRepository userRepository,
+                                     ForecastEnsembleService forecastEnsembleService) {
+        this.forecastService = forecastService;
+        this.financialDataRepository = financialDataRepository;
+        this.forecastConfigRepository = forecastConfigRepository;
+        this.forecastPerformanceRepository = forecastPerformanceRepository;
+        this.userRepository = userRepository;
+        this.forecastEnsembleService = forecastEnsembleService;
+    }
+
+    @Override
+    @Transactional
+    @Async
+    public CompletableFuture<ForecastDtos.TuningResultDto> tune(Long userId, LocalDate startDate, int horizonDays,
+                                                                int lookbackDays, int folds,
+                                                                RollingOriginBacktest.WindowMode mode) {
+        User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        log.info("Tuning forecast configs: userId={}, horizon={}, lookback={}, folds={}", userId, horizonDays, lookbackDays, folds);
+
+        ForecastDtos.TuningResultDto result = new ForecastDtos.TuningResultDto();
+        result.userId = userId;
+        result.horizonDays = horizonDays;
+        result.lookbackDays = lookbackDays;
+        result.folds = folds;
+        result.windowMode = mode.name();
+        result.candidates = new ArrayList<>();
+
+        LocalDate to = startDate.minusDays(1);
+        TimeSeries series = TimeSeries.fromDailyTotals(
+                financialDataRepository.getDailyTotals(userId, startDate.minusDays(lookbackDays), to), to);
+        if (series.length() <= folds * horizonDays) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        List<ForecastConfig> candidates = candidateConfigs(user);
+
+        // Every candidate backtests against the same prefix statistics in parallel
+        SeriesPrefixStats stats = SeriesPrefixStats.of(series);
+        BacktestMetrics[] metrics = new BacktestMetrics[candidates.size()];
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(candidates.size());
+        for (int c = 0; c < candidates.size(); c++) {
+            int idx = c;
+            ForecastConfig cfg = candidates.get(c);
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    metrics[idx] = forecastService.backtest(cfg, stats, folds, horizonDays, mode);
+                } catch (IllegalArgumentException e) {
+                    // Parameters not applicable to this series (window too long, zeros for multiplicative...)
+                    log.debug("Skipping tuning candidate {}: {}", keyOf(cfg), e.getMessage());
+                }
+            }, computeExecutor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+        // Only new candidates that produced a score are persisted; the rest never reach the database
+        List<ForecastConfig> scoredNew = new ArrayList<>();
+        List<Long> reusedIds = new ArrayList<>();
+        for (int c = 0; c < candidates.size(); c++) {
+            ForecastConfig cfg = candidates.get(c);
+            if (cfg.getId() != null) reusedIds.add(cfg.getId());
+            else if (metrics[c] != null) scoredNew.add(cfg);
+        }
+        if (!scoredNew.isEmpty()) {
+            forecastConfigRepository.saveAll(scoredNew);
+        }
+        // A rerun over the same horizon and lookback replaces the previous scores instead of adding to them
+        if (!reusedIds.isEmpty()) {
+            forecastPerformanceRepository.deleteForConfigs(userId, reusedIds, horizonDays, lookbackDays);
+        }
+
+        List<ForecastPerformance> rows = new ArrayList<>();
+        int best = -1;
+        for (int c = 0; c < candidates.size(); c++) {
+            BacktestMetrics m = metrics[c];
+            if (m == null) continue;
+            ForecastConfig cfg = candidates.get(c);
+            ForecastPerformance perf = new ForecastPerformance();
+            perf.setConfig(cfg);
+            perf.setUser(user);
+            perf.setMape(m.mape());
+            perf.setSmape(m.smape());
+            perf.setMase(Double.isNaN(m.mase()) ? null : m.mase());
+            perf.setRmse(m.rmse());
+            perf.setBias(m.bias());
+            perf.setFolds(m.folds());
+            perf.setHorizonDays(horizonDays);
+            perf.setLookbackDays(lookbackDays);
+            rows.add(perf);
+
+            ForecastDtos.AccuracyMetricsDto dto = new ForecastDtos.AccuracyMetricsDto();
+            dto.configId = cfg.getId();
+            dto.algorithm = cfg.getAlgorithm().name();
+            dto.mape = m.mape();
+            dto.smape = m.smape();
+            dto.mase = perf.getMase();
+            dto.rmse = m.rmse();
+            dto.bias = m.bias();
+            dto.horizonDays = horizonDays;
+            dto.lookbackDays = lookbackDays;
+            result.candidates.add(dto);
+
+            if (best < 0 || score(m) < score(metrics[best])) best = c;
+        }
+        forecastPerformanceRepository.saveAll(rows);
+        if (!rows.isEmpty()) {
+            forecastEnsembleService.refreshWeights(userId);
+        }
+
+        if (best >= 0) {
+            ForecastConfig winner = candidates.get(best);
+            forecastConfigRepository.clearSelectionExcept(userId, winner.getId());
+            winner.setSelected(true);
+            forecastConfigRepository.save(winner);
+            result.selectedConfigId = winner.getId();
+            log.info("Selected config {} ({}) for user {} with score {}", winner.getId(), winner.getAlgorithm(), userId, score(metrics[best]));
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * MASE is scale-free and defined on zero-spend days; it is NaN for every candidate alike only
+     * when all training windows are constant, in which case sMAPE ranks instead.
+     */
+    private static double score(BacktestMetrics m) {
+        return Double.isNaN(m.mase()) ? m.smape() : m.mase();
+    }
+
+    /**
+     * The search grid. Existing unfiltered configs with the same parameters are reused so repeated
+     * tuning runs do not accumulate duplicates; the others are returned unsaved.
+     */
+    private List<ForecastConfig> candidateConfigs(User user) {
+        Map<String, ForecastConfig> existing = new HashMap<>();
+        for (ForecastConfig cfg : forecastConfigRepository.findAllForUser(user.getId())) {
+            if (cfg.getCategory() == null && cfg.getTransactionType() == null) {
+                existing.putIfAbsent(keyOf(cfg), cfg);
+            }
+        }
+
+        List<ForecastConfig> grid = new ArrayList<>();
+        for (int w : WINDOWS) {
+            ForecastConfig cfg = candidate(user, ForecastConfig.AlgorithmType.SMA);
+            cfg.setWindowSize(w);
+            grid.add(cfg);
+        }
+        for (double alpha : ALPHAS) {
+            ForecastConfig cfg = candidate(user, ForecastConfig.AlgorithmType.EWMA);
+            cfg.setSmoothingFactor(alpha);
+            grid.add(cfg);
+        }
+        grid.add(candidate(user, ForecastConfig.AlgorithmType.LINEAR_REGRESSION));
+        for (int season : SEASONS) {
+            ForecastConfig cfg = candidate(user, ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION);
+            cfg.setSeasonLength(season);
+            grid.add(cfg);
+        }
+        for (int season : HOLT_WINTERS_SEASONS) {
+            for (ForecastConfig.SeasonalityMode mode : ForecastConfig.SeasonalityMode.values()) {
+                ForecastConfig cfg = candidate(user, ForecastConfig.AlgorithmType.HOLT_WINTERS);
+                cfg.setSeasonLength(season);
+                cfg.setSeasonalityMode(mode);
+                grid.add(cfg);
+            }
+        }
+        // Orders left unset are selected by AIC
+        grid.add(candidate(user, ForecastConfig.AlgorithmType.ARIMA));
+
+        List<ForecastConfig> candidates = new ArrayList<>(grid.size());
+        for (ForecastConfig cfg : grid) {
+            candidates.add(existing.getOrDefault(keyOf(cfg), cfg));
+        }
+        return candidates;
+    }
+
+    private static ForecastConfig candidate(User user, ForecastConfig.AlgorithmType algorithm) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(algorithm);
+        return cfg;
+    }
+
+    private static String keyOf(ForecastConfig cfg) {
+        return cfg.getAlgorithm() + "|" + cfg.getWindowSize() + "|" + cfg.getSmoothingFactor() + "|"
+                + cfg.getSeasonLength() + "|" + Objects.requireNonNullElse(cfg.getSeasonalityMode(), ForecastConfig.SeasonalityMode.ADDITIVE)
+                + "|" + cfg.getArimaP() + "|" + cfg.getArimaD() + "|" + cfg.getArimaQ();
+    }
+}
@@ -0,0 +1,176 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.service.ForecastJobLeaseService;
+import com.financeapp.service.ForecastService;
+import com.financeapp.service.NightlyForecastService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs in two phases so any number of instances can share a nightly run. First every node pages
+ * through users with active configs in ascending id order and enqueues one {@link ForecastJob}
+ * per user for the run date, resuming after the last user already enqueued. Then each node
+ * repeatedly leases a batch of jobs through {@link ForecastJobLeaseService} and forecasts it on
+ * virtual threads, with at most {@code app.forecast.nightly.concurrency} users in flight. Every
+ * user runs in its own transaction; jobs left behind by a crashed node are reclaimed once their
+ * lease expires. While the run works, a dedicated heartbeat thread renews this node's leases, so
+ * they never depend on a free scheduler thread.
+ */
+@Service
+public class NightlyForecastServiceImpl implements NightlyForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(NightlyForecastServiceImpl.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ForecastService forecastService;
+    private final ForecastConfigRepository forecastConfigRepository;
+    private final ForecastJobRepository forecastJobRepository;
+    private final ForecastJobLeaseService forecastJobLeaseService;
+
+    @Value("${app.forecast.nightly.concurrency:16}")
+    private int concurrency = 16;
+
+    @Value("${app.forecast.nightly.page-size:500}")
+    private int pageSize = 500;
+
+    @Value("${app.forecast.nightly.horizon-days:7}")
+    private int horizonDays = 7;
+
+    // Must fire well within app.forecast.lease.ttl-seconds
+    @Value("${app.forecast.lease.heartbeat-ms:60000}")
+    private long heartbeatMs = 60_000;
+
+    public NightlyForecastServiceImpl(ForecastService forecastService,
+                                      ForecastConfigRepository forecastConfigRepository,
+                                      ForecastJobRepository forecastJobRepository,
+                                      ForecastJobLeaseService forecastJobLeaseService) {
+        this.forecastService = forecastService;
+        this.forecastConfigRepository = forecastConfigRepository;
+        this.forecastJobRepository = forecastJobRepository;
+        this.forecastJobLeaseService = forecastJobLeaseService;
+    }
+
+    @Override
+    public int runNightly(LocalDate runDate) {
+        enqueueUsers(runDate);
+
+        int completed = 0;
+        int permits = Math.max(1, concurrency);
+        Semaphore inFlight = new Semaphore(permits);
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("forecast-lease-heartbeat").daemon().factory());
+        heartbeat.scheduleWithFixedDelay(this::renewLeases, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<ForecastJob> batch;
+            while (!(batch = forecastJobLeaseService.claim(runDate, permits * 2)).isEmpty()) {
+                List<Future<Boolean>> running = new ArrayList<>(batch.size());
+                for (ForecastJob job : batch) {
+                    running.add(workers.submit(() -> {
+                        inFlight.acquire();
+                        try {
+                            return runUser(job, runDate);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                }
+                for (Future<Boolean> result : running) {
+                    if (result.get()) completed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Nightly forecasts for {} interrupted on node {}", runDate, forecastJobLeaseService.nodeId());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Nightly forecast worker failed", e.getCause());
+        } finally {
+            heartbeat.shutdownNow();
+        }
+        log.info("Nightly forecasts for {}: node {} completed {} users", runDate, forecastJobLeaseService.nodeId(), completed);
+        return completed;
+    }
+
+    private void renewLeases() {
+        try {
+            int renewed = forecastJobLeaseService.renewLeases();
+            if (renewed > 0) {
+                log.debug("Renewed {} forecast job leases", renewed);
+            }
+        } catch (RuntimeException e) {
+            // A failed beat must not cancel the schedule; the next one retries well within the TTL
+            log.warn("Could not renew forecast job leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the run's PENDING jobs page by page, starting after the last user that already has
+     * one. Nodes enqueueing concurrently collide on the (run_date, user_id) key; the loser falls
+     * back to inserting the page one job at a time and skips the users it lost.
+     */
+    private void enqueueUsers(LocalDate runDate) {
+        Long last = forecastJobRepository.findLastUserIdForRun(runDate);
+        long cursor = last != null ? last : 0L;
+        while (true) {
+            List<Long> userIds = forecastConfigRepository.findActiveUserIdsAfter(cursor, PageRequest.of(0, pageSize));
+            if (userIds.isEmpty()) {
+                return;
+            }
+            Set<Long> existing = new HashSet<>();
+            for (ForecastJob job : forecastJobRepository.findForRun(runDate, userIds)) {
+                existing.add(job.getUser().getId());
+            }
+            List<Long> missing = userIds.stream().filter(id -> !existing.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                try {
+                    forecastJobLeaseService.enqueue(runDate, missing);
+                } catch (DataIntegrityViolationException e) {
+                    for (Long userId : missing) {
+                        try {
+                            forecastJobLeaseService.enqueue(runDate, List.of(userId));
+                        } catch (DataIntegrityViolationException ignored) {
+                            // enqueued by another node
+                        }
+                    }
+                }
+            }
+            cursor = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    private boolean runUser(ForecastJob job, LocalDate runDate) {
+        Long userId = job.getUser().getId();
+        try {
+            List<ForecastConfig> configs = forecastConfigRepository.findActiveForUser(userId);
+            forecastService.generateBatch(userId, configs, runDate.plusDays(1), horizonDays, job.getId());
+            return forecastJobLeaseService.finish(job.getId(), ForecastJob.Status.COMPLETED, null);
+        } catch (RuntimeException e) {
+            log.warn("Nightly forecast failed for user {}: {}", userId, e.getMessage());
+            String message = String.valueOf(e.getMessage());
+            forecastJobLeaseService.finish(job.getId(), ForecastJob.Status.FAILED,
+                    message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.financeapp.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeapp.entity.CategorySpendingStats;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastAnomaly;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.CategorySpendingStatsRepository;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.OnlineAnomalyService;
+import com.financeapp.service.forecast.RunningStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistics live in a {@link ConcurrentHashMap}; each update runs inside {@code compute}, so
+ * concurrent writes for the same user and category are applied one at a time without a lock
+ * shared across keys. Expenses are scored when recorded but only folded into the statistics once
+ * their transaction commits, so a rolled-back write leaves no trace. Each committed update is also
+ * kept as a delta since the last snapshot; {@link #snapshot()}, run on a schedule and at
+ * shutdown, merges those deltas into the locked rows, so every node adds its own observations to
+ * the shared totals instead of overwriting them. At most one snapshot interval of updates is lost
+ * on a crash.
+ */
+@Service
+public class OnlineAnomalyServiceImpl implements OnlineAnomalyService {
+
+    private static final Logger log = LoggerFactory.getLogger(OnlineAnomalyServiceImpl.class);
+
+    private static final String METHOD = "welford";
+
+    private record Key(Long userId, Category category) {}
+
+    private final ForecastAnomalyRepository forecastAnomalyRepository;
+    private final CategorySpendingStatsRepository categorySpendingStatsRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    // This node's view: the last snapshot it merged plus everything committed here since
+    private final ConcurrentHashMap<Key, RunningStats> stats = new ConcurrentHashMap<>();
+    // Committed here and not yet snapshotted; only changed inside stats.compute for the same key
+    private final ConcurrentHashMap<Key, RunningStats> pending = new ConcurrentHashMap<>();
+
+    @Value("${app.anomaly.online.threshold:3.0}")
+    private double threshold = 3.0;
+
+    @Value("${app.anomaly.online.min-samples:10}")
+    private int minSamples = 10;
+
+    @Value("${app.anomaly.online.restore-page-size:1000}")
+    private int restorePageSize = 1000;
+
+    public OnlineAnomalyServiceImpl(ForecastAnomalyRepository forecastAnomalyRepository,
+                                    CategorySpendingStatsRepository categorySpendingStatsRepository,
+                                    UserRepository userRepository,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.forecastAnomalyRepository = forecastAnomalyRepository;
+        this.categorySpendingStatsRepository = categorySpendingStatsRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public List<ForecastAnomaly> recordCreated(List<FinancialData> created) {
+        List<ForecastAnomaly> flagged = new ArrayList<>();
+        // Rows of one call are scored in order, each against the statistics before it, so an
+        // outlier cannot hide itself; the shared statistics change only after commit
+        Map<Key, RunningStats> scoring = new HashMap<>();
+        Map<Key, RunningStats> deltas = new HashMap<>();
+        for (FinancialData fd : created) {
+            if (fd.getType() != TransactionType.EXPENSE || fd.getCategory() == null || fd.getAmount() == null) {
+                continue;
+            }
+            Key key = new Key(fd.getUser().getId(), fd.getCategory());
+            double amount = fd.getAmount().doubleValue();
+            RunningStats s = scoring.computeIfAbsent(key, this::copyOf);
+            double zscore = s.count() >= minSamples ? s.zscore(amount) : Double.NaN;
+            if (!Double.isNaN(zscore) && Math.abs(zscore) >= threshold) {
+                ForecastAnomaly anomaly = new ForecastAnomaly();
+                anomaly.setUser(fd.getUser());
+                anomaly.setDate(fd.getDate());
+                anomaly.setCategory(fd.getCategory());
+                anomaly.setValue(amount);
+                anomaly.setZscore(zscore);
+                anomaly.setParamsJson(params(s.mean(), s.stddev()));
+                flagged.add(anomaly);
+            }
+            s.add(amount);
+            deltas.computeIfAbsent(key, k -> new RunningStats()).add(amount);
+        }
+        if (!deltas.isEmpty()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        deltas.forEach(OnlineAnomalyServiceImpl.this::apply);
+                    }
+                });
+            } else {
+                deltas.forEach(this::apply);
+            }
+        }
+        return flagged.isEmpty() ? flagged : forecastAnomalyRepository.saveAll(flagged);
+    }
+
+    @Override
+    @Transactional
+    public int snapshot() {
+        Set<Long> userIds = new HashSet<>();
+        pending.keySet().forEach(k -> userIds.add(k.userId()));
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        // Users deleted since their last expense are dropped rather than snapshotted
+        Set<Long> existing = new HashSet<>();
+        userRepository.findAllById(userIds).forEach(u -> existing.add(u.getId()));
+        for (Key key : pending.keySet()) {
+            if (!existing.contains(key.userId())) {
+                pending.remove(key);
+                stats.remove(key);
+            }
+        }
+        userIds.retainAll(existing);
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        // Locked rows make concurrent snapshots from other nodes merge one after another
+        Map<Key, CategorySpendingStats> rows = new HashMap<>();
+        for (CategorySpendingStats row : categorySpendingStatsRepository.lockByUserIds(userIds)) {
+            rows.put(new Key(row.getUser().getId(), row.getCategory()), row);
+        }
+        Map<Key, RunningStats> drained = new HashMap<>();
+        Map<Key, RunningStats> totals = new HashMap<>();
+        List<CategorySpendingStats> toSave = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            RunningStats delta = userIds.contains(key.userId()) ? pending.remove(key) : null;
+            if (delta == null) {
+                continue; // user first seen after the lock; next snapshot
+            }
+            CategorySpendingStats row = rows.get(key);
+            RunningStats total = row == null ? new RunningStats()
+                    : RunningStats.of(row.getSampleCount(), row.getMean(), row.getM2());
+            total.merge(delta);
+            if (row == null) {
+                row = new CategorySpendingStats();
+                row.setUser(userRepository.getReferenceById(key.userId()));
+                row.setCategory(key.category());
+            }
+            row.setSampleCount(total.count());
+            row.setMean(total.mean());
+            row.setM2(total.m2());
+            toSave.add(row);
+            drained.put(key, delta);
+            totals.put(key, total);
+        }
+        categorySpendingStatsRepository.saveAll(toSave);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    // Pick up what other nodes merged, keeping what arrived here since the drain
+                    totals.forEach((key, total) -> stats.compute(key, (k, s) -> {
+                        RunningStats view = total.copy();
+                        RunningStats since = pending.get(k);
+                        if (since != null) view.merge(since);
+                        return view;
+                    }));
+                } else {
+                    drained.forEach((key, delta) -> stats.compute(key, (k, s) -> {
+                        pending.merge(k, delta, OnlineAnomalyServiceImpl::merged);
+                        return s;
+                    }));
+                }
+            }
+        });
+        log.debug("Snapshotted {} category spending statistics", toSave.size());
+        return toSave.size();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int restore() {
+        int loaded = 0;
+        long cursor = 0L;
+        List<CategorySpendingStats> page;
+        while (!(page = categorySpendingStatsRepository.findPageAfter(cursor, PageRequest.of(0, restorePageSize))).isEmpty()) {
+            for (CategorySpendingStats row : page) {
+                RunningStats saved = RunningStats.of(row.getSampleCount(), row.getMean(), row.getM2());
+                stats.merge(new Key(row.getUser().getId(), row.getCategory()), saved, (current, snapshot) -> {
+                    current.merge(snapshot);
+                    return current;
+                });
+                loaded++;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
+        log.info("Restored {} category spending statistics", loaded);
+        return loaded;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            // Called directly, not through the proxy, so the transaction is opened here
+            transactionTemplate.execute(status -> snapshot());
+        } catch (RuntimeException e) {
+            log.warn("Could not snapshot category spending statistics on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /** Folds a committed delta into this node's view and into the deltas awaiting snapshot. */
+    private void apply(Key key, RunningStats delta) {
+        stats.compute(key, (k, s) -> {
+            if (s == null) s = new RunningStats();
+            s.merge(delta);
+            pending.merge(k, delta.copy(), OnlineAnomalyServiceImpl::merged);
+            return s;
+        });
+    }
+
+    // Copy under the key's lock so the three fields are consistent
+    private RunningStats copyOf(Key key) {
+        RunningStats[] copy = {new RunningStats()};
+        stats.computeIfPresent(key, (k, s) -> {
+            copy[0] = s.copy();
+            return s;
+        });
+        return copy[0];
+    }
+
+    private static RunningStats merged(RunningStats into, RunningStats other) {
+        into.merge(other);
+        return into;
+    }
+
+    private String params(double mean, double stddev) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("method", METHOD);
+        params.put("threshold", threshold);
+        params.put("mean", mean);
+        params.put("stddev", stddev);
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise anomaly parameters", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.service.SeasonalityService;
+import com.financeapp.service.forecast.FusedForecastKernel;
+import com.financeapp.service.forecast.SeasonalityDetector;
+import com.financeapp.service.forecast.TimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+@Service
+public class SeasonalityServiceImpl implements SeasonalityService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeasonalityServiceImpl.class);
+
+    private final FinancialDataRepository financialDataRepository;
+
+    @Value("${app.forecast.seasonality.lookback-days:180}")
+    private int lookbackDays = 180;
+
+    @Value("${app.forecast.seasonality.min-period:5}")
+    private int minPeriod = 5;
+
+    @Value("${app.forecast.seasonality.max-period:40}")
+    private int maxPeriod = 40;
+
+    public SeasonalityServiceImpl(FinancialDataRepository financialDataRepository) {
+        this.financialDataRepository = financialDataRepository;
+    }
+
+    @Override
+    @Cacheable(value = "seasonality", key = "#userId + '-v' + @userDataVersionServiceImpl.current(#userId) + '-' + #windowEnd")
+    public int seasonLength(Long userId, LocalDate windowEnd) {
+        TimeSeries series = TimeSeries.fromDailyTotals(
+                financialDataRepository.getDailyTotals(userId, windowEnd.minusDays(lookbackDays - 1L), windowEnd), windowEnd);
+        int period = SeasonalityDetector.detect(series, minPeriod, maxPeriod);
+        log.debug("Detected seasonal period {} for user {} over {} days", period, userId, series.length());
+        return period > 0 ? period : FusedForecastKernel.DEFAULT_SEASON;
+    }
+}
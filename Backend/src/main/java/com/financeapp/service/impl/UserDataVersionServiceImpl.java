@@ -0,0 +1,27 @@
+package com.financeapp.service.impl;
+
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.UserDataVersionService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserDataVersionServiceImpl implements UserDataVersionService {
+
+    private final UserRepository userRepository;
+
+    public UserDataVersionServiceImpl(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public long current(Long userId) {
+        return userId == null ? 0L : userRepository.findDataVersion(userId).orElse(0L);
+    }
+
+    @Override
+    @Transactional
+    public void bump(Long userId) {
+        userRepository.bumpDataVersion(userId);
+    }
+}
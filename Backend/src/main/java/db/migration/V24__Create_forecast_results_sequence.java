@@ -0,0 +1,27 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Sequence behind batched forecast_results inserts. Starts past the rows written under the old
+ * identity column; computed here because H2 and PostgreSQL disagree on setval.
+ */
+public class V24__Create_forecast_results_sequence extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement stmt = context.getConnection().createStatement()) {
+            long start = 1;
+            try (ResultSet rs = stmt.executeQuery("select coalesce(max(id), 0) + 50 from forecast_results")) {
+                if (rs.next()) start = rs.getLong(1);
+            }
+            // Hibernate's pooled optimizer hands out the 49 ids below each sequence value, so start one
+            // increment past the old rows; increment must match allocationSize on ForecastResult.id
+            stmt.execute("create sequence if not exists forecast_results_seq start with " + start + " increment by 50");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Creates forecast_runs and moves forecast_results into it. Rows are streamed grouped by user,
+ * config and job, in creation order. One forecast call saved its rows together, so a run is a
+ * stretch of consecutive target dates whose rows were created within {@link #SAME_CALL_MILLIS} of
+ * each other; a later call continuing the dates of an earlier one starts a new run.
+ * <p>
+ * Values are encoded with a frozen copy of the run codec, so later changes to the application's
+ * encoder cannot change what this migration writes.
+ */
+public class V25__Move_forecast_results_to_runs extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    // created_at is stamped per row as a call saves them, so rows of one call are close but not equal
+    private static final long SAME_CALL_MILLIS = 5_000;
+
+    // Run encoding format 1, as read by ForecastRunCodec.decode
+    private static final int ENCODING_VERSION = 1;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conn = context.getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table if not exists forecast_runs ("
+                    + " id bigint primary key,"
+                    + " config_id bigint not null references forecast_configs(id),"
+                    + " user_id bigint not null references users(id),"
+                    + " start_date date not null,"
+                    + " end_date date not null,"
+                    + " horizon_days int not null,"
+                    + " forecast_values bytea not null,"
+                    + " interval_values bytea,"
+                    + " mape double precision,"
+                    + " job_id bigint,"
+                    + " created_at timestamp with time zone not null)");
+            stmt.execute("create index if not exists idx_forecast_runs_user_dates on forecast_runs (user_id, start_date, end_date)");
+            stmt.execute("create index if not exists idx_forecast_runs_job on forecast_runs (job_id)");
+        }
+
+        long nextId = 1;
+        try (Statement read = conn.createStatement();
+             PreparedStatement insert = conn.prepareStatement("insert into forecast_runs (id, config_id, user_id, start_date, end_date,"
+                     + " horizon_days, forecast_values, interval_values, mape, job_id, created_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            read.setFetchSize(BATCH_SIZE);
+            Run run = null;
+            int pending = 0;
+            try (ResultSet rs = read.executeQuery("select user_id, config_id, job_id, target_date, forecast_value, forecast_p10,"
+                    + " forecast_p50, forecast_p90, mape, created_at from forecast_results"
+                    + " order by user_id, config_id, job_id, created_at, id")) {
+                while (rs.next()) {
+                    long userId = rs.getLong(1);
+                    long configId = rs.getLong(2);
+                    Long jobId = rs.getObject(3, Long.class);
+                    LocalDate target = rs.getDate(4).toLocalDate();
+                    Timestamp createdAt = rs.getTimestamp(10);
+                    if (run == null || !run.continuedBy(userId, configId, jobId, target, createdAt)) {
+                        if (run != null) {
+                            run.addTo(insert, nextId++);
+                            if (++pending % BATCH_SIZE == 0) insert.executeBatch();
+                        }
+                        run = new Run(userId, configId, jobId, target, rs.getObject(9, Double.class), createdAt);
+                    }
+                    run.add(createdAt, rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getBigDecimal(8));
+                }
+            }
+            if (run != null) {
+                run.addTo(insert, nextId++);
+                pending++;
+            }
+            if (pending > 0) insert.executeBatch();
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("delete from forecast_results");
+            // First pooled id lands right after the backfilled ones; increment must match allocationSize on ForecastRun.id
+            stmt.execute("create sequence if not exists forecast_runs_seq start with " + (nextId - 1 + 50) + " increment by 50");
+        }
+    }
+
+    private static final class Run {
+        final long userId;
+        final long configId;
+        final Long jobId;
+        final LocalDate start;
+        final Double mape;
+        final Timestamp createdAt;
+        Timestamp lastCreatedAt;
+        final List<Double> values = new ArrayList<>();
+        final List<double[]> bands = new ArrayList<>();
+        boolean hasBands = true;
+
+        Run(long userId, long configId, Long jobId, LocalDate start, Double mape, Timestamp createdAt) {
+            this.userId = userId;
+            this.configId = configId;
+            this.jobId = jobId;
+            this.start = start;
+            this.mape = mape;
+            this.createdAt = createdAt;
+            this.lastCreatedAt = createdAt;
+        }
+
+        boolean continuedBy(long userId, long configId, Long jobId, LocalDate target, Timestamp created) {
+            return this.userId == userId && this.configId == configId && Objects.equals(this.jobId, jobId)
+                    && target.equals(start.plusDays(values.size()))
+                    && Math.abs(created.getTime() - lastCreatedAt.getTime()) <= SAME_CALL_MILLIS;
+        }
+
+        void add(Timestamp created, BigDecimal value, BigDecimal p10, BigDecimal p50, BigDecimal p90) {
+            lastCreatedAt = created;
+            values.add(value.doubleValue());
+            if (p10 == null || p50 == null || p90 == null) {
+                hasBands = false;
+            } else {
+                bands.add(new double[]{p10.doubleValue(), p50.doubleValue(), p90.doubleValue()});
+            }
+        }
+
+        void addTo(PreparedStatement insert, long id) throws Exception {
+            int n = values.size();
+            double[] point = new double[n];
+            double[][] quantiles = new double[3][n];
+            for (int i = 0; i < n; i++) {
+                point[i] = values.get(i);
+                if (hasBands) {
+                    for (int q = 0; q < 3; q++) quantiles[q][i] = bands.get(i)[q];
+                }
+            }
+            insert.setLong(1, id);
+            insert.setLong(2, configId);
+            insert.setLong(3, userId);
+            insert.setDate(4, Date.valueOf(start));
+            insert.setDate(5, Date.valueOf(start.plusDays(n - 1)));
+            insert.setInt(6, n);
+            insert.setBytes(7, encode(point));
+            if (hasBands) insert.setBytes(8, encode(quantiles));
+            else insert.setNull(8, Types.BINARY);
+            if (mape != null) insert.setDouble(9, mape);
+            else insert.setNull(9, Types.DOUBLE);
+            if (jobId != null) insert.setLong(10, jobId);
+            else insert.setNull(10, Types.BIGINT);
+            insert.setTimestamp(11, createdAt);
+            insert.addBatch();
+        }
+    }
+
+    // Frozen copy of ForecastRunCodec.encode at format 1: zigzag varint deltas of cents per series
+    private static byte[] encode(double[]... series) {
+        int length = series.length == 0 ? 0 : series[0].length;
+        byte[] buf = new byte[15 + series.length * length * 10];
+        int pos = writeVarint(buf, 0, ENCODING_VERSION);
+        pos = writeVarint(buf, pos, series.length);
+        pos = writeVarint(buf, pos, length);
+        for (double[] s : series) {
+            long prev = 0;
+            for (double v : s) {
+                long cents = Math.round(v * 100.0);
+                long delta = cents - prev;
+                pos = writeVarint(buf, pos, (delta << 1) ^ (delta >> 63));
+                prev = cents;
+            }
+        }
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private static int writeVarint(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+}
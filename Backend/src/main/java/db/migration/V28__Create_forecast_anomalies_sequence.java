@@ -0,0 +1,26 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Sequence behind batched forecast_anomalies inserts, started past the rows written under the
+ * identity column as in V24.
+ */
+public class V28__Create_forecast_anomalies_sequence extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement stmt = context.getConnection().createStatement()) {
+            long start = 1;
+            try (ResultSet rs = stmt.executeQuery("select coalesce(max(id), 0) + 50 from forecast_anomalies")) {
+                if (rs.next()) start = rs.getLong(1);
+            }
+            // increment must match allocationSize on ForecastAnomaly.id
+            stmt.execute("create sequence if not exists forecast_anomalies_seq start with " + start + " increment by 50");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+-- Incremental per-config forecast state, updated on every financial_data write
+
+create table if not exists forecast_model_states (
+    id bigint generated by default as identity primary key,
+    user_id bigint not null,
+    config_id bigint not null,
+    algorithm varchar(64) not null,
+    window_size int not null,
+    smoothing_factor double precision not null,
+    season_length int not null,
+    capacity_days int not null,
+    end_date date not null,
+    first_data_date date,
+    sum_y_cents bigint not null,
+    sum_xy_cents bigint not null,
+    window_sum_cents bigint not null,
+    ewma_weighted_sum double precision not null,
+    ring_cents bytea not null,
+    season_sums_cents bytea not null,
+    updated_at timestamp with time zone,
+    constraint fk_forecast_model_states_user foreign key (user_id) references users(id),
+    constraint fk_forecast_model_states_config foreign key (config_id) references forecast_configs(id)
+);
+
+create unique index if not exists uk_forecast_model_states_config on forecast_model_states (config_id);
+create index if not exists idx_forecast_model_states_user on forecast_model_states (user_id);
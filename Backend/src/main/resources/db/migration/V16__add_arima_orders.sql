@@ -0,0 +1,5 @@
+-- ARIMA(p,d,q) orders on forecast configs; null means the order is selected by AIC
+
+alter table forecast_configs add column if not exists arima_p int;
+alter table forecast_configs add column if not exists arima_d int;
+alter table forecast_configs add column if not exists arima_q int;
@@ -0,0 +1,6 @@
+-- Holt-Winters seasonality mode and last fitted smoothing parameters (warm start for refits)
+
+alter table forecast_configs add column if not exists seasonality_mode varchar(16);
+alter table forecast_configs add column if not exists fitted_alpha double precision;
+alter table forecast_configs add column if not exists fitted_beta double precision;
+alter table forecast_configs add column if not exists fitted_gamma double precision;
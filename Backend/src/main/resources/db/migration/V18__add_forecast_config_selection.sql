@@ -0,0 +1,4 @@
+-- Marks the config that won the user's most recent hyperparameter tuning run
+
+alter table forecast_configs add column if not exists selected boolean default false not null;
+create index if not exists idx_forecast_configs_user_selected on forecast_configs (user_id, selected);
@@ -0,0 +1,7 @@
+-- Additional rolling-origin backtest metrics; mape stays the only required column
+
+alter table forecast_performance add column if not exists smape double precision;
+alter table forecast_performance add column if not exists mase double precision;
+alter table forecast_performance add column if not exists rmse double precision;
+alter table forecast_performance add column if not exists bias double precision;
+alter table forecast_performance add column if not exists folds int;
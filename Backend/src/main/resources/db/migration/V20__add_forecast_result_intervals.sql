@@ -0,0 +1,5 @@
+-- Residual-bootstrap prediction interval per forecast day; null when history is too short
+
+alter table forecast_results add column if not exists forecast_p10 numeric(19,2);
+alter table forecast_results add column if not exists forecast_p50 numeric(19,2);
+alter table forecast_results add column if not exists forecast_p90 numeric(19,2);
@@ -0,0 +1,7 @@
+-- Nightly batch: which configs it refreshes and which run each job belongs to
+
+alter table forecast_configs add column if not exists active boolean default false not null;
+create index if not exists idx_forecast_configs_active_user on forecast_configs (active, user_id);
+
+alter table forecast_jobs add column if not exists run_date date;
+create index if not exists idx_forecast_jobs_run_user on forecast_jobs (run_date, user_id);
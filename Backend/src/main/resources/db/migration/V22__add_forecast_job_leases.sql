@@ -0,0 +1,10 @@
+-- Lease-based work queue on forecast_jobs shared by every app instance
+
+alter table forecast_jobs add column if not exists lease_owner varchar(128);
+alter table forecast_jobs add column if not exists lease_expires_at timestamp with time zone;
+alter table forecast_jobs add column if not exists attempts int default 0 not null;
+
+-- One nightly job per user and run date, so concurrent enqueues cannot duplicate work
+drop index if exists idx_forecast_jobs_run_user;
+create unique index if not exists uk_forecast_jobs_run_user on forecast_jobs (run_date, user_id);
+create index if not exists idx_forecast_jobs_run_status on forecast_jobs (run_date, status, lease_expires_at);
@@ -0,0 +1,6 @@
+-- Submitted forecast jobs: queue priority and the result rows each job produced
+
+alter table forecast_jobs add column if not exists priority varchar(16) default 'BULK' not null;
+
+alter table forecast_results add column if not exists job_id bigint;
+create index if not exists idx_forecast_results_job on forecast_results (job_id);
@@ -0,0 +1,16 @@
+-- Versioned forecast runs: regenerating a forecast for the same user, config and start date
+-- adds a new version instead of another unrelated run; retention keeps the latest few
+
+alter table forecast_runs add column if not exists run_version int default 1 not null;
+
+-- Number the runs carried over from forecast_results in creation order
+update forecast_runs r set run_version = (
+    select count(*) from forecast_runs r2
+    where r2.user_id = r.user_id and r2.config_id = r.config_id and r2.start_date = r.start_date and r2.id <= r.id);
+
+create unique index if not exists uk_forecast_runs_version on forecast_runs (user_id, config_id, start_date, run_version);
+
+alter table forecast_results add column if not exists run_version int;
+create index if not exists idx_forecast_results_version on forecast_results (user_id, config_id, target_date, run_version);
+
+create index if not exists idx_forecast_jobs_status_updated on forecast_jobs (status, updated_at);
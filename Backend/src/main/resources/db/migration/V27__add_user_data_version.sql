@@ -0,0 +1,3 @@
+-- Per-user counter bumped on every financial data write; part of the forecast cache keys
+
+alter table users add column if not exists data_version bigint default 0 not null;
@@ -0,0 +1,17 @@
+-- Snapshot of the per-user, per-category running expense statistics behind online anomaly scoring
+
+create table if not exists category_spending_stats (
+    id bigint generated by default as identity primary key,
+    user_id bigint not null,
+    category varchar(64) not null,
+    sample_count bigint not null,
+    mean double precision not null,
+    m2 double precision not null,
+    updated_at timestamp with time zone,
+    constraint fk_category_spending_stats_user foreign key (user_id) references users(id)
+);
+
+create unique index if not exists uk_category_spending_stats on category_spending_stats (user_id, category);
+
+-- Anomalies flagged on a single expense carry its category; day-level scans leave it null
+alter table forecast_anomalies add column if not exists category varchar(64);
@@ -0,0 +1,158 @@
+package com.financeapp.config;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.ForecastService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AsyncCacheConfigTest {
+
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    ForecastService forecastService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    FinancialDataRepository financialDataRepository;
+    @Autowired
+    ForecastConfigRepository forecastConfigRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+    // Tests run with lazy initialization; injecting the registrar makes the actuator bind the caches
+    @Autowired
+    CacheMetricsRegistrar cacheMetricsRegistrar;
+
+    @Test
+    void configuredCachesShouldBeBoundedWithTtl() {
+        var forecasts = forecastsCache().getNativeCache().policy();
+        assertThat(forecasts.eviction()).hasValueSatisfying(e -> {
+            assertThat(e.isWeighted()).isTrue();
+            assertThat(e.getMaximum()).isEqualTo(500_000L);
+        });
+        assertThat(forecasts.expireAfterWrite()).hasValueSatisfying(e ->
+                assertThat(e.getExpiresAfter()).isEqualTo(Duration.ofMinutes(30)));
+
+        // Names without a spec still get the default bound
+        var adHoc = ((CaffeineCache) cacheManager.getCache("adHoc")).getNativeCache().policy();
+        assertThat(adHoc.eviction()).hasValueSatisfying(e -> assertThat(e.getMaximum()).isEqualTo(1_000L));
+    }
+
+    @Test
+    void completedForecastsShouldBeCachedAndFailuresNot() {
+        User user = new User();
+        user.setUsername("cache-user");
+        user.setEmail("cache-user@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 1; i <= 10; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(20 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Cache " + i);
+            financialDataRepository.save(fd);
+        }
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(3);
+        cfg = forecastConfigRepository.save(cfg);
+        LocalDate start = LocalDate.now().plusDays(40);
+
+        Long userId = user.getId();
+        ForecastConfig saved = cfg;
+        var first = forecastService.generateForecast(userId, saved, start, 4).join();
+        var second = forecastService.generateForecast(userId, saved, start, 4).join();
+        assertThat(second).isSameAs(first);
+
+        ForecastConfig missing = new ForecastConfig();
+        missing.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> forecastService.generateForecast(-1L, missing, start, 4).join())
+                    .isInstanceOf(CompletionException.class);
+        }
+        assertThat(forecastsCache().getNativeCache().asMap().keySet())
+                .noneMatch(k -> k.toString().startsWith("-1-"));
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "forecasts").tag("result", "hit").functionCounter())
+                .isNotNull()
+                .satisfies(c -> assertThat(c.count()).isGreaterThanOrEqualTo(1.0));
+    }
+
+    @Test
+    void batchForecastsShouldHitTheCacheForTheSameConfigsInAnyOrder() {
+        User user = new User();
+        user.setUsername("batch-cache-user");
+        user.setEmail("batch-cache-user@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 1; i <= 10; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(30 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Batch cache " + i);
+            financialDataRepository.save(fd);
+        }
+        ForecastConfig sma = new ForecastConfig();
+        sma.setUser(user);
+        sma.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        sma.setWindowSize(3);
+        sma = forecastConfigRepository.save(sma);
+        ForecastConfig ewma = new ForecastConfig();
+        ewma.setUser(user);
+        ewma.setAlgorithm(ForecastConfig.AlgorithmType.EWMA);
+        ewma.setSmoothingFactor(0.5);
+        ewma = forecastConfigRepository.save(ewma);
+        LocalDate start = LocalDate.now().plusDays(40);
+
+        // Requests deserialize fresh config instances, so the key must not depend on identity or order
+        var first = forecastService.batchGenerateForecasts(user.getId(), List.of(sma, ewma), start, 4).join();
+        var second = forecastService.batchGenerateForecasts(user.getId(),
+                List.of(forecastConfigRepository.findById(ewma.getId()).orElseThrow(),
+                        forecastConfigRepository.findById(sma.getId()).orElseThrow()), start, 4).join();
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void weightShouldCountForecastPoints() {
+        assertThat(AsyncCacheConfig.weigh(List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(AsyncCacheConfig.weigh(Map.of(1L, List.of(1, 2), 2L, List.of(3)))).isEqualTo(3);
+        assertThat(AsyncCacheConfig.weigh(List.of())).isEqualTo(1);
+        assertThat(AsyncCacheConfig.weigh("x")).isEqualTo(1);
+    }
+
+    private CaffeineCache forecastsCache() {
+        return (CaffeineCache) cacheManager.getCache("forecasts");
+    }
+}
@@ -0,0 +1,75 @@
+package com.financeapp.config;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastResult;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.ForecastService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.forecast.storage.daily-rows=true")
+@ActiveProfiles("test")
+class PersistenceBatchingConfigTest {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ForecastService forecastService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    FinancialDataRepository financialDataRepository;
+
+    @Test
+    void forecastRowsShouldBeInsertedInJdbcBatches() {
+        assertThat(entityManagerFactory.getProperties()).containsEntry("hibernate.jdbc.batch_size", 50);
+
+        User user = new User();
+        user.setUsername("batch-insert-user");
+        user.setEmail("batch-insert@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 1; i <= 14; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(10 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Batch " + i);
+            financialDataRepository.save(fd);
+        }
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        try {
+            Map<Long, List<ForecastResult>> out = forecastService.generateBatch(user.getId(), List.of(cfg),
+                    LocalDate.now().plusDays(1), 60, null);
+            assertThat(out.get(cfg.getId())).hasSize(60);
+            // 60 rows, two sequence calls and a handful of lookups: far fewer than one statement per row
+            assertThat(stats.getPrepareStatementCount()).isLessThan(20);
+        } finally {
+            stats.setStatisticsEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastAnomaly;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class AnomalyDetectionServiceH2Test {
+
+    private static final LocalDate RUN_DATE = LocalDate.of(2032, 6, 30);
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+    @Autowired
+    private ForecastAnomalyRepository forecastAnomalyRepository;
+    @Autowired
+    private FinancialDataRepository financialDataRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void scanAll_shouldFlagSpikesInTheScanWindowOnce() {
+        User spiky = seedUser("anomaly-spiky", 900);
+        User steady = seedUser("anomaly-steady", null);
+        // Income is not spending, so a payday is no spike
+        financialDataRepository.save(new FinancialData(steady, RUN_DATE.minusDays(1), BigDecimal.valueOf(5000),
+                Category.SALARY, "Payday", TransactionType.INCOME));
+
+        anomalyDetectionService.scanAll(RUN_DATE);
+
+        List<ForecastAnomaly> flagged = anomaliesOf(spiky);
+        assertThat(flagged).singleElement().satisfies(a -> {
+            assertThat(a.getDate()).isEqualTo(RUN_DATE.minusDays(2));
+            assertThat(a.getValue()).isEqualTo(900.0);
+            assertThat(a.getZscore()).isGreaterThan(3.5);
+            assertThat(a.getConfig()).isNull();
+            assertThat(a.getParamsJson()).contains("\"method\":\"rolling_median_mad\"").contains("\"window\":28");
+        });
+        assertThat(anomaliesOf(steady)).isEmpty();
+
+        // Rescanning the same window does not flag the day twice
+        assertThat(anomalyDetectionService.scanUser(spiky.getId(), RUN_DATE)).isEmpty();
+        assertThat(anomaliesOf(spiky)).hasSize(1);
+    }
+
+    private List<ForecastAnomaly> anomaliesOf(User user) {
+        return forecastAnomalyRepository.findAll().stream()
+                .filter(a -> a.getUser().getId().equals(user.getId()))
+                .toList();
+    }
+
+    // 60 days of 40-60 a day, with an optional spike two days before the run date
+    private User seedUser(String name, Integer spike) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        List<FinancialData> rows = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            LocalDate date = RUN_DATE.minusDays(i);
+            int amount = i == 2 && spike != null ? spike : 40 + (i % 5) * 5;
+            rows.add(new FinancialData(user, date, BigDecimal.valueOf(amount), Category.FOOD, "Day " + i, TransactionType.EXPENSE));
+        }
+        financialDataRepository.saveAll(rows);
+        return user;
+    }
+}
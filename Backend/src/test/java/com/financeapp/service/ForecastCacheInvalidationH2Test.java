@@ -0,0 +1,87 @@
+package com.financeapp.service;
+
+import com.financeapp.dto.FinancialDataCreateDto;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ForecastCacheInvalidationH2Test {
+
+    @Autowired
+    private ForecastService forecastService;
+    @Autowired
+    private FinancialDataService financialDataService;
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FinancialDataRepository financialDataRepository;
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+
+    @Test
+    @WithMockUser(username = "cache-invalidation", roles = "USER")
+    void financialDataWrites_shouldRetireCachedForecasts() {
+        User user = new User();
+        user.setUsername("cache-invalidation");
+        user.setEmail("cache-invalidation@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 1; i <= 10; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(10));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Stable " + i);
+            financialDataRepository.save(fd);
+        }
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(3);
+        ForecastConfig saved = forecastConfigRepository.save(cfg);
+        Long userId = user.getId();
+        LocalDate start = LocalDate.now();
+
+        var before = forecastService.generateForecast(userId, saved, start, 3).join();
+        assertThat(forecastService.generateForecast(userId, saved, start, 3).join()).isSameAs(before);
+        long version = userDataVersionService.current(userId);
+
+        var created = financialDataService.createFinancialData(new FinancialDataCreateDto(
+                LocalDate.now().minusDays(1), BigDecimal.valueOf(40), "FOOD", "Late entry", "EXPENSE"));
+        assertThat(userDataVersionService.current(userId)).isEqualTo(version + 1);
+
+        var after = forecastService.generateForecast(userId, saved, start, 3).join();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.get(0).getForecastValue()).isGreaterThan(before.get(0).getForecastValue());
+
+        assertThat(financialDataService.deleteFinancialData(created.id())).isTrue();
+        assertThat(userDataVersionService.current(userId)).isEqualTo(version + 2);
+    }
+
+    @Test
+    void unknownUser_shouldHaveVersionZero() {
+        assertThat(userDataVersionService.current(-42L)).isZero();
+        assertThat(userDataVersionService.current(null)).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.forecast.EnsembleMember;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ForecastEnsembleServiceH2Test {
+
+    @Autowired
+    private ForecastEnsembleService forecastEnsembleService;
+    @Autowired
+    private ForecastTuningService forecastTuningService;
+    @Autowired
+    private ForecastService forecastService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FinancialDataRepository financialDataRepository;
+
+    @Test
+    void ensemble_shouldWeightMembersByBacktestErrorAndRefreshAfterTuning() {
+        User user = new User();
+        user.setUsername("ensemble-user");
+        user.setEmail("ensemble@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        LocalDate start = LocalDate.now().minusDays(90);
+        for (int i = 0; i < 90; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(40 + (i % 7 == 6 ? 60 : 0) + i % 4));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(start.plusDays(i));
+            fd.setDescription("Ensemble " + i);
+            financialDataRepository.save(fd);
+        }
+
+        // No backtests yet: nothing to weight
+        assertThat(forecastEnsembleService.memberWeights(user.getId())).isEmpty();
+
+        forecastTuningService.tune(user.getId(), LocalDate.now(), 7, 90, 4, RollingOriginBacktest.WindowMode.EXPANDING).join();
+
+        List<EnsembleMember> members = forecastEnsembleService.memberWeights(user.getId());
+        assertThat(members).isNotEmpty().hasSizeLessThanOrEqualTo(5);
+        assertThat(members.stream().mapToDouble(EnsembleMember::weight).sum()).isCloseTo(1.0, within(1e-9));
+        for (int i = 1; i < members.size(); i++) {
+            assertThat(members.get(i).weight()).isLessThanOrEqualTo(members.get(i - 1).weight());
+        }
+        assertThat(forecastEnsembleService.memberWeights(user.getId())).isSameAs(members);
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.ENSEMBLE);
+        var results = forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 7).join();
+        assertThat(results).hasSize(7);
+        assertThat(results).allSatisfy(r -> assertThat(r.getForecastValue().doubleValue()).isBetween(0.0, 200.0));
+    }
+}
@@ -0,0 +1,95 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.entity.User;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ForecastJobLeaseServiceH2Test {
+
+    @Autowired
+    private ForecastJobLeaseService forecastJobLeaseService;
+    @Autowired
+    private ForecastJobRepository forecastJobRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void claim_shouldLeaseEachJobOnceAndReclaimExpiredLeases() {
+        LocalDate runDate = LocalDate.of(2031, 1, 1);
+        User first = user("lease-first");
+        User second = user("lease-second");
+        forecastJobLeaseService.enqueue(runDate, List.of(first.getId(), second.getId()));
+        assertThatThrownBy(() -> forecastJobLeaseService.enqueue(runDate, List.of(first.getId())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        List<ForecastJob> claimed = forecastJobLeaseService.claim(runDate, 10);
+        assertThat(claimed).hasSize(2).allSatisfy(j -> {
+            assertThat(j.getStatus()).isEqualTo(ForecastJob.Status.RUNNING);
+            assertThat(j.getLeaseOwner()).isEqualTo(forecastJobLeaseService.nodeId());
+            assertThat(j.getAttempts()).isEqualTo(1);
+        });
+        // Live leases are not handed out again
+        assertThat(forecastJobLeaseService.claim(runDate, 10)).isEmpty();
+        assertThat(forecastJobLeaseService.renewLeases()).isGreaterThanOrEqualTo(2);
+
+        // Another node took over the first job after our lease lapsed
+        ForecastJob stolen = claimed.get(0);
+        stolen.setLeaseOwner("other-node");
+        forecastJobRepository.save(stolen);
+        assertThat(forecastJobLeaseService.finish(stolen.getId(), ForecastJob.Status.COMPLETED, null)).isFalse();
+
+        // A node died holding the second job: its lease expires and the job is reclaimed
+        ForecastJob orphan = forecastJobRepository.findById(claimed.get(1).getId()).orElseThrow();
+        orphan.setLeaseOwner("dead-node");
+        orphan.setLeaseExpiresAt(OffsetDateTime.now().minusMinutes(1));
+        forecastJobRepository.save(orphan);
+        List<ForecastJob> reclaimed = forecastJobLeaseService.claim(runDate, 10);
+        assertThat(reclaimed).singleElement().satisfies(j -> {
+            assertThat(j.getId()).isEqualTo(orphan.getId());
+            assertThat(j.getAttempts()).isEqualTo(2);
+        });
+        assertThat(forecastJobLeaseService.finish(orphan.getId(), ForecastJob.Status.COMPLETED, null)).isTrue();
+        assertThat(forecastJobRepository.findById(orphan.getId()).orElseThrow().getLeaseOwner()).isNull();
+    }
+
+    @Test
+    void claim_shouldFailJobsThatExhaustedTheirAttempts() {
+        LocalDate runDate = LocalDate.of(2031, 2, 1);
+        User user = user("lease-exhausted");
+        forecastJobLeaseService.enqueue(runDate, List.of(user.getId()));
+        ForecastJob job = forecastJobRepository.findForRun(runDate, List.of(user.getId())).get(0);
+        job.setStatus(ForecastJob.Status.RUNNING);
+        job.setLeaseOwner("dead-node");
+        job.setLeaseExpiresAt(OffsetDateTime.now().minusMinutes(1));
+        job.setAttempts(3);
+        forecastJobRepository.save(job);
+
+        assertThat(forecastJobLeaseService.claim(runDate, 10)).isEmpty();
+        ForecastJob failed = forecastJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(ForecastJob.Status.FAILED);
+        assertThat(failed.getErrorMessage()).contains("attempts");
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("Password@123");
+        return userRepository.save(user);
+    }
+}
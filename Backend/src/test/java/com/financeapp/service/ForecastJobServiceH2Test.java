@@ -0,0 +1,132 @@
+package com.financeapp.service;
+
+import com.financeapp.dto.ForecastDtos;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.impl.ForecastJobServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ForecastJobServiceH2Test {
+
+    @Autowired
+    private ForecastJobService forecastJobService;
+    @Autowired
+    private ForecastService forecastService;
+    @Autowired
+    private ForecastJobRepository forecastJobRepository;
+    @Autowired
+    private ForecastRunService forecastRunService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FinancialDataRepository financialDataRepository;
+    @Autowired
+    private ForecastJobLeaseService forecastJobLeaseService;
+
+    @Test
+    void submit_shouldReturnPendingJobAndExposeResultsOnceCompleted() throws Exception {
+        User user = new User();
+        user.setUsername("job-api-user");
+        user.setEmail("job-api@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 1; i <= 20; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(30 + i % 4));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Job " + i);
+            financialDataRepository.save(fd);
+        }
+        ForecastConfig sma = new ForecastConfig();
+        sma.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        sma.setWindowSize(5);
+        ForecastConfig lr = new ForecastConfig();
+        lr.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+
+        ForecastDtos.JobStatusDto submitted = forecastJobService.submit(user.getId(), List.of(sma, lr),
+                LocalDate.now().plusDays(1), 5, ForecastJob.Priority.INTERACTIVE);
+        assertThat(submitted.jobId).isNotNull();
+        assertThat(submitted.priority).isEqualTo("INTERACTIVE");
+        assertThat(submitted.results).isEmpty();
+
+        ForecastDtos.JobStatusDto status = awaitFinished(submitted.jobId);
+        assertThat(status.status).isEqualTo("COMPLETED");
+        assertThat(status.results).hasSize(10);
+        assertThat(status.results.stream().map(ForecastDtos.ForecastPointDto::configId).distinct()).hasSize(2);
+
+        assertThat(forecastJobService.status(-1L)).isEmpty();
+    }
+
+    @Test
+    void submit_shouldRejectWithoutRecordingJobWhenQueueIsFull() {
+        ForecastJobServiceImpl saturated = new ForecastJobServiceImpl(forecastService, forecastJobRepository,
+                forecastRunService, userRepository, forecastJobLeaseService, 1, 0);
+        long before = forecastJobRepository.count();
+        assertThatThrownBy(() -> saturated.submit(1L, List.of(), LocalDate.now(), 7, ForecastJob.Priority.BULK))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(forecastJobRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void failOrphaned_shouldFailJobsWhoseNodeStoppedAndKeepLiveOnes() {
+        User user = new User();
+        user.setUsername("job-orphan-user");
+        user.setEmail("job-orphan@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        ForecastJob orphaned = adHocJob(user, ForecastJob.Status.RUNNING, "stopped-node", OffsetDateTime.now().minusMinutes(1));
+        ForecastJob unleased = adHocJob(user, ForecastJob.Status.PENDING, null, null);
+        ForecastJob live = adHocJob(user, ForecastJob.Status.PENDING, "other-node", OffsetDateTime.now().plusMinutes(5));
+
+        assertThat(forecastJobService.failOrphaned()).isGreaterThanOrEqualTo(2);
+
+        assertThat(forecastJobRepository.findById(orphaned.getId()).orElseThrow().getStatus()).isEqualTo(ForecastJob.Status.FAILED);
+        assertThat(forecastJobService.status(unleased.getId()).orElseThrow().status).isEqualTo("FAILED");
+        assertThat(forecastJobRepository.findById(live.getId()).orElseThrow().getStatus()).isEqualTo(ForecastJob.Status.PENDING);
+    }
+
+    private ForecastJob adHocJob(User user, ForecastJob.Status status, String owner, OffsetDateTime leaseExpiresAt) {
+        ForecastJob job = new ForecastJob();
+        job.setUser(user);
+        job.setStatus(status);
+        job.setLeaseOwner(owner);
+        job.setLeaseExpiresAt(leaseExpiresAt);
+        return forecastJobRepository.save(job);
+    }
+
+    private ForecastDtos.JobStatusDto awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ForecastDtos.JobStatusDto status = forecastJobService.status(jobId).orElseThrow();
+            if (status.status.equals("COMPLETED") || status.status.equals("FAILED")) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+}
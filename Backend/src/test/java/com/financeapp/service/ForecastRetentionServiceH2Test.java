@@ -0,0 +1,203 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.ForecastAnomaly;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.entity.ForecastResult;
+import com.financeapp.entity.ForecastRun;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.ForecastRunRepository;
+import com.financeapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ForecastRetentionServiceH2Test {
+
+    @Autowired
+    private ForecastRetentionService forecastRetentionService;
+    @Autowired
+    private ForecastRunService forecastRunService;
+    @Autowired
+    private ForecastRunRepository forecastRunRepository;
+    @Autowired
+    private ForecastAnomalyRepository forecastAnomalyRepository;
+    @Autowired
+    private ForecastJobRepository forecastJobRepository;
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void store_shouldVersionChangedForecastsAndUpsertIdenticalOnes() {
+        User user = seedUser("versioned-runs");
+        ForecastConfig cfg = seedConfig(user);
+        LocalDate start = LocalDate.of(2031, 3, 1);
+
+        for (int v = 1; v <= 5; v++) {
+            forecastRunService.store(results(user, cfg, start, 10.0 * v));
+        }
+        // Regenerating the latest forecast unchanged adds nothing
+        forecastRunService.store(results(user, cfg, start, 50.0));
+
+        assertThat(runsFor(user)).extracting(ForecastRun::getRunVersion).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+        assertThat(forecastRunService.findForUserBetween(user.getId(), start, start.plusDays(2)))
+                .hasSize(3)
+                .allSatisfy(r -> assertThat(r.getForecastValue()).isEqualByComparingTo("50.0"));
+    }
+
+    @Test
+    void store_shouldKeepUnchangedRunsReadableByEarlierJobs() {
+        User user = seedUser("job-runs");
+        ForecastConfig cfg = seedConfig(user);
+        LocalDate start = LocalDate.of(2031, 6, 1);
+
+        forecastRunService.store(withJob(results(user, cfg, start, 20.0), 101L));
+        forecastRunService.store(withJob(results(user, cfg, start, 20.0), 102L));
+        // Untagged regenerations still refresh the current version in place
+        forecastRunService.store(results(user, cfg, start, 20.0));
+
+        assertThat(runsFor(user)).extracting(ForecastRun::getRunVersion).containsExactlyInAnyOrder(1, 2);
+        assertThat(forecastRunService.findByJobId(101L)).hasSize(3);
+        assertThat(forecastRunService.findByJobId(102L)).hasSize(3);
+    }
+
+    @Test
+    void store_shouldGiveConcurrentForecastsOfOneConfigDistinctVersions() {
+        User user = seedUser("concurrent-runs");
+        ForecastConfig cfg = seedConfig(user);
+        LocalDate start = LocalDate.of(2031, 5, 1);
+
+        List<CompletableFuture<?>> stores = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(4)) {
+            for (int v = 1; v <= 4; v++) {
+                double value = 10.0 * v;
+                stores.add(CompletableFuture.runAsync(() -> forecastRunService.store(results(user, cfg, start, value)), pool));
+            }
+            CompletableFuture.allOf(stores.toArray(new CompletableFuture[0])).join();
+        }
+
+        assertThat(runsFor(user)).extracting(ForecastRun::getRunVersion).containsExactlyInAnyOrder(1, 2, 3, 4);
+    }
+
+    @Test
+    void purgeSuperseded_shouldKeepLatestVersionsAnomaliesAndRecentJobs() {
+        User user = seedUser("retention");
+        ForecastConfig cfg = seedConfig(user);
+        LocalDate start = LocalDate.of(2031, 4, 1);
+        for (int v = 1; v <= 5; v++) {
+            forecastRunService.store(results(user, cfg, start, 5.0 * v));
+        }
+
+        ForecastAnomaly first = anomaly(user, start);
+        ForecastAnomaly latest = anomaly(user, start);
+        ForecastAnomaly otherDay = anomaly(user, start.plusDays(1));
+        ForecastAnomaly onlineFirst = onlineAnomaly(user, start);
+        ForecastAnomaly onlineSecond = onlineAnomaly(user, start);
+
+        ForecastJob oldDone = job(user, ForecastJob.Status.COMPLETED, 45);
+        ForecastJob recentDone = job(user, ForecastJob.Status.COMPLETED, 1);
+        ForecastJob oldPending = job(user, ForecastJob.Status.PENDING, 45);
+
+        assertThat(forecastRetentionService.purgeSuperseded()).isGreaterThanOrEqualTo(4);
+
+        assertThat(runsFor(user)).extracting(ForecastRun::getRunVersion).containsExactlyInAnyOrder(3, 4, 5);
+        assertThat(forecastAnomalyRepository.findAllById(List.of(latest.getId(), otherDay.getId()))).hasSize(2);
+        assertThat(forecastAnomalyRepository.findById(first.getId())).isEmpty();
+        // Two transactions flagged on the same day are distinct anomalies
+        assertThat(forecastAnomalyRepository.findAllById(List.of(onlineFirst.getId(), onlineSecond.getId()))).hasSize(2);
+        assertThat(forecastJobRepository.findById(oldDone.getId())).isEmpty();
+        assertThat(forecastJobRepository.findById(recentDone.getId())).isPresent();
+        assertThat(forecastJobRepository.findById(oldPending.getId())).isPresent();
+    }
+
+    private List<ForecastResult> results(User user, ForecastConfig cfg, LocalDate start, double value) {
+        List<ForecastResult> out = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ForecastResult fr = new ForecastResult();
+            fr.setUser(user);
+            fr.setConfig(cfg);
+            fr.setTargetDate(start.plusDays(i));
+            fr.setForecastValue(BigDecimal.valueOf(value));
+            out.add(fr);
+        }
+        return out;
+    }
+
+    private static List<ForecastResult> withJob(List<ForecastResult> results, Long jobId) {
+        results.forEach(r -> r.setJobId(jobId));
+        return results;
+    }
+
+    private List<ForecastRun> runsFor(User user) {
+        return forecastRunRepository.findAll().stream()
+                .filter(r -> r.getUser().getId().equals(user.getId()))
+                .toList();
+    }
+
+    private ForecastAnomaly anomaly(User user, LocalDate date) {
+        ForecastAnomaly a = new ForecastAnomaly();
+        a.setUser(user);
+        a.setDate(date);
+        a.setValue(99.0);
+        return forecastAnomalyRepository.save(a);
+    }
+
+    private ForecastAnomaly onlineAnomaly(User user, LocalDate date) {
+        ForecastAnomaly a = new ForecastAnomaly();
+        a.setUser(user);
+        a.setDate(date);
+        a.setCategory(Category.FOOD);
+        a.setValue(250.0);
+        return forecastAnomalyRepository.save(a);
+    }
+
+    private ForecastJob job(User user, ForecastJob.Status status, int daysAgo) {
+        ForecastJob job = new ForecastJob();
+        job.setUser(user);
+        job.setStatus(status);
+        job = forecastJobRepository.save(job);
+        jdbcTemplate.update("UPDATE forecast_jobs SET updated_at = ? WHERE id = ?",
+                Timestamp.from(OffsetDateTime.now().minusDays(daysAgo).toInstant()), job.getId());
+        return job;
+    }
+
+    private ForecastConfig seedConfig(User user) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(3);
+        return forecastConfigRepository.save(cfg);
+    }
+
+    private User seedUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("Password@123");
+        return userRepository.save(user);
+    }
+}
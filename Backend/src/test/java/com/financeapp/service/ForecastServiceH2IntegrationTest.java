@@ -5,7 +5,7 @@ import com.financeapp.entity.FinancialData;
 import com.financeapp.entity.enums.Category;
 import com.financeapp.entity.enums.TransactionType;
 import com.financeapp.entity.User;
-import com.financeapp.repository.ForecastResultRepository;
+import com.financeapp.repository.ForecastConfigRepository;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.repository.FinancialDataRepository;
 import org.junit.jupiter.api.Test;
@@ -28,11 +28,17 @@ public class ForecastServiceH2IntegrationTest {
     private UserRepository userRepository;
 
     @Autowired
-    private ForecastResultRepository forecastResultRepository;
+    private ForecastRunService forecastRunService;
 
     @Autowired
     private FinancialDataRepository financialDataRepository;
 
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+
+    @Autowired
+    private com.financeapp.repository.ForecastModelStateRepository forecastModelStateRepository;
+
     @Test
     void generateForecast_SMA_ShouldPersistResults() {
         User user = new User();
@@ -60,8 +66,316 @@ public class ForecastServiceH2IntegrationTest {
 
         var results = forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 5).join();
         assertThat(results).hasSize(5);
-        assertThat(forecastResultRepository.findByUser(user, org.springframework.data.domain.PageRequest.of(0, 10))).isNotNull();
+        assertThat(results).allSatisfy(r -> {
+            assertThat(r.getForecastP10()).isNotNull();
+            assertThat(r.getForecastP10()).isLessThanOrEqualTo(r.getForecastP50());
+            assertThat(r.getForecastP50()).isLessThanOrEqualTo(r.getForecastP90());
+        });
+
+        // Stored as one run and expanded back to the cent
+        var stored = forecastRunService.findForUserBetween(user.getId(), LocalDate.now(), LocalDate.now().plusDays(4));
+        assertThat(stored).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(stored.get(i).getTargetDate()).isEqualTo(results.get(i).getTargetDate());
+            assertThat(stored.get(i).getForecastValue().doubleValue())
+                    .isCloseTo(results.get(i).getForecastValue().doubleValue(), org.assertj.core.data.Offset.offset(0.005));
+            assertThat(stored.get(i).getForecastP90().doubleValue())
+                    .isCloseTo(results.get(i).getForecastP90().doubleValue(), org.assertj.core.data.Offset.offset(0.005));
+        }
     }
-}
 
+    @Test
+    void batchGenerateForecasts_ShouldForecastEveryConfigFromSharedHistory() {
+        User user = new User();
+        user.setUsername("batch-forecast-user");
+        user.setEmail("batch-fuser@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 14; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(5 * i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Batch seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        ForecastConfig sma = new ForecastConfig();
+        sma.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        sma.setWindowSize(3);
+        ForecastConfig ewma = new ForecastConfig();
+        ewma.setAlgorithm(ForecastConfig.AlgorithmType.EWMA);
+        ewma.setSmoothingFactor(0.5);
+        ForecastConfig regression = new ForecastConfig();
+        regression.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+
+        var byConfig = forecastService
+                .batchGenerateForecasts(user.getId(), java.util.List.of(sma, ewma, regression), LocalDate.now(), 4)
+                .join();
+
+        assertThat(byConfig).hasSize(3);
+        assertThat(byConfig.keySet()).containsExactly(sma.getId(), ewma.getId(), regression.getId());
+        assertThat(byConfig.values()).allSatisfy(results -> assertThat(results).hasSize(4));
+        assertThat(forecastRunService.findForUserBetween(user.getId(), LocalDate.now(), LocalDate.now().plusDays(3)))
+                .hasSize(12);
+    }
+
+    @Test
+    void batchGenerateForecasts_ShouldHonourCategoryAndTypeFilters() {
+        User user = new User();
+        user.setUsername("category-forecast-user");
+        user.setEmail("category-fuser@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 10; i >= 1; i--) {
+            financialDataRepository.save(new FinancialData(user, LocalDate.now().minusDays(i),
+                    java.math.BigDecimal.valueOf(20), Category.FOOD, "Food " + i, TransactionType.EXPENSE));
+            financialDataRepository.save(new FinancialData(user, LocalDate.now().minusDays(i),
+                    java.math.BigDecimal.valueOf(50), Category.HOUSING, "Rent " + i, TransactionType.EXPENSE));
+            financialDataRepository.save(new FinancialData(user, LocalDate.now().minusDays(i),
+                    java.math.BigDecimal.valueOf(100), Category.SALARY, "Pay " + i, TransactionType.INCOME));
+        }
+
+        ForecastConfig food = smaConfig("food", null);
+        ForecastConfig expenses = smaConfig(null, "expense");
+        ForecastConfig total = smaConfig(null, null);
+        ForecastConfig education = smaConfig("EDUCATION", null);
+
+        var byConfig = forecastService
+                .batchGenerateForecasts(user.getId(), java.util.List.of(food, expenses, total, education), LocalDate.now(), 3)
+                .join();
+
+        assertThat(byConfig.get(food.getId())).allSatisfy(r -> assertThat(r.getForecastValue()).isEqualByComparingTo("20"));
+        assertThat(byConfig.get(expenses.getId())).allSatisfy(r -> assertThat(r.getForecastValue()).isEqualByComparingTo("70"));
+        assertThat(byConfig.get(total.getId())).allSatisfy(r -> assertThat(r.getForecastValue()).isEqualByComparingTo("170"));
+        assertThat(byConfig.get(education.getId())).isEmpty();
 
+        var single = forecastService.generateForecast(user.getId(), smaConfig("HOUSING", "EXPENSE"), LocalDate.now(), 2).join();
+        assertThat(single).hasSize(2).allSatisfy(r -> assertThat(r.getForecastValue()).isEqualByComparingTo("50"));
+    }
+
+    @Test
+    void generateForecast_SeasonalWithoutSeasonLength_ShouldUseDetectedPeriod() {
+        User user = new User();
+        user.setUsername("seasonality-forecast-user");
+        user.setEmail("seasonality-fuser@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        // Monthly bills on top of steady daily spend
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        java.util.List<FinancialData> rows = new java.util.ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            int amount = 25 + (i % 3) + (i % 30 < 2 ? 500 : 0);
+            rows.add(new FinancialData(user, yesterday.minusDays(i), java.math.BigDecimal.valueOf(amount),
+                    Category.UTILITIES, "Seasonal " + i, TransactionType.EXPENSE));
+        }
+        financialDataRepository.saveAll(rows);
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION);
+
+        var results = forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 3).join();
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getConfig().getDetectedSeasonLength()).isEqualTo(30);
+        assertThat(forecastConfigRepository.findById(results.get(0).getConfig().getId()).orElseThrow().getSeasonLength())
+                .isNull();
+    }
+
+    @Test
+    void generateForecast_FromPastStartDate_ShouldDetectPeriodOverTheHistoryBeforeIt() {
+        User user = new User();
+        user.setUsername("seasonality-past-user");
+        user.setEmail("seasonality-past@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        // The same monthly bills, but long before today: a window ending yesterday sees none of them
+        LocalDate lastDay = LocalDate.of(2024, 5, 31);
+        java.util.List<FinancialData> rows = new java.util.ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            int amount = 25 + (i % 3) + (i % 30 < 2 ? 500 : 0);
+            rows.add(new FinancialData(user, lastDay.minusDays(i), java.math.BigDecimal.valueOf(amount),
+                    Category.UTILITIES, "Past seasonal " + i, TransactionType.EXPENSE));
+        }
+        financialDataRepository.saveAll(rows);
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION);
+
+        var results = forecastService.generateForecast(user.getId(), cfg, lastDay.plusDays(1), 3).join();
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getConfig().getDetectedSeasonLength()).isEqualTo(30);
+    }
+
+    @Test
+    void generateResampledForecast_Monthly_ShouldForecastBucketTotals() {
+        User user = new User();
+        user.setUsername("monthly-forecast-user");
+        user.setEmail("monthly-fuser@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        // 10 per day over the year before July 2024
+        LocalDate startDate = LocalDate.of(2024, 7, 1);
+        java.util.List<FinancialData> rows = new java.util.ArrayList<>();
+        for (LocalDate d = startDate.minusYears(1); d.isBefore(startDate); d = d.plusDays(1)) {
+            rows.add(new FinancialData(user, d, java.math.BigDecimal.TEN, Category.FOOD, "Daily", TransactionType.EXPENSE));
+        }
+        financialDataRepository.saveAll(rows);
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(3);
+
+        var results = forecastService.generateResampledForecast(user.getId(), cfg, startDate, 90,
+                com.financeapp.service.forecast.ResampledSeries.Period.MONTHLY).join();
+
+        // One result per month, each the average of the April to June totals
+        assertThat(results).extracting(r -> r.getTargetDate())
+                .containsExactly(startDate, startDate.plusMonths(1), startDate.plusMonths(2));
+        assertThat(results.get(0).getForecastValue().doubleValue()).isBetween(280.0, 310.0);
+        assertThat(forecastRunService.findForUserBetween(user.getId(), startDate, startDate.plusDays(90))).isEmpty();
+    }
+
+    @Test
+    void storedConfigs_ShouldUseIncrementalStateWithoutMovingItBackwards() {
+        User user = new User();
+        user.setUsername("state-forecast-user");
+        user.setEmail("state-fuser@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 20; i >= 1; i--) {
+            financialDataRepository.save(new FinancialData(user, LocalDate.now().minusDays(i),
+                    java.math.BigDecimal.valueOf(10 + i), Category.FOOD, "State " + i, TransactionType.EXPENSE));
+        }
+        ForecastConfig cfg = smaConfig(null, null);
+        cfg.setUser(user);
+        cfg = forecastConfigRepository.save(cfg);
+
+        // First call seeds the state from history, the batch then answers from that state
+        var seeded = forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 3).join();
+        var batch = forecastService.generateBatch(user.getId(), java.util.List.of(cfg), LocalDate.now(), 3, null);
+        assertThat(batch.get(cfg.getId())).extracting(r -> r.getForecastValue().doubleValue())
+                .containsExactlyElementsOf(seeded.stream().map(r -> r.getForecastValue().doubleValue()).toList());
+
+        // A historical origin is computed from history and leaves the newer state alone
+        forecastService.generateForecast(user.getId(), cfg, LocalDate.now().minusDays(5), 3).join();
+        assertThat(forecastModelStateRepository.findByConfigId(cfg.getId()).orElseThrow().getEndDate())
+                .isEqualTo(LocalDate.now().minusDays(1));
+    }
+
+    @Test
+    void incrementalState_SeededForPastWindow_ShouldBeReseededWhenLaterRecordsExist() {
+        User user = new User();
+        user.setUsername("state-behind-user");
+        user.setEmail("state-behind@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        LocalDate seededAt = LocalDate.now().minusDays(30);
+        for (int i = 60; i >= 1; i--) {
+            LocalDate date = LocalDate.now().minusDays(i);
+            double amount = date.isBefore(seededAt) ? 10 : 50;
+            financialDataRepository.save(new FinancialData(user, date, java.math.BigDecimal.valueOf(amount),
+                    Category.FOOD, "Behind " + i, TransactionType.EXPENSE));
+        }
+        ForecastConfig cfg = smaConfig(null, null);
+        cfg.setUser(user);
+        cfg = forecastConfigRepository.save(cfg);
+
+        // The first state is seeded for a past origin, before the records of the last 30 days
+        forecastService.generateForecast(user.getId(), cfg, seededAt, 3).join();
+        assertThat(forecastModelStateRepository.findByConfigId(cfg.getId()).orElseThrow().getEndDate())
+                .isEqualTo(seededAt.minusDays(1));
+
+        // Rolling it forward would read those records as empty days
+        var results = forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 3).join();
+        assertThat(results).extracting(r -> r.getForecastValue().doubleValue()).containsOnly(50.0);
+        assertThat(forecastModelStateRepository.findByConfigId(cfg.getId()).orElseThrow().getEndDate())
+                .isEqualTo(LocalDate.now().minusDays(1));
+    }
+
+    private static ForecastConfig smaConfig(String category, String transactionType) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(3);
+        cfg.setCategory(category);
+        cfg.setTransactionType(transactionType);
+        return cfg;
+    }
+
+    @Test
+    void defaultConfig_ShouldBeCreatedOnceAndReusedAcrossForecasts() {
+        User user = new User();
+        user.setUsername("default-config-user");
+        user.setEmail("default-config@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 14; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(30 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Default seed " + i);
+            financialDataRepository.save(fd);
+        }
+        // A filtered config of the same algorithm is not a default
+        ForecastConfig filtered = new ForecastConfig();
+        filtered.setUser(user);
+        filtered.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        filtered.setCategory(Category.FOOD.name());
+        forecastConfigRepository.save(filtered);
+
+        ForecastConfig first = forecastService.defaultConfig(user.getId(), ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        forecastService.generateForecast(user.getId(), first, LocalDate.now(), 7).join();
+        ForecastConfig second = forecastService.defaultConfig(user.getId(), ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        forecastService.generateForecast(user.getId(), second, LocalDate.now().plusDays(1), 7).join();
+
+        assertThat(second.getId()).isEqualTo(first.getId()).isNotEqualTo(filtered.getId());
+        assertThat(forecastConfigRepository.findAllForUser(user.getId())).hasSize(2);
+    }
+
+    @Test
+    void generateForecast_HoltWinters_ShouldPersistFittedParameters() {
+        User user = new User();
+        user.setUsername("hw-forecast-user");
+        user.setEmail("hw-fuser@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 28; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(i % 7 == 0 ? 120 : 40 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("HW seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.HOLT_WINTERS);
+        cfg.setSeasonLength(7);
+        cfg.setSeasonalityMode(ForecastConfig.SeasonalityMode.MULTIPLICATIVE);
+
+        var results = forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 7).join();
+
+        assertThat(results).hasSize(7);
+        ForecastConfig stored = forecastConfigRepository.findById(results.get(0).getConfig().getId()).orElseThrow();
+        assertThat(stored.getFittedAlpha()).isBetween(0.0, 1.0);
+        assertThat(stored.getFittedBeta()).isBetween(0.0, 1.0);
+        assertThat(stored.getFittedGamma()).isBetween(0.0, 1.0);
+    }
+}
@@ -1,9 +1,13 @@
 package com.financeapp.service;
 
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+import com.financeapp.service.forecast.SeriesPrefixStats;
+import com.financeapp.service.forecast.TimeSeries;
 import com.financeapp.service.impl.ForecastServiceImpl;
 import org.junit.jupiter.api.Test;
 
-import java.util.Arrays;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -12,26 +16,26 @@ public class ForecastServiceUnitTest {
 
     @Test
     void simpleMovingAverage_shouldComputeCorrectValues() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
-        List<Double> vals = Arrays.asList(1d, 2d, 3d, 4d, 5d);
+        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+        TimeSeries vals = TimeSeries.of(LocalDate.of(2024, 1, 1), 1d, 2d, 3d, 4d, 5d);
         double[] sma = svc.simpleMovingAverage(vals, 3);
         assertThat(sma).containsExactly(2.0, 3.0, 4.0);
     }
 
     @Test
     void ewma_shouldSmoothSeries() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
-        List<Double> vals = Arrays.asList(10d, 20d, 30d, 40d);
+        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+        TimeSeries vals = TimeSeries.of(LocalDate.of(2024, 1, 1), 10d, 20d, 30d, 40d);
         double[] ewma = svc.exponentialWeightedMovingAverage(vals, 0.5);
-        assertThat(ewma.length).isEqualTo(vals.size());
+        assertThat(ewma.length).isEqualTo(vals.length());
         assertThat(ewma[0]).isEqualTo(10.0);
         assertThat(ewma[3]).isBetween(30.0, 40.0);
     }
 
     @Test
     void linearRegressionForecast_shouldProjectTrend() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
-        List<Double> vals = Arrays.asList(1d, 2d, 3d, 4d, 5d);
+        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+        TimeSeries vals = TimeSeries.of(LocalDate.of(2024, 1, 1), 1d, 2d, 3d, 4d, 5d);
         double[] fc = svc.linearRegressionForecast(vals, 3);
         assertThat(fc.length).isEqualTo(3);
         assertThat(fc[0]).isLessThan(fc[1]);
@@ -40,11 +44,40 @@ public class ForecastServiceUnitTest {
 
     @Test
     void seasonalDecomposition_shouldUseSeasonLength() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
-        List<Double> vals = Arrays.asList(10d, 20d, 30d, 10d, 20d, 30d, 10d, 20d, 30d);
+        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+        TimeSeries vals = TimeSeries.of(LocalDate.of(2024, 1, 1), 10d, 20d, 30d, 10d, 20d, 30d, 10d, 20d, 30d);
         double[] fc = svc.seasonalDecomposition(vals, 3, 3);
         assertThat(fc.length).isEqualTo(3);
     }
-}
 
+    @Test
+    void arimaForecast_shouldIntegrateDifferencedSeries() {
+        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+        TimeSeries vals = TimeSeries.of(LocalDate.of(2024, 1, 1), 2d, 4d, 6d, 8d, 10d, 12d, 14d, 16d);
+        double[] fc = svc.arimaForecast(vals, 0, 1, 0, 3);
+        assertThat(fc).containsExactly(18.0, 20.0, 22.0);
+    }
+
+    @Test
+    void weightedEnsemble_shouldFavourHeavierMembers() {
+        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+        double[] fc = svc.ensembleForecast(List.of(new double[]{10, 10}, new double[]{20, 40}), new double[]{3, 1});
+        assertThat(fc).containsExactly(12.5, 17.5);
+    }
 
+    @Test
+    void holtWintersBacktest_shouldNotWriteFoldParametersOntoTheConfig() {
+        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+        double[] values = new double[120];
+        for (int i = 0; i < values.length; i++) values[i] = 100 + i + (i % 7 == 0 ? 30 : 0);
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.HOLT_WINTERS);
+        cfg.setSeasonLength(7);
+
+        svc.backtest(cfg, SeriesPrefixStats.of(TimeSeries.of(LocalDate.of(2024, 1, 1), values)), 3, 7,
+                RollingOriginBacktest.WindowMode.EXPANDING);
+
+        assertThat(cfg.getFittedAlpha()).isNull();
+        assertThat(cfg.getFittedGamma()).isNull();
+    }
+}
@@ -0,0 +1,91 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastPerformanceRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.forecast.RollingOriginBacktest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ForecastTuningServiceH2Test {
+
+    @Autowired
+    private ForecastTuningService forecastTuningService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FinancialDataRepository financialDataRepository;
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+    @Autowired
+    private ForecastPerformanceRepository forecastPerformanceRepository;
+
+    @Test
+    void tune_shouldScoreEveryCandidateAndSelectOneWinner() {
+        User user = new User();
+        user.setUsername("tuning-user");
+        user.setEmail("tuning@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        LocalDate start = LocalDate.now().minusDays(120);
+        for (int i = 0; i < 120; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(50 + (i % 7 == 5 ? 80 : 0) + i % 3));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(start.plusDays(i));
+            fd.setDescription("Tuning " + i);
+            financialDataRepository.save(fd);
+        }
+
+        var first = forecastTuningService.tune(user.getId(), LocalDate.now(), 7, 120, 4, RollingOriginBacktest.WindowMode.EXPANDING).join();
+
+        assertThat(first.candidates).isNotEmpty();
+        assertThat(first.selectedConfigId).isNotNull();
+        long performanceRows = forecastPerformanceRepository.findAll().stream()
+                .filter(p -> first.candidates.stream().anyMatch(c -> c.configId.equals(p.getConfig().getId())))
+                .count();
+        assertThat(performanceRows).isEqualTo(first.candidates.size());
+        assertThat(first.candidates).allSatisfy(c -> {
+            assertThat(c.mase).isNotNull();
+            assertThat(c.smape).isBetween(0.0, 200.0);
+        });
+        double bestMase = first.candidates.stream().mapToDouble(c -> c.mase).min().orElseThrow();
+        assertThat(first.candidates).anySatisfy(c -> {
+            assertThat(c.configId).isEqualTo(first.selectedConfigId);
+            assertThat(c.mase).isEqualTo(bestMase);
+        });
+
+        int configCount = forecastConfigRepository.findAllForUser(user.getId()).size();
+        var second = forecastTuningService.tune(user.getId(), LocalDate.now(), 7, 120, 4, RollingOriginBacktest.WindowMode.EXPANDING).join();
+
+        List<ForecastConfig> configs = forecastConfigRepository.findAllForUser(user.getId());
+        assertThat(configs).hasSize(configCount);
+        // Only scored candidates are stored, and a rerun replaces their scores rather than adding rows
+        assertThat(configCount).isEqualTo(first.candidates.size());
+        Long userId = user.getId();
+        assertThat(forecastPerformanceRepository.findAll().stream()
+                .filter(p -> p.getUser().getId().equals(userId))
+                .count()).isEqualTo(second.candidates.size());
+        assertThat(configs).filteredOn(ForecastConfig::isSelected).hasSize(1)
+                .first().extracting(ForecastConfig::getId).isEqualTo(second.selectedConfigId);
+    }
+}
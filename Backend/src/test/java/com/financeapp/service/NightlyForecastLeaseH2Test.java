@@ -0,0 +1,80 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.entity.User;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {"app.forecast.lease.ttl-seconds=1", "app.forecast.lease.heartbeat-ms=200"})
+@ActiveProfiles("test")
+public class NightlyForecastLeaseH2Test {
+
+    @Autowired
+    private NightlyForecastService nightlyForecastService;
+    @Autowired
+    private ForecastJobLeaseService forecastJobLeaseService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+    @Autowired
+    private ForecastJobRepository forecastJobRepository;
+    @MockBean
+    private ForecastService forecastService;
+
+    @Test
+    void runNightly_shouldKeepTheLeaseOfAJobRunningLongerThanItsTtl() {
+        LocalDate runDate = LocalDate.of(2031, 1, 15);
+        User slow = seedUser("nightly-slow");
+        AtomicReference<List<ForecastJob>> reclaimed = new AtomicReference<>();
+        when(forecastService.generateBatch(anyLong(), anyList(), any(), anyInt(), anyLong())).thenAnswer(inv -> {
+            if (slow.getId().equals(inv.getArgument(0))) {
+                Thread.sleep(2500);
+                // Another node would reclaim the job here had the lease lapsed
+                reclaimed.set(forecastJobLeaseService.claim(runDate, 10));
+            }
+            return Map.of();
+        });
+
+        nightlyForecastService.runNightly(runDate);
+
+        assertThat(reclaimed.get()).isEmpty();
+        ForecastJob job = forecastJobRepository.findForRun(runDate, List.of(slow.getId())).get(0);
+        assertThat(job.getStatus()).isEqualTo(ForecastJob.Status.COMPLETED);
+        assertThat(job.getAttempts()).isEqualTo(1);
+    }
+
+    private User seedUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(7);
+        cfg.setActive(true);
+        forecastConfigRepository.save(cfg);
+        return user;
+    }
+}
@@ -0,0 +1,106 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class NightlyForecastServiceH2Test {
+
+    @Autowired
+    private NightlyForecastService nightlyForecastService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FinancialDataRepository financialDataRepository;
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+    @Autowired
+    private ForecastJobRepository forecastJobRepository;
+    @Autowired
+    private ForecastRunService forecastRunService;
+
+    @Test
+    void runNightly_shouldForecastActiveUsersAndResumeAfterInterruption() {
+        LocalDate runDate = LocalDate.now();
+        User done = seedUser("nightly-done", true);
+        User interrupted = seedUser("nightly-interrupted", true);
+        User fresh = seedUser("nightly-fresh", true);
+        User inactive = seedUser("nightly-inactive", false);
+
+        // A previous run finished the first user and died while running the second
+        job(done, runDate, ForecastJob.Status.COMPLETED);
+        job(interrupted, runDate, ForecastJob.Status.RUNNING);
+
+        nightlyForecastService.runNightly(runDate);
+
+        LocalDate start = runDate.plusDays(1);
+        assertThat(resultsFor(done, start)).isEmpty();
+        assertThat(resultsFor(interrupted, start)).hasSize(7);
+        assertThat(resultsFor(fresh, start)).hasSize(7);
+        assertThat(resultsFor(inactive, start)).isEmpty();
+
+        List<ForecastJob> jobs = forecastJobRepository.findForRun(runDate,
+                List.of(done.getId(), interrupted.getId(), fresh.getId(), inactive.getId()));
+        assertThat(jobs).hasSize(3).allSatisfy(j -> assertThat(j.getStatus()).isEqualTo(ForecastJob.Status.COMPLETED));
+
+        // A finished run has nothing left to do for the same date
+        nightlyForecastService.runNightly(runDate);
+        assertThat(resultsFor(fresh, start)).hasSize(7);
+    }
+
+    private List<?> resultsFor(User user, LocalDate start) {
+        return forecastRunService.findForUserBetween(user.getId(), start, start.plusDays(30));
+    }
+
+    private User seedUser(String name, boolean active) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        for (int i = 1; i <= 30; i++) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(20 + i % 5));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Nightly " + i);
+            financialDataRepository.save(fd);
+        }
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(7);
+        cfg.setActive(active);
+        forecastConfigRepository.save(cfg);
+        return user;
+    }
+
+    private void job(User user, LocalDate runDate, ForecastJob.Status status) {
+        ForecastJob job = new ForecastJob();
+        job.setUser(user);
+        job.setRunDate(runDate);
+        job.setStatus(status);
+        forecastJobRepository.save(job);
+    }
+}
@@ -0,0 +1,144 @@
+package com.financeapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeapp.dto.FinancialDataCreateDto;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastAnomaly;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.CategorySpendingStatsRepository;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.impl.OnlineAnomalyServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class OnlineAnomalyServiceH2Test {
+
+    @Autowired
+    private FinancialDataService financialDataService;
+    @Autowired
+    private OnlineAnomalyService onlineAnomalyService;
+    @Autowired
+    private ForecastAnomalyRepository forecastAnomalyRepository;
+    @Autowired
+    private CategorySpendingStatsRepository categorySpendingStatsRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @WithMockUser(username = "online-anomaly", roles = "USER")
+    void unusualExpense_shouldBeFlaggedOnWriteAndSurviveRestore() {
+        User user = new User();
+        user.setUsername("online-anomaly");
+        user.setEmail("online-anomaly@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+        LocalDate day = LocalDate.of(2033, 1, 1);
+
+        for (int i = 0; i < 12; i++) {
+            create(day.plusDays(i), 20 + (i % 4) * 2, "FOOD", "EXPENSE");
+        }
+        // Income and other categories keep their own statistics and never flag
+        create(day, 5000, "SALARY", "INCOME");
+        create(day, 900, "HOUSING", "EXPENSE");
+        assertThat(anomaliesOf(user)).isEmpty();
+
+        create(day.plusDays(12), 400, "FOOD", "EXPENSE");
+
+        assertThat(anomaliesOf(user)).singleElement().satisfies(a -> {
+            assertThat(a.getCategory()).isEqualTo(Category.FOOD);
+            assertThat(a.getDate()).isEqualTo(day.plusDays(12));
+            assertThat(a.getValue()).isEqualTo(400.0);
+            assertThat(a.getZscore()).isGreaterThan(3.0);
+            assertThat(a.getParamsJson()).contains("\"method\":\"welford\"");
+        });
+
+        assertThat(onlineAnomalyService.snapshot()).isGreaterThanOrEqualTo(2);
+        Long userId = user.getId();
+        assertThat(categorySpendingStatsRepository.findByUserIds(List.of(userId)))
+                .anySatisfy(s -> {
+                    assertThat(s.getCategory()).isEqualTo(Category.FOOD);
+                    assertThat(s.getSampleCount()).isEqualTo(13);
+                });
+
+        // A fresh instance restored from the snapshot scores the next expense immediately
+        OnlineAnomalyServiceImpl restarted = node();
+        assertThat(restarted.restore()).isGreaterThanOrEqualTo(2);
+        FinancialData late = new FinancialData(user, day.plusDays(20), BigDecimal.valueOf(2000), Category.FOOD,
+                "Banquet", TransactionType.EXPENSE);
+        assertThat(restarted.recordCreated(List.of(late))).hasSize(1);
+    }
+
+    @Test
+    void snapshotsFromSeveralNodes_shouldAddUpAndIgnoreRolledBackExpenses() {
+        User user = new User();
+        user.setUsername("online-anomaly-nodes");
+        user.setEmail("online-anomaly-nodes@example.com");
+        user.setPasswordHash("Password@123");
+        User saved = userRepository.save(user);
+        LocalDate day = LocalDate.of(2033, 6, 1);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        OnlineAnomalyServiceImpl first = node();
+        OnlineAnomalyServiceImpl second = node();
+
+        first.recordCreated(List.of(expense(saved, day, 10), expense(saved, day, 20), expense(saved, day, 30)));
+        second.recordCreated(List.of(expense(saved, day, 40), expense(saved, day, 50)));
+        // Never committed, so never counted
+        tx.executeWithoutResult(status -> {
+            first.recordCreated(List.of(expense(saved, day, 9000)));
+            status.setRollbackOnly();
+        });
+
+        Integer firstMerged = tx.execute(status -> first.snapshot());
+        Integer secondMerged = tx.execute(status -> second.snapshot());
+        Integer nothingLeft = tx.execute(status -> first.snapshot());
+        assertThat(firstMerged).isEqualTo(1);
+        assertThat(secondMerged).isEqualTo(1);
+        assertThat(nothingLeft).isZero();
+
+        assertThat(categorySpendingStatsRepository.findByUserIds(List.of(saved.getId()))).singleElement().satisfies(s -> {
+            assertThat(s.getSampleCount()).isEqualTo(5);
+            assertThat(s.getMean()).isCloseTo(30.0, org.assertj.core.data.Offset.offset(1e-9));
+            assertThat(s.getM2()).isCloseTo(1000.0, org.assertj.core.data.Offset.offset(1e-9));
+        });
+    }
+
+    private OnlineAnomalyServiceImpl node() {
+        return new OnlineAnomalyServiceImpl(forecastAnomalyRepository, categorySpendingStatsRepository, userRepository,
+                objectMapper, transactionManager);
+    }
+
+    private static FinancialData expense(User user, LocalDate date, int amount) {
+        return new FinancialData(user, date, BigDecimal.valueOf(amount), Category.FOOD, "Node", TransactionType.EXPENSE);
+    }
+
+    private void create(LocalDate date, int amount, String category, String type) {
+        financialDataService.createFinancialData(new FinancialDataCreateDto(date, BigDecimal.valueOf(amount), category,
+                "Online " + category, type));
+    }
+
+    private List<ForecastAnomaly> anomaliesOf(User user) {
+        return forecastAnomalyRepository.findAll().stream()
+                .filter(a -> a.getUser().getId().equals(user.getId()))
+                .toList();
+    }
+}
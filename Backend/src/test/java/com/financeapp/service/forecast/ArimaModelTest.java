@@ -0,0 +1,93 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class ArimaModelTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static TimeSeries ar1(double phi, int n, long seed) {
+        Random rnd = new Random(seed);
+        double[] values = new double[n];
+        double prev = 0.0;
+        for (int i = 0; i < n; i++) {
+            prev = phi * prev + rnd.nextGaussian();
+            values[i] = 100 + prev;
+        }
+        return TimeSeries.of(START, values);
+    }
+
+    @Test
+    void fit_shouldRecoverAr1CoefficientWithYuleWalker() {
+        ArimaModel model = new ArimaModel().fit(ar1(0.7, 400, 7), 1, 0, 0);
+
+        assertThat(model.ar(1)).isCloseTo(0.7, within(0.1));
+        assertThat(model.sigma2()).isCloseTo(1.0, within(0.25));
+    }
+
+    @Test
+    void fit_shouldRecoverMa1CoefficientWithInnovations() {
+        Random rnd = new Random(11);
+        double[] values = new double[400];
+        double prevNoise = 0.0;
+        for (int i = 0; i < values.length; i++) {
+            double noise = rnd.nextGaussian();
+            values[i] = 50 + noise + 0.5 * prevNoise;
+            prevNoise = noise;
+        }
+        ArimaModel model = new ArimaModel().fit(TimeSeries.of(START, values), 0, 0, 1);
+
+        assertThat(model.ma(1)).isCloseTo(0.5, within(0.15));
+    }
+
+    @Test
+    void autoFit_shouldDifferenceTrendingSeriesAndContinueTheTrend() {
+        Random rnd = new Random(3);
+        double[] values = new double[180];
+        for (int i = 0; i < values.length; i++) values[i] = 20 + 2.0 * i + rnd.nextGaussian();
+        ArimaModel model = new ArimaModel().fit(TimeSeries.of(START, values), ArimaModel.AUTO, ArimaModel.AUTO, ArimaModel.AUTO);
+
+        assertThat(model.d()).isGreaterThanOrEqualTo(1);
+        double[] forecast = model.forecast(5, new double[5]);
+        for (int h = 0; h < 5; h++) {
+            assertThat(forecast[h]).isCloseTo(20 + 2.0 * (180 + h), within(5.0));
+        }
+    }
+
+    @Test
+    void autoFit_shouldKeepStationarySeriesUndifferenced() {
+        ArimaModel model = new ArimaModel().fit(ar1(0.6, 180, 5), ArimaModel.AUTO, ArimaModel.AUTO, ArimaModel.AUTO);
+
+        assertThat(model.d()).isZero();
+        assertThat(model.p() + model.q()).isPositive();
+        assertThat(model.forecast(30, new double[30])[29]).isCloseTo(100, within(1.0));
+    }
+
+    @Test
+    void fit_shouldForecastConstantSeriesAsItsLevel() {
+        double[] values = new double[20];
+        java.util.Arrays.fill(values, 42.0);
+        double[] forecast = new ArimaModel().fit(TimeSeries.of(START, values), ArimaModel.AUTO, 0, ArimaModel.AUTO)
+                .forecast(3, new double[3]);
+
+        assertThat(forecast).containsExactly(42.0, 42.0, 42.0);
+    }
+
+    @Test
+    void fit_shouldRejectInvalidOrdersAndShortSeries() {
+        TimeSeries series = ar1(0.5, 50, 1);
+        ArimaModel model = new ArimaModel();
+
+        assertThatThrownBy(() -> model.fit(series, 4, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> model.fit(series, 0, 3, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> model.fit(TimeSeries.of(START, 1.0, 2.0, 3.0), 2, 0, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
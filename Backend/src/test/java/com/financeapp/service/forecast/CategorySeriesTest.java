@@ -0,0 +1,59 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CategorySeriesTest {
+
+    private static final LocalDate D1 = LocalDate.of(2030, 1, 1);
+
+    private final CategorySeries series = CategorySeries.fromRows(List.of(
+            row(D1, Category.SALARY, TransactionType.INCOME, 100),
+            row(D1, Category.FOOD, TransactionType.EXPENSE, 10),
+            row(D1.plusDays(1), Category.HOUSING, TransactionType.EXPENSE, 50),
+            row(D1.plusDays(3), Category.FOOD, TransactionType.EXPENSE, 12)), D1.plusDays(4));
+
+    @Test
+    void series_shouldSumMatchingRowsIntoDenseDays() {
+        TimeSeries all = series.series(CategorySeries.Filter.ALL);
+        assertThat(all.startDate()).isEqualTo(D1);
+        assertThat(all.toArray()).containsExactly(110, 50, 0, 12, 0);
+
+        TimeSeries expenses = series.series(new CategorySeries.Filter(null, TransactionType.EXPENSE));
+        assertThat(expenses.toArray()).containsExactly(10, 50, 0, 12, 0);
+
+        TimeSeries housing = series.series(new CategorySeries.Filter(Category.HOUSING, TransactionType.EXPENSE));
+        assertThat(housing.startDate()).isEqualTo(D1.plusDays(1));
+        assertThat(housing.toArray()).containsExactly(50, 0, 0, 0);
+
+        assertThat(series.series(new CategorySeries.Filter(Category.FOOD, TransactionType.INCOME)).isEmpty()).isTrue();
+    }
+
+    @Test
+    void filterOf_shouldParseConfigNamesLeniently() {
+        ForecastConfig cfg = new ForecastConfig();
+        assertThat(CategorySeries.Filter.of(cfg)).isSameAs(CategorySeries.Filter.ALL);
+
+        cfg.setCategory(" food ");
+        cfg.setTransactionType("");
+        assertThat(CategorySeries.Filter.of(cfg)).isEqualTo(new CategorySeries.Filter(Category.FOOD, null));
+
+        cfg.setCategory("Groceries");
+        assertThatThrownBy(() -> CategorySeries.Filter.of(cfg))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Groceries");
+    }
+
+    private static Object[] row(LocalDate date, Category category, TransactionType type, double amount) {
+        return new Object[]{date, category, type, BigDecimal.valueOf(amount)};
+    }
+}
@@ -0,0 +1,76 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.service.impl.ForecastServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ForecastHorizonsTest {
+
+    private final ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+
+    private static TimeSeries sampleSeries(int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) values[i] = 50 + 0.7 * i + 15 * Math.sin(2 * Math.PI * i / 7) + (i % 5 == 0 ? 20 : 0);
+        return TimeSeries.of(LocalDate.of(2024, 1, 1), values);
+    }
+
+    @Test
+    void prefixes_shouldCutEveryHorizonFromTheLongest() {
+        List<Integer> longest = IntStream.range(0, 90).boxed().toList();
+
+        Map<Integer, List<Integer>> byHorizon = ForecastHorizons.prefixes(longest, List.of(30, 7, 90), h -> h);
+
+        assertThat(byHorizon.keySet()).containsExactly(7, 30, 90);
+        assertThat(byHorizon.get(7)).containsExactlyElementsOf(longest.subList(0, 7));
+        assertThat(byHorizon.get(30)).hasSize(30);
+        assertThat(byHorizon.get(90)).isEqualTo(longest);
+    }
+
+    @Test
+    void prefixes_shouldMapHorizonsToStepsAndStopAtTheAvailableSteps() {
+        List<String> weeks = List.of("w0", "w1");
+
+        Map<Integer, List<String>> byHorizon = ForecastHorizons.prefixes(weeks, List.of(7, 8, 30), h -> (h + 6) / 7);
+
+        assertThat(byHorizon.get(7)).containsExactly("w0");
+        assertThat(byHorizon.get(8)).containsExactly("w0", "w1");
+        assertThat(byHorizon.get(30)).containsExactly("w0", "w1");
+    }
+
+    @Test
+    void longest_shouldRejectMissingOrNonPositiveHorizons() {
+        assertThat(ForecastHorizons.longest(List.of(7, 90, 30))).isEqualTo(90);
+        assertThatThrownBy(() -> ForecastHorizons.longest(List.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ForecastHorizons.longest(List.of(7, 0))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void kernels_shouldProduceShortHorizonsAsPrefixesOfLongOnes() {
+        TimeSeries series = sampleSeries(120);
+        for (ForecastConfig.AlgorithmType algo : List.of(ForecastConfig.AlgorithmType.SMA, ForecastConfig.AlgorithmType.EWMA,
+                ForecastConfig.AlgorithmType.LINEAR_REGRESSION, ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION,
+                ForecastConfig.AlgorithmType.ARIMA, ForecastConfig.AlgorithmType.HOLT_WINTERS)) {
+            double[] longRun = svc.forecastSeries(config(algo), series, 90);
+            double[] shortRun = svc.forecastSeries(config(algo), series, 7);
+
+            assertThat(Arrays.copyOf(longRun, 7)).as(algo.name()).containsExactly(shortRun);
+        }
+    }
+
+    // Fresh configs, so Holt-Winters does not warm-start the second fit from the first
+    private static ForecastConfig config(ForecastConfig.AlgorithmType algo) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(algo);
+        cfg.setSeasonLength(7);
+        return cfg;
+    }
+}
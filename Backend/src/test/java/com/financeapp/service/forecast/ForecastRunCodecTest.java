@@ -0,0 +1,47 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ForecastRunCodecTest {
+
+    @Test
+    void roundTrip_shouldKeepValuesToTheCent() {
+        double[] point = {120.004, 121.5, -3.25, 0.0, 1_000_000.99, 119.996};
+        double[] lower = {100.1, 100.2, 100.3, 100.4, 100.5, 100.6};
+
+        double[][] decoded = ForecastRunCodec.decode(ForecastRunCodec.encode(point, lower));
+
+        assertThat(decoded).hasNumberOfRows(2);
+        assertThat(decoded[0]).containsExactly(120.0, 121.5, -3.25, 0.0, 1_000_000.99, 120.0);
+        assertThat(decoded[1]).containsExactly(lower);
+    }
+
+    @Test
+    void smoothHorizon_shouldTakeAFewBytesPerDay() {
+        double[] horizon = new double[90];
+        for (int i = 0; i < horizon.length; i++) horizon[i] = 2500.0 + i * 0.37;
+
+        byte[] encoded = ForecastRunCodec.encode(horizon);
+
+        // First value absolute, then deltas of 37 cents: one byte each
+        assertThat(encoded.length).isLessThan(100);
+        assertThat(ForecastRunCodec.decode(encoded)[0]).containsExactly(Arrays.stream(horizon)
+                .map(v -> Math.round(v * 100.0) / 100.0).toArray());
+    }
+
+    @Test
+    void invalidInput_shouldBeRejected() {
+        assertThatThrownBy(() -> ForecastRunCodec.encode(new double[]{1, Double.NaN}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ForecastRunCodec.encode(new double[]{1, 2}, new double[]{1}))
+                .isInstanceOf(IllegalArgumentException.class);
+        byte[] encoded = ForecastRunCodec.encode(new double[]{1, 2, 3});
+        assertThatThrownBy(() -> ForecastRunCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
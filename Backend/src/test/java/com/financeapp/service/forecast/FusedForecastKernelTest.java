@@ -0,0 +1,77 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.service.impl.ForecastServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FusedForecastKernelTest {
+
+    private final ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+
+    private static ForecastConfig config(ForecastConfig.AlgorithmType algo, Integer window, Double alpha, Integer season) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(algo);
+        cfg.setWindowSize(window);
+        cfg.setSmoothingFactor(alpha);
+        cfg.setSeasonLength(season);
+        return cfg;
+    }
+
+    private static TimeSeries sampleSeries(int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) values[i] = 50 + 0.7 * i + 15 * Math.sin(2 * Math.PI * i / 7) + (i % 5 == 0 ? 20 : 0);
+        return TimeSeries.of(LocalDate.of(2024, 1, 1), values);
+    }
+
+    @Test
+    void evaluate_shouldMatchStandaloneKernelsExactly() {
+        TimeSeries series = sampleSeries(90);
+        int horizon = 10;
+        List<ForecastConfig> configs = List.of(
+                config(ForecastConfig.AlgorithmType.SMA, 7, null, null),
+                config(ForecastConfig.AlgorithmType.SMA, 14, null, null),
+                config(ForecastConfig.AlgorithmType.EWMA, null, 0.3, null),
+                config(ForecastConfig.AlgorithmType.EWMA, null, 0.8, null),
+                config(ForecastConfig.AlgorithmType.LINEAR_REGRESSION, null, null, null),
+                config(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION, null, null, 7),
+                config(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION, null, null, 30));
+
+        double[][] fused = svc.fusedForecast(series, configs, horizon);
+
+        double[] sma7 = svc.simpleMovingAverage(series, 7);
+        double[] sma14 = svc.simpleMovingAverage(series, 14);
+        double[] ew3 = svc.exponentialWeightedMovingAverage(series, 0.3);
+        double[] ew8 = svc.exponentialWeightedMovingAverage(series, 0.8);
+        assertThat(fused[0]).containsOnly(sma7[sma7.length - 1]);
+        assertThat(fused[1]).containsOnly(sma14[sma14.length - 1]);
+        assertThat(fused[2]).containsOnly(ew3[ew3.length - 1]);
+        assertThat(fused[3]).containsOnly(ew8[ew8.length - 1]);
+        assertThat(fused[4]).containsExactly(svc.linearRegressionForecast(series, horizon));
+        assertThat(fused[5]).containsExactly(svc.seasonalDecomposition(series, 7, horizon));
+        assertThat(fused[6]).containsExactly(svc.seasonalDecomposition(series, 30, horizon));
+    }
+
+    @Test
+    void evaluate_shouldFallBackLikeSeasonalDecompositionOnShortSeries() {
+        TimeSeries series = sampleSeries(10);
+        double[][] fused = svc.fusedForecast(series,
+                List.of(config(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION, null, null, 7)), 3);
+
+        assertThat(fused[0]).containsExactly(svc.seasonalDecomposition(series, 7, 3));
+    }
+
+    @Test
+    void evaluate_shouldRejectWindowLongerThanSeries() {
+        TimeSeries series = sampleSeries(5);
+        assertThatThrownBy(() -> FusedForecastKernel.evaluate(series,
+                Arrays.asList(config(ForecastConfig.AlgorithmType.SMA, 6, null, null)), 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
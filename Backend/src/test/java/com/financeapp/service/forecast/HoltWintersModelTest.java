@@ -0,0 +1,86 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class HoltWintersModelTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final double[] WEEKLY = {10, -5, -5, 0, 5, 20, -25};
+
+    private static double additive(int i) {
+        return 100 + 0.5 * i + WEEKLY[i % 7];
+    }
+
+    private static double multiplicative(int i) {
+        return (100 + 0.5 * i) * (1 + WEEKLY[i % 7] / 100.0);
+    }
+
+    private static TimeSeries series(boolean mult, int n, double noise) {
+        Random rnd = new Random(17);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) values[i] = (mult ? multiplicative(i) : additive(i)) + noise * rnd.nextGaussian();
+        return TimeSeries.of(START, values);
+    }
+
+    @Test
+    void additiveFit_shouldTrackTrendAndWeeklySeason() {
+        HoltWintersModel model = new HoltWintersModel().fit(series(false, 140, 1.0), 7, false, null, null, null);
+        double[] forecast = model.forecast(14, new double[14]);
+
+        for (int h = 0; h < 14; h++) {
+            assertThat(forecast[h]).isCloseTo(additive(140 + h), within(4.0));
+        }
+        assertThat(model.alpha()).isBetween(0.0, 1.0);
+        assertThat(model.beta()).isBetween(0.0, 1.0);
+        assertThat(model.gamma()).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    void multiplicativeFit_shouldScaleSeasonWithLevel() {
+        HoltWintersModel model = new HoltWintersModel().fit(series(true, 140, 0.5), 7, true, null, null, null);
+        double[] forecast = model.forecast(7, new double[7]);
+
+        for (int h = 0; h < 7; h++) {
+            assertThat(forecast[h]).isCloseTo(multiplicative(140 + h), within(4.0));
+        }
+    }
+
+    @Test
+    void warmStart_shouldReachAtLeastTheColdOptimum() {
+        TimeSeries history = series(false, 140, 2.0);
+        HoltWintersModel cold = new HoltWintersModel().fit(history, 7, false, null, null, null);
+        double coldSse = cold.sse();
+
+        HoltWintersModel warm = new HoltWintersModel().fit(history, 7, false, cold.alpha(), cold.beta(), cold.gamma());
+
+        assertThat(warm.sse()).isLessThanOrEqualTo(coldSse * (1 + 1e-9));
+    }
+
+    @Test
+    void fit_shouldRejectShortSeries() {
+        assertThatThrownBy(() -> new HoltWintersModel().fit(series(false, 10, 0), 7, false, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void multiplicativeFit_shouldHandleZeroDaysByShiftingTheSeries() {
+        // Spending only on weekends, zero on every other day
+        double[] values = new double[84];
+        for (int i = 0; i < values.length; i++) values[i] = i % 7 >= 5 ? 100 + i : 0;
+
+        double[] forecast = new HoltWintersModel().fit(TimeSeries.of(START, values), 7, true, null, null, null)
+                .forecast(7, new double[7]);
+
+        for (int h = 0; h < 7; h++) {
+            assertThat(forecast[h]).isFinite();
+            assertThat(forecast[h]).isCloseTo(values[84 - 7 + h] == 0 ? 0 : 100 + 84 + h, within(25.0));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.service.impl.ForecastServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class IncrementalForecastStateTest {
+
+    private static final int CAPACITY = 60;
+    private static final LocalDate ORIGIN = LocalDate.of(2024, 1, 1);
+
+    private final ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+
+    /** Reference: dense daily totals in cents keyed by day offset from ORIGIN. */
+    private final long[] ledger = new long[400];
+
+    private TimeSeries referenceWindow(LocalDate end) {
+        int endIdx = (int) (end.toEpochDay() - ORIGIN.toEpochDay());
+        int startIdx = Math.max(0, endIdx - CAPACITY + 1);
+        int first = -1;
+        for (int i = startIdx; i <= endIdx; i++) {
+            if (ledger[i] != 0) { first = i; break; }
+        }
+        if (first < 0) return TimeSeries.empty();
+        double[] values = new double[endIdx - first + 1];
+        for (int i = first; i <= endIdx; i++) values[i - first] = ledger[i] / 100.0;
+        return TimeSeries.of(ORIGIN.plusDays(first), values);
+    }
+
+    private double[] reference(ForecastConfig.AlgorithmType algo, TimeSeries series, int horizon) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(algo);
+        cfg.setWindowSize(5);
+        cfg.setSmoothingFactor(0.4);
+        cfg.setSeasonLength(7);
+        return FusedForecastKernel.evaluate(series, List.of(cfg), horizon)[0];
+    }
+
+    @Test
+    void randomWritesAndAdvances_shouldMatchFromScratchForecasts() {
+        Random rnd = new Random(42);
+        ForecastConfig.AlgorithmType[] algos = {
+                ForecastConfig.AlgorithmType.SMA,
+                ForecastConfig.AlgorithmType.EWMA,
+                ForecastConfig.AlgorithmType.LINEAR_REGRESSION,
+                ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION
+        };
+        LocalDate end = ORIGIN.plusDays(20);
+        IncrementalForecastState[] states = new IncrementalForecastState[algos.length];
+        for (int a = 0; a < algos.length; a++) {
+            states[a] = IncrementalForecastState.empty(algos[a], 5, 0.4, 7, CAPACITY, end);
+        }
+
+        for (int step = 0; step < 600; step++) {
+            int op = rnd.nextInt(10);
+            int endIdx = (int) (end.toEpochDay() - ORIGIN.toEpochDay());
+            if (op == 0 && endIdx < ledger.length - 5) {
+                end = end.plusDays(1 + rnd.nextInt(3));
+                for (IncrementalForecastState s : states) s.advanceTo(end.toEpochDay());
+            } else {
+                int dayIdx = Math.max(0, endIdx - rnd.nextInt(CAPACITY + 10));
+                long delta = ledger[dayIdx] > 0 && rnd.nextInt(4) == 0 ? -ledger[dayIdx] : 1 + rnd.nextInt(50_000);
+                ledger[dayIdx] += delta;
+                for (IncrementalForecastState s : states) s.apply(ORIGIN.plusDays(dayIdx), delta);
+            }
+
+            TimeSeries window = referenceWindow(end);
+            // The ring is the residual source for intervals on the state path
+            assertThat(states[0].series().toArray()).as("series step %d", step).containsExactly(window.toArray());
+            if (window.length() < 5) continue;
+            for (int a = 0; a < algos.length; a++) {
+                double[] expected = reference(algos[a], window, 4);
+                double[] actual = states[a].forecast(4);
+                for (int i = 0; i < 4; i++) {
+                    assertThat(actual[i]).as("%s step %d", algos[a], step).isCloseTo(expected[i], within(1e-6 * Math.max(1, Math.abs(expected[i]))));
+                }
+            }
+        }
+    }
+
+    @Test
+    void restore_shouldRoundTripPersistedComponents() {
+        IncrementalForecastState state = IncrementalForecastState.empty(
+                ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION, 7, 0.3, 7, CAPACITY, ORIGIN.plusDays(40));
+        for (int i = 0; i < 40; i++) state.apply(ORIGIN.plusDays(i), 1000 + 37L * (i % 7));
+
+        IncrementalForecastState copy = IncrementalForecastState.restore(state.algorithm(), state.window(), state.alpha(),
+                state.seasonLength(), state.capacity(), state.endDate(), state.firstDataDate(), state.ringBytes(),
+                state.seasonSumBytes(), state.sumY(), state.sumXY(), state.windowSum(), state.ewmaSum());
+
+        assertThat(copy.forecast(10)).containsExactly(state.forecast(10));
+    }
+
+    @Test
+    void forecast_shouldBeEmptyOnceAllDataLeavesTheWindow() {
+        IncrementalForecastState state = IncrementalForecastState.empty(
+                ForecastConfig.AlgorithmType.LINEAR_REGRESSION, 7, 0.3, 7, CAPACITY, ORIGIN);
+        state.apply(ORIGIN, 500);
+        state.advanceTo(ORIGIN.plusDays(CAPACITY).toEpochDay());
+
+        assertThat(state.forecast(3)).isEmpty();
+        assertThat(svc.linearRegressionForecast(TimeSeries.of(ORIGIN, 5.0), 1)).hasSize(1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PriorityJobQueueTest {
+
+    @Test
+    void waitingTasks_shouldRunByPriorityThenSubmissionOrder() throws Exception {
+        try (PriorityJobQueue queue = new PriorityJobQueue("test", 1, 10)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(4);
+            List<String> order = new CopyOnWriteArrayList<>();
+            // Occupy the only worker so the rest queue up
+            queue.submit(1, () -> {
+                awaitQuietly(release);
+                done.countDown();
+            });
+            queue.submit(1, () -> { order.add("bulk-1"); done.countDown(); });
+            queue.submit(1, () -> { order.add("bulk-2"); done.countDown(); });
+            queue.submit(0, () -> { order.add("interactive"); done.countDown(); });
+            release.countDown();
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(order).containsExactly("interactive", "bulk-1", "bulk-2");
+        }
+    }
+
+    @Test
+    void fullQueue_shouldRejectImmediately() {
+        try (PriorityJobQueue queue = new PriorityJobQueue("test", 1, 1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            queue.submit(0, () -> awaitQuietly(release));
+            waitUntilIdle(queue);
+            queue.submit(0, () -> {});
+            assertThatThrownBy(() -> queue.submit(0, () -> {})).isInstanceOf(RejectedExecutionException.class);
+            assertThat(queue.waiting()).isEqualTo(1);
+            release.countDown();
+        }
+    }
+
+    private static void waitUntilIdle(PriorityJobQueue queue) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.waiting() > 0 && System.nanoTime() < deadline) Thread.onSpinWait();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
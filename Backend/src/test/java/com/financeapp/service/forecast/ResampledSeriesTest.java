@@ -0,0 +1,63 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ResampledSeriesTest {
+
+    private static final LocalDate ANCHOR = LocalDate.of(2024, 3, 15);
+
+    @Test
+    void weekly_shouldSumCompleteWeeksEndingBeforeAnchorAndDropLeadingPartialWeek() {
+        // 17 days of ones: two full weeks before the anchor plus three days of a partial week
+        double[] ones = new double[17];
+        Arrays.fill(ones, 1);
+        TimeSeries daily = TimeSeries.of(ANCHOR.minusDays(17), ones);
+
+        ResampledSeries weekly = ResampledSeries.of(daily, ResampledSeries.Period.WEEKLY, ANCHOR);
+
+        assertThat(weekly.values().toArray()).containsExactly(7.0, 7.0);
+        assertThat(weekly.bucketStart(0)).isEqualTo(ANCHOR.minusWeeks(2));
+        assertThat(weekly.bucketStart(1)).isEqualTo(ANCHOR.minusWeeks(1));
+    }
+
+    @Test
+    void monthly_shouldFollowCalendarMonthLengths() {
+        LocalDate from = ANCHOR.minusMonths(3);
+        double[] values = new double[(int) (ANCHOR.toEpochDay() - from.toEpochDay())];
+        Arrays.fill(values, 2);
+
+        ResampledSeries monthly = ResampledSeries.of(TimeSeries.of(from, values), ResampledSeries.Period.MONTHLY, ANCHOR);
+
+        // Dec 15 - Jan 14, Jan 15 - Feb 14, Feb 15 - Mar 14 (2024 is a leap year)
+        assertThat(monthly.values().toArray()).containsExactly(62.0, 62.0, 58.0);
+        assertThat(monthly.bucketStart(0)).isEqualTo(LocalDate.of(2023, 12, 15));
+    }
+
+    @Test
+    void bucketsCovering_shouldRoundHorizonUpToWholeBuckets() {
+        assertThat(ResampledSeries.Period.WEEKLY.bucketsCovering(ANCHOR, 7)).isEqualTo(1);
+        assertThat(ResampledSeries.Period.WEEKLY.bucketsCovering(ANCHOR, 8)).isEqualTo(2);
+        assertThat(ResampledSeries.Period.MONTHLY.bucketsCovering(ANCHOR, 90)).isEqualTo(3);
+        assertThat(ResampledSeries.Period.DAILY.bucketsCovering(ANCHOR, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void shortOrEmptySeries_shouldYieldNoBuckets() {
+        TimeSeries fiveDays = TimeSeries.of(ANCHOR.minusDays(5), 1, 1, 1, 1, 1);
+
+        assertThat(ResampledSeries.of(fiveDays, ResampledSeries.Period.WEEKLY, ANCHOR).values().isEmpty()).isTrue();
+        assertThat(ResampledSeries.of(TimeSeries.empty(), ResampledSeries.Period.MONTHLY, ANCHOR).values().isEmpty()).isTrue();
+    }
+
+    @Test
+    void parse_shouldAcceptRequestValuesAndRejectUnknownOnes() {
+        assertThat(ResampledSeries.Period.parse("Weekly")).isEqualTo(ResampledSeries.Period.WEEKLY);
+        assertThatThrownBy(() -> ResampledSeries.Period.parse("hourly")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
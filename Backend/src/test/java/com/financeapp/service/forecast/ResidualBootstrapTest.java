@@ -0,0 +1,55 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class ResidualBootstrapTest {
+
+    @Test
+    void whiteNoiseResiduals_shouldGiveFlatOrderedBandsAroundPoint() {
+        double[] point = {100, 100, 100, 100, 100};
+        double[] residuals = {-10, 10, -10, 10, -10, 10, -10, 10, -10, 10};
+        double[][] bands = ResidualBootstrap.intervals(point, residuals, 4000, 42L, ForkJoinPool.commonPool());
+
+        for (int h = 0; h < point.length; h++) {
+            assertThat(bands[0][h]).isLessThanOrEqualTo(bands[1][h]);
+            assertThat(bands[1][h]).isLessThanOrEqualTo(bands[2][h]);
+            // Alternating residuals have negative autocorrelation, so no error is carried forward
+            assertThat(bands[0][h]).isEqualTo(90.0);
+            assertThat(bands[2][h]).isEqualTo(110.0);
+        }
+    }
+
+    @Test
+    void persistentResiduals_shouldWidenWithHorizon() {
+        double[] point = new double[10];
+        double[] residuals = new double[40];
+        for (int i = 0; i < residuals.length; i++) residuals[i] = i < 20 ? -5 + i * 0.1 : 5 - (i - 20) * 0.1;
+        double[][] bands = ResidualBootstrap.intervals(point, residuals, 2000, 7L, null);
+
+        double firstWidth = bands[2][0] - bands[0][0];
+        double lastWidth = bands[2][9] - bands[0][9];
+        assertThat(lastWidth).isGreaterThan(firstWidth * 2);
+        assertThat(bands[1][9]).isCloseTo(0.0, within(firstWidth));
+    }
+
+    @Test
+    void sameSeedAndChunking_shouldReproduceBands() {
+        double[] point = {1, 2, 3};
+        double[] residuals = {0.5, -1.5, 2.0, -0.25, 0.75, -1.0};
+        double[][] a = ResidualBootstrap.intervals(point, residuals, 1000, 99L, null);
+        double[][] b = ResidualBootstrap.intervals(point, residuals, 1000, 99L, null);
+        assertThat(a).isDeepEqualTo(b);
+    }
+
+    @Test
+    void tooFewResiduals_shouldBeRejected() {
+        assertThatThrownBy(() -> ResidualBootstrap.intervals(new double[]{1}, new double[]{1}, 100, 1L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class RobustZScoresTest {
+
+    @Test
+    void spike_shouldScoreHighWithoutInflatingLaterScale() {
+        double[] values = new double[60];
+        for (int i = 0; i < values.length; i++) values[i] = 100 + (i % 3) * 10;
+        values[40] = 1000;
+
+        RobustZScores scores = RobustZScores.of(values, 14, 7);
+
+        assertThat(scores.zscore()[40]).isGreaterThan(20);
+        assertThat(scores.center()[40]).isEqualTo(110.0);
+        // The spike is inside the next windows yet barely moves the medians
+        assertThat(scores.scale()[45]).isCloseTo(scores.scale()[39], within(1e-9));
+        for (int i = 0; i < values.length; i++) {
+            if (i != 40 && !Double.isNaN(scores.zscore()[i])) {
+                assertThat(Math.abs(scores.zscore()[i])).as("index %d", i).isLessThan(3.5);
+            }
+        }
+    }
+
+    @Test
+    void sparseSeries_shouldFallBackToMeanAbsoluteResidual() {
+        double[] values = new double[40];
+        for (int i = 0; i < values.length; i += 7) values[i] = 50;
+        values[39] = 400;
+
+        RobustZScores scores = RobustZScores.of(values, 21, 7);
+
+        assertThat(scores.center()[39]).isZero();
+        assertThat(scores.scale()[39]).isPositive();
+        assertThat(scores.zscore()[39]).isGreaterThan(3.5);
+    }
+
+    @Test
+    void warmUp_andFlatSeries_shouldBeUnscored() {
+        RobustZScores scores = RobustZScores.of(new double[30], 10, 5);
+        for (double z : scores.zscore()) assertThat(z).isNaN();
+        assertThat(RobustZScores.of(new double[3], 10, 5).center()).containsOnly(Double.NaN);
+    }
+}
@@ -0,0 +1,55 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RollingMedianTest {
+
+    @Test
+    void trailing_shouldMatchSortingEachWindow() {
+        Random random = new Random(7);
+        double[] values = new double[500];
+        for (int i = 0; i < values.length; i++) {
+            // Repeated values exercise ties between the two heaps
+            values[i] = random.nextInt(4) == 0 ? 10 : Math.round(random.nextGaussian() * 20);
+        }
+        for (int window : new int[]{1, 2, 7, 28}) {
+            double[] medians = RollingMedian.trailing(values, window, 1);
+            assertThat(medians[0]).isNaN();
+            for (int i = 1; i < values.length; i++) {
+                double[] span = Arrays.copyOfRange(values, Math.max(0, i - window), i);
+                assertThat(medians[i]).as("window %d at %d", window, i).isEqualTo(sortedMedian(span));
+            }
+        }
+    }
+
+    @Test
+    void trailing_shouldWaitForMinPeriods() {
+        double[] medians = RollingMedian.trailing(new double[]{5, 1, 3, 9}, 3, 2);
+        assertThat(medians[0]).isNaN();
+        assertThat(medians[1]).isNaN();
+        assertThat(medians[2]).isEqualTo(3.0);
+        assertThat(medians[3]).isEqualTo(3.0);
+    }
+
+    @Test
+    void remove_shouldRejectIndicesOutsideTheWindow() {
+        RollingMedian median = new RollingMedian(new double[]{1, 2}, 2);
+        median.add(0);
+        assertThatThrownBy(() -> median.remove(1)).isInstanceOf(IllegalArgumentException.class);
+        median.remove(0);
+        assertThat(median.median()).isNaN();
+    }
+
+    private static double sortedMedian(double[] span) {
+        double[] sorted = span.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+}
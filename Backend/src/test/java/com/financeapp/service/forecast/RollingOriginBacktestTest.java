@@ -0,0 +1,82 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class RollingOriginBacktestTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static RollingOriginBacktest.Forecaster lastPlusOne(SeriesPrefixStats stats, List<int[]> windows) {
+        return (from, to, h) -> {
+            windows.add(new int[]{from, to});
+            double[] out = new double[h];
+            java.util.Arrays.fill(out, stats.series().get(to - 1) + 1);
+            return out;
+        };
+    }
+
+    @Test
+    void expandingFolds_shouldTrainOnEverythingBeforeEachOriginAndPoolMetrics() {
+        SeriesPrefixStats stats = SeriesPrefixStats.of(TimeSeries.of(START, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        List<int[]> windows = new CopyOnWriteArrayList<>();
+
+        BacktestMetrics m = RollingOriginBacktest.evaluate(stats, 3, 2, RollingOriginBacktest.WindowMode.EXPANDING,
+                lastPlusOne(stats, windows), null);
+
+        assertThat(windows).containsExactly(new int[]{0, 4}, new int[]{0, 6}, new int[]{0, 8});
+        // Day one of each fold is exact, day two is one below the forecast
+        assertThat(m.points()).isEqualTo(6);
+        assertThat(m.mape()).isCloseTo((1 / 6.0 + 1 / 8.0 + 1 / 10.0) / 6 * 100, within(1e-9));
+        assertThat(m.smape()).isCloseTo((2 / 11.0 + 2 / 15.0 + 2 / 19.0) / 6 * 100, within(1e-9));
+        assertThat(m.rmse()).isCloseTo(Math.sqrt(0.5), within(1e-9));
+        assertThat(m.bias()).isCloseTo(-0.5, within(1e-9));
+        // Naive in-sample error is 1 per day, so MASE equals MAE
+        assertThat(m.mase()).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    void slidingFolds_shouldKeepTheFirstTrainingLength() {
+        SeriesPrefixStats stats = SeriesPrefixStats.of(TimeSeries.of(START, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        List<int[]> windows = new CopyOnWriteArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            RollingOriginBacktest.evaluate(stats, 3, 2, RollingOriginBacktest.WindowMode.SLIDING,
+                    lastPlusOne(stats, windows), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(windows).containsExactlyInAnyOrder(new int[]{0, 4}, new int[]{2, 6}, new int[]{4, 8});
+    }
+
+    @Test
+    void zeroActuals_shouldNotInflateMapeAndConstantTrainingLeavesMaseUndefined() {
+        SeriesPrefixStats stats = SeriesPrefixStats.of(TimeSeries.of(START, 5, 5, 5, 5, 0, 10));
+
+        BacktestMetrics m = RollingOriginBacktest.evaluate(stats, 1, 2, RollingOriginBacktest.WindowMode.EXPANDING,
+                (from, to, h) -> new double[]{5, 5}, null);
+
+        assertThat(m.mape()).isCloseTo(50.0, within(1e-9));
+        assertThat(m.smape()).isCloseTo((2.0 + 2 * 5 / 15.0) / 2 * 100, within(1e-9));
+        assertThat(m.mase()).isNaN();
+    }
+
+    @Test
+    void evaluate_shouldRejectSeriesWithoutATrainingPrefix() {
+        SeriesPrefixStats stats = SeriesPrefixStats.of(TimeSeries.of(START, 1, 2, 3, 4, 5, 6));
+
+        assertThatThrownBy(() -> RollingOriginBacktest.evaluate(stats, 3, 2,
+                RollingOriginBacktest.WindowMode.EXPANDING, (from, to, h) -> new double[h], null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class RunningStatsTest {
+
+    @Test
+    void add_shouldMatchTwoPassMeanAndVariance() {
+        Random random = new Random(3);
+        double[] values = new double[1000];
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < values.length; i++) {
+            // Large offset exercises the numerical stability of the update
+            values[i] = 1e6 + random.nextGaussian() * 15;
+            stats.add(values[i]);
+        }
+        double mean = 0;
+        for (double v : values) mean += v;
+        mean /= values.length;
+        double ss = 0;
+        for (double v : values) ss += (v - mean) * (v - mean);
+
+        assertThat(stats.count()).isEqualTo(1000);
+        assertThat(stats.mean()).isCloseTo(mean, within(1e-6));
+        assertThat(stats.variance()).isCloseTo(ss / (values.length - 1), within(1e-6));
+        assertThat(stats.zscore(mean + 2 * stats.stddev())).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void merge_shouldEqualAddingEveryObservationToOne() {
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        RunningStats all = new RunningStats();
+        for (int i = 0; i < 50; i++) {
+            double v = i * 1.5 + (i % 7);
+            (i < 20 ? left : right).add(v);
+            all.add(v);
+        }
+        left.merge(right);
+
+        assertThat(left.count()).isEqualTo(all.count());
+        assertThat(left.mean()).isCloseTo(all.mean(), within(1e-9));
+        assertThat(left.m2()).isCloseTo(all.m2(), within(1e-6));
+
+        RunningStats empty = new RunningStats();
+        empty.merge(all.copy());
+        assertThat(empty.mean()).isEqualTo(all.mean());
+    }
+
+    @Test
+    void zscore_shouldBeUndefinedWithoutSpread() {
+        RunningStats stats = new RunningStats();
+        assertThat(stats.zscore(1)).isNaN();
+        stats.add(5);
+        stats.add(5);
+        assertThat(stats.variance()).isZero();
+        assertThat(stats.zscore(9)).isNaN();
+    }
+}
@@ -0,0 +1,46 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SeasonalityDetectorTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void weeklyPattern_shouldBeDetectedAsSevenNotAMultiple() {
+        Random random = new Random(11);
+        double[] values = new double[180];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i % 7 == 5 || i % 7 == 6 ? 120 : 40) + random.nextGaussian() * 5 + i * 0.2;
+        }
+        assertThat(SeasonalityDetector.detect(TimeSeries.of(START, values), 5, 40)).isEqualTo(7);
+    }
+
+    @Test
+    void monthlyPayCycle_shouldBeDetectedAsThirtyDays() {
+        Random random = new Random(5);
+        double[] values = new double[180];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 30 + random.nextGaussian() * 3;
+            // Rent and bills land in the first three days of each 30-day cycle
+            if (i % 30 < 3) values[i] += 400;
+        }
+        assertThat(SeasonalityDetector.detect(TimeSeries.of(START, values), 5, 40)).isEqualTo(30);
+    }
+
+    @Test
+    void noiseFlatAndShortSeries_shouldReportNoCycle() {
+        Random random = new Random(2);
+        double[] noise = new double[180];
+        for (int i = 0; i < noise.length; i++) noise[i] = 50 + random.nextGaussian() * 10;
+
+        assertThat(SeasonalityDetector.detect(TimeSeries.of(START, noise), 5, 40)).isZero();
+        assertThat(SeasonalityDetector.detect(TimeSeries.of(START, new double[90]), 5, 40)).isZero();
+        assertThat(SeasonalityDetector.detect(TimeSeries.of(START, 1, 2, 1, 2, 1, 2), 5, 40)).isZero();
+    }
+}
@@ -0,0 +1,66 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.service.impl.ForecastServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class SeriesPrefixStatsTest {
+
+    private final ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null, null, null, null);
+
+    private static ForecastConfig config(ForecastConfig.AlgorithmType algo, Integer window, Double alpha, Integer season) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(algo);
+        cfg.setWindowSize(window);
+        cfg.setSmoothingFactor(alpha);
+        cfg.setSeasonLength(season);
+        return cfg;
+    }
+
+    @Test
+    void forecast_shouldMatchKernelsOnEverySubWindow() {
+        Random rnd = new Random(9);
+        double[] values = new double[120];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rnd.nextInt(5) == 0 ? 0 : 40 + 0.3 * i + 10 * Math.sin(i * 2 * Math.PI / 7) + rnd.nextGaussian();
+        }
+        TimeSeries series = TimeSeries.of(LocalDate.of(2024, 1, 1), values);
+        SeriesPrefixStats stats = SeriesPrefixStats.of(series);
+        List<ForecastConfig> configs = List.of(
+                config(ForecastConfig.AlgorithmType.SMA, 7, null, null),
+                config(ForecastConfig.AlgorithmType.EWMA, null, 0.3, null),
+                config(ForecastConfig.AlgorithmType.EWMA, null, 0.9, null),
+                config(ForecastConfig.AlgorithmType.LINEAR_REGRESSION, null, null, null),
+                config(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION, null, null, 7),
+                config(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION, null, null, 30));
+
+        for (int trial = 0; trial < 200; trial++) {
+            int from = rnd.nextInt(60);
+            int to = from + 8 + rnd.nextInt(values.length - from - 8);
+            TimeSeries window = series.slice(from, to);
+            for (ForecastConfig cfg : configs) {
+                double[] expected = svc.forecastSeries(cfg, window, 5);
+                double[] actual = stats.forecast(cfg, from, to, 5);
+                for (int h = 0; h < 5; h++) {
+                    assertThat(actual[h]).as("%s [%d,%d) h=%d", cfg.getAlgorithm(), from, to, h)
+                            .isCloseTo(expected[h], within(1e-7 * Math.max(1, Math.abs(expected[h]))));
+                }
+            }
+        }
+    }
+
+    @Test
+    void naiveScale_shouldAverageOneStepChangesInTheWindow() {
+        SeriesPrefixStats stats = SeriesPrefixStats.of(TimeSeries.of(LocalDate.of(2024, 1, 1), 1, 4, 2, 2, 7));
+
+        assertThat(stats.naiveScale(1, 5)).isCloseTo((2 + 0 + 5) / 3.0, within(1e-12));
+        assertThat(stats.naiveScale(2, 3)).isNaN();
+    }
+}
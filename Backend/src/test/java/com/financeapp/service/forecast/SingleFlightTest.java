@@ -0,0 +1,93 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    @Test
+    void concurrentCallsWithSameKey_shouldShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Integer> computation = new CompletableFuture<>();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch ready = new CountDownLatch(8);
+            List<CompletableFuture<CompletableFuture<Integer>>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(CompletableFuture.supplyAsync(() -> {
+                    ready.countDown();
+                    return flight.execute("user-1", () -> {
+                        calls.incrementAndGet();
+                        return computation;
+                    });
+                }, pool));
+            }
+            assertThat(ready.await(5, TimeUnit.SECONDS)).isTrue();
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            for (var caller : callers) results.add(caller.get(5, TimeUnit.SECONDS));
+            assertThat(flight.inFlight()).isEqualTo(1);
+
+            computation.complete(42);
+
+            for (var result : results) assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            assertThat(calls).hasValue(1);
+            assertThat(flight.inFlight()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void completedKey_shouldBeReleasedForTheNextCall() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(flight.execute("k", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join()).isEqualTo(1);
+        assertThat(flight.execute("k", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join()).isEqualTo(2);
+        assertThat(flight.execute("other", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join()).isEqualTo(3);
+    }
+
+    @Test
+    void failures_shouldReachEveryCallerAndReleaseTheKey() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        CompletableFuture<Integer> computation = new CompletableFuture<>();
+        CompletableFuture<Integer> first = flight.execute("k", () -> computation);
+        CompletableFuture<Integer> second = flight.execute("k", () -> CompletableFuture.completedFuture(0));
+
+        computation.completeExceptionally(new IllegalStateException("boom"));
+
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("boom");
+        assertThatThrownBy(second::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("boom");
+        assertThat(flight.inFlight()).isZero();
+        assertThatThrownBy(() -> flight.execute("k", () -> { throw new IllegalArgumentException("sync"); }).join())
+                .hasRootCauseMessage("sync");
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void cancellingOneCaller_shouldNotCancelTheSharedComputation() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        CompletableFuture<Integer> computation = new CompletableFuture<>();
+        CompletableFuture<Integer> first = flight.execute("k", () -> computation);
+        CompletableFuture<Integer> second = flight.execute("k", () -> computation);
+
+        first.cancel(true);
+        computation.complete(7);
+
+        assertThat(second.join()).isEqualTo(7);
+        assertThat(computation.isCancelled()).isFalse();
+    }
+}
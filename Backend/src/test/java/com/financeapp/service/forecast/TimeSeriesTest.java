@@ -0,0 +1,50 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TimeSeriesTest {
+
+    @Test
+    void fromDailyTotals_shouldFillGapsWithZero() {
+        LocalDate d0 = LocalDate.of(2024, 3, 1);
+        List<Object[]> rows = List.of(
+                new Object[]{d0, BigDecimal.valueOf(10)},
+                new Object[]{d0.plusDays(3), BigDecimal.valueOf(40)});
+
+        TimeSeries series = TimeSeries.fromDailyTotals(rows, d0.plusDays(4));
+
+        assertThat(series.startDate()).isEqualTo(d0);
+        assertThat(series.endDate()).isEqualTo(d0.plusDays(4));
+        assertThat(series.toArray()).containsExactly(10.0, 0.0, 0.0, 40.0, 0.0);
+    }
+
+    @Test
+    void slice_shouldBeZeroCopyViewWithShiftedDates() {
+        double[] backing = {1, 2, 3, 4, 5, 6};
+        TimeSeries series = TimeSeries.of(LocalDate.of(2024, 1, 1), backing);
+
+        TimeSeries train = series.head(4);
+        TimeSeries test = series.slice(4, 6);
+
+        assertThat(train.length()).isEqualTo(4);
+        assertThat(test.startDate()).isEqualTo(LocalDate.of(2024, 1, 5));
+        assertThat(test.get(0)).isEqualTo(5.0);
+        assertThat(train.tail(2).toArray()).containsExactly(3.0, 4.0);
+
+        backing[4] = 50;
+        assertThat(test.get(0)).isEqualTo(50.0);
+    }
+
+    @Test
+    void get_shouldRejectIndicesOutsideView() {
+        TimeSeries view = TimeSeries.of(LocalDate.of(2024, 1, 1), 1, 2, 3, 4).slice(1, 3);
+        assertThatThrownBy(() -> view.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
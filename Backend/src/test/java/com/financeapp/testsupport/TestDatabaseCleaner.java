@@ -16,8 +16,12 @@ public class TestDatabaseCleaner {
         // Delete in FK-safe order; tables may not all exist in H2 for every test run
         String[] tablesInOrder = new String[]{
                 "forecast_anomalies",
-                "forecast_performances",
+                "forecast_performance",
                 "forecast_results",
+                "forecast_runs",
+                "forecast_model_states",
+                "category_spending_stats",
+                "forecast_configs",
                 "forecasts",
                 "financial_data",
                 "categories",